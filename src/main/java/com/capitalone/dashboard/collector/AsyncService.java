@@ -1,166 +1,151 @@
 package com.capitalone.dashboard.collector;
 
 import com.capitalone.dashboard.model.DataRefresh;
-import com.capitalone.dashboard.model.LibraryPolicyReference;
 import com.capitalone.dashboard.model.LibraryPolicyResult;
 import com.capitalone.dashboard.model.WhiteSourceComponent;
 import com.capitalone.dashboard.model.WhiteSourceProduct;
+import com.capitalone.dashboard.model.WhiteSourceProjectIndex;
 import com.capitalone.dashboard.model.WhiteSourceProjectVital;
 import com.capitalone.dashboard.model.WhitesourceOrg;
-import com.capitalone.dashboard.repository.LibraryPolicyResultsRepository;
-import com.capitalone.dashboard.repository.WhiteSourceComponentRepository;
+import com.capitalone.dashboard.settings.PipelineSettings;
 import com.capitalone.dashboard.settings.WhiteSourceServerSettings;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Service
 public class AsyncService {
     private static final Log LOG = LogFactory.getLog(AsyncService.class);
-    private final WhiteSourceComponentRepository whiteSourceComponentRepository;
-    private final LibraryPolicyResultsRepository libraryPolicyResultsRepository;
+    private final WhiteSourceScanDataWriter scanDataWriter;
     private final WhiteSourceClient whiteSourceClient;
+    private final WhiteSourceCircuitBreaker circuitBreaker;
+    private final Executor collectorExecutor;
 
     @Autowired
-    public AsyncService(WhiteSourceComponentRepository whiteSourceComponentRepository,
-                        LibraryPolicyResultsRepository libraryPolicyResultsRepository,
-                        WhiteSourceClient whiteSourceClient) {
-        this.whiteSourceComponentRepository = whiteSourceComponentRepository;
-        this.libraryPolicyResultsRepository = libraryPolicyResultsRepository;
+    public AsyncService(WhiteSourceScanDataWriter scanDataWriter,
+                        WhiteSourceClient whiteSourceClient,
+                        WhiteSourceCircuitBreaker circuitBreaker,
+                        @Qualifier("WSCollectorExecutor") Executor collectorExecutor) {
+        this.scanDataWriter = scanDataWriter;
         this.whiteSourceClient = whiteSourceClient;
+        this.circuitBreaker = circuitBreaker;
+        this.collectorExecutor = collectorExecutor;
     }
 
     /**
-     * Async method to get projects for a product
+     * Async method to get projects for a product. All product calls are in flight together, no thread waits on them.
      *
      * @param whitesourceOrg            whitesource org
      * @param products                  products
      * @param whiteSourceServerSettings whitesource server settings
      * @return CompletableFuture of list of  WhitesourceComponents
      */
-    @Async("WSCollectorExecutor")
     public CompletableFuture<List<WhiteSourceComponent>> getProjectsForProductsAsync(WhitesourceOrg whitesourceOrg, List<WhiteSourceProduct> products, WhiteSourceServerSettings whiteSourceServerSettings) {
-        List<WhiteSourceComponent> projects = new ArrayList<>();
-        products.stream().map(product -> whiteSourceClient.getAllProjectsForProduct(whitesourceOrg, product,
-                whiteSourceServerSettings)).forEach(projects::addAll);
-        return CompletableFuture.completedFuture(projects);
+        List<CompletableFuture<List<WhiteSourceComponent>>> calls = products.stream()
+                .map(product -> whiteSourceClient.getAllProjectsForProductAsync(whitesourceOrg, product, whiteSourceServerSettings))
+                .collect(Collectors.toList());
+        return CompletableFuture.allOf(calls.toArray(new CompletableFuture[0]))
+                .thenApply(v -> {
+                    List<WhiteSourceComponent> projects = new ArrayList<>();
+                    calls.forEach(call -> projects.addAll(call.join()));
+                    return projects;
+                });
     }
 
     /**
-     * Async method to get product alerts and update library policy results
+     * Starts fetching the alerts of the products, in the given order. Calls are not blocking, they are paced by the
+     * pipeline settings, the rate limiter and the connection pool, and each product is added to the returned queue as
+     * soon as its alerts are in.
      *
      * @param productTokensToCollect products to collect
-     * @param enabledProjects        set of enabled projects
+     * @param enabledProjects        enabled projects of the run
      * @param projectVitalMap        project vital map
      * @param serverSettings         whitesource server setting
-     * @return CompletableFuture of DataRefresh
+     * @param pipelineSettings       fetch concurrency and queue capacity
+     * @return queue of fetched products, to be drained by {@link #saveProductAlertsAsync}
      */
-    @Async("WSCollectorExecutor")
-    public CompletableFuture<DataRefresh> getAndUpdateDataByProductAsync(List<String> productTokensToCollect, Set<WhiteSourceComponent> enabledProjects, Map<String, WhiteSourceProjectVital> projectVitalMap, WhiteSourceServerSettings serverSettings) {
+    public ProductWorkQueue fetchProductAlerts(Collection<String> productTokensToCollect, WhiteSourceProjectIndex enabledProjects, Map<String, WhiteSourceProjectVital> projectVitalMap,
+                                               WhiteSourceServerSettings serverSettings, PipelineSettings pipelineSettings) {
         AtomicInteger counter = new AtomicInteger();
-        Map<String, LibraryPolicyResult> libraryPolicyResultMap = new HashMap<>();
-        Map<String, LibraryPolicyReference> libraryLookUp = new HashMap<>();
         int totalCount = productTokensToCollect.size();
-        long startTime = System.currentTimeMillis();
-        productTokensToCollect
-                .stream()
-                .map(ept -> {
-                    LOG.info("Collecting alerts for Product Token " + ept + ": " + counter.incrementAndGet() + "  of " + totalCount);
-                    return whiteSourceClient.getProductAlerts(ept, enabledProjects, projectVitalMap, serverSettings);
-                })
-                .forEach(libraryPolicyResultMap::putAll);
-
-        //only save enabled projects
-        Set<WhiteSourceComponent> collected = enabledProjects.stream().filter(e -> libraryPolicyResultMap.containsKey(e.getProjectToken())).collect(Collectors.toSet());
-        DataRefresh dataRefresh = new DataRefresh(collected, libraryLookUp);
-        collected.forEach(project -> {
-            saveScanData(project, libraryPolicyResultMap);
-        });
-        LOG.info(String.format("getAndUpdateByProductAsync :: finished - duration=%d", System.currentTimeMillis()-startTime));
-        return CompletableFuture.completedFuture(dataRefresh);
+        return new ProductWorkQueue(productTokensToCollect, pipelineSettings.getFetchConcurrency(), pipelineSettings.getQueueCapacity(), productToken -> {
+            // stop calling a server whose circuit opened while products were being collected
+            if (circuitBreaker.isOpen(serverSettings)) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return whiteSourceClient.getProductAlertsAsync(productToken, enabledProjects, projectVitalMap, serverSettings)
+                    .whenComplete((results, e) -> LOG.info("Collected alerts for Product Token " + productToken + ": " + counter.incrementAndGet() + "  of " + totalCount));
+        }).start();
     }
 
     /**
-     * Build Library Policy Reference
+     * Async worker that takes fetched products from the queue one at a time and saves their library policy results,
+     * until every product of the queue has been taken
      *
-     * @param project                whitesource project
-     * @param libraryPolicyResultMap library policy results
-     * @return library reference map
+     * @param queue           fetched products
+     * @param enabledProjects enabled projects of the run
+     * @return CompletableFuture of DataRefresh
      */
-    private static Map<String, LibraryPolicyReference> buildLibraryReference(WhiteSourceComponent project, Map<String, LibraryPolicyResult> libraryPolicyResultMap) {
-        LibraryPolicyResult libraryPolicyResult = libraryPolicyResultMap.get(project.getProjectToken());
-        Collection<Set<LibraryPolicyResult.Threat>> libs = libraryPolicyResult.getThreats().values();
-        Map<String, LibraryPolicyReference> referenceMap = new HashMap<>();
-
-        libs.forEach(lib -> lib.stream()
-                .map(LibraryPolicyResult.Threat::getComponents)
-                .forEach(components -> components.stream()
-                        .map(AsyncService::getComponentName)
-                        .forEach(name -> {
-                            LibraryPolicyReference lpr = referenceMap.get(name);
-                            if (lpr == null) {
-                                lpr = new LibraryPolicyReference();
-                                lpr.setLibraryName(name);
-                            }
-                            List<WhiteSourceComponent> projects = lpr.getProjectReferences();
-                            projects.add(project);
-                            lpr.setProjectReferences(projects);
-                            lpr.setLastUpdated(System.currentTimeMillis());
-                            referenceMap.put(name, lpr);
-                        })
-                ));
-        return referenceMap;
+    @Async("WSCollectorExecutor")
+    public CompletableFuture<DataRefresh> saveProductAlertsAsync(ProductWorkQueue queue, WhiteSourceProjectIndex enabledProjects) {
+        DataRefresh dataRefresh = new DataRefresh();
+        long startTime = System.currentTimeMillis();
+        int products = 0;
+        try {
+            for (ProductWorkQueue.ProductAlerts productAlerts = queue.take(); productAlerts != null; productAlerts = queue.take()) {
+                Map<String, LibraryPolicyResult> libraryPolicyResultMap = productAlerts.getResults();
+                //only save enabled projects
+                enabledProjects.getProductProjects(productAlerts.getProductToken()).stream()
+                        .filter(project -> libraryPolicyResultMap.containsKey(project.getProjectToken()))
+                        .forEach(project -> {
+                            saveScanData(project, libraryPolicyResultMap);
+                            dataRefresh.addProject(project);
+                        });
+                products++;
+            }
+        } catch (InterruptedException e) {
+            LOG.error("Interrupted while waiting for product alerts", e);
+            Thread.currentThread().interrupt();
+        } finally {
+            scanDataWriter.flush();
+        }
+        LOG.info(String.format("saveProductAlertsAsync :: finished - products=%d, duration=%d", products, System.currentTimeMillis() - startTime));
+        return CompletableFuture.completedFuture(dataRefresh);
     }
 
     /**
-     * Async method to get project alerts and save library policy result
+     * Starts fetching the alerts of projects and saving their library policy results. At most fetchConcurrency calls
+     * are in flight, a call is started whenever one completes and each result is saved, on the collector executor, as
+     * soon as it is in. No thread waits on the calls.
      *
-     * @param projects        set of projects to collect
-     * @param projectVitalMap project vital map
-     * @param serverSettings  server settings
-     * @return CompletableFuture of DataRefresh
+     * @param projects         projects to collect
+     * @param projectVitalMap  project vital map
+     * @param serverSettings   server settings
+     * @param pipelineSettings fetch concurrency
+     * @return CompletableFuture of DataRefresh, completed once every result is saved
      */
-    @Async("WSCollectorExecutor")
-    public CompletableFuture<DataRefresh> getAndUpdateDataByProjectAsync(List<WhiteSourceComponent> projects, Map<String, WhiteSourceProjectVital> projectVitalMap, WhiteSourceServerSettings serverSettings) {
-        AtomicInteger counter = new AtomicInteger();
-        Map<String, LibraryPolicyResult> libraryPolicyResultMap = new HashMap<>();
-        Map<String, LibraryPolicyReference> libraryLookUp = new HashMap<>();
-        int totalCount = projects.size();
-        projects
-                .stream()
-                .map(project -> {
-                    LOG.info("Collecting alerts for Project Token " + project.getProjectToken() + ": " + counter.incrementAndGet() + "  of " + totalCount);
-                    LibraryPolicyResult libraryPolicyResult = whiteSourceClient.getProjectAlerts(project, projectVitalMap.get(project.getProjectToken()), serverSettings, null);
-                    Map<String, LibraryPolicyResult> lpr = new HashMap<>();
-                    lpr.put(project.getProjectToken(), libraryPolicyResult);
-                    return lpr;
-                })
-                .forEach(libraryPolicyResultMap::putAll);
-
-        DataRefresh dataRefresh = new DataRefresh(new HashSet<>(projects), libraryLookUp);
-        projects.forEach(project -> {
-            saveScanData(project, libraryPolicyResultMap);
-        });
-        return CompletableFuture.completedFuture(dataRefresh);
+    public CompletableFuture<DataRefresh> getAndUpdateDataByProjectAsync(Collection<WhiteSourceComponent> projects, Map<String, WhiteSourceProjectVital> projectVitalMap,
+                                                                         WhiteSourceServerSettings serverSettings, PipelineSettings pipelineSettings) {
+        return new ProjectFetch(projects, projectVitalMap, serverSettings, Math.max(1, pipelineSettings.getFetchConcurrency())).start();
     }
 
     /**
-     * Save scan data
+     * Save scan data, buffered by the scan data writer until the next flush
      *
      * @param project                whitesource project
      * @param libraryPolicyResultMap library policy results map
@@ -169,29 +154,90 @@ public class AsyncService {
         LibraryPolicyResult libraryPolicyResult = libraryPolicyResultMap.get(project.getProjectToken());
 
         if (Objects.isNull(libraryPolicyResult)) return;
-        LibraryPolicyResult libraryPolicyResultExisting = getLibraryPolicyResultExisting(project.getId(), libraryPolicyResult.getEvaluationTimestamp());
-        if (Objects.nonNull(libraryPolicyResultExisting)) {
-            libraryPolicyResult.setId(libraryPolicyResultExisting.getId());
-        }
-        libraryPolicyResult.setCollectorItemId(project.getId());
-        libraryPolicyResultsRepository.save(libraryPolicyResult);
-        project.setLastUpdated(System.currentTimeMillis());
-        whiteSourceComponentRepository.save(project);
+        scanDataWriter.write(project, libraryPolicyResult);
     }
 
-    /**
-     * Gets existing Library Policy Result
-     *
-     * @param collectorItemId     Collector Item Id
-     * @param evaluationTimestamp Evaluation Timestamp
-     * @return Library Policy Result
-     */
-    private LibraryPolicyResult getLibraryPolicyResultExisting(ObjectId collectorItemId, long evaluationTimestamp) {
-        return libraryPolicyResultsRepository.findByCollectorItemIdAndEvaluationTimestamp(collectorItemId, evaluationTimestamp);
-    }
+    // Keeps fetchConcurrency project calls in flight until every project is collected or the circuit opens
+    private final class ProjectFetch {
+        private final Iterator<WhiteSourceComponent> toCollect;
+        private final Map<String, WhiteSourceProjectVital> projectVitalMap;
+        private final WhiteSourceServerSettings serverSettings;
+        private final int fetchConcurrency;
+        private final int totalCount;
+        private final AtomicInteger counter = new AtomicInteger();
+        private final DataRefresh dataRefresh = new DataRefresh();
+        private final CompletableFuture<DataRefresh> done = new CompletableFuture<>();
+        private final SerialLoop startLoop = new SerialLoop(this::startCalls);
+        private int inFlight;
+
+        private ProjectFetch(Collection<WhiteSourceComponent> projects, Map<String, WhiteSourceProjectVital> projectVitalMap,
+                             WhiteSourceServerSettings serverSettings, int fetchConcurrency) {
+            this.toCollect = new ArrayList<>(projects).iterator();
+            this.projectVitalMap = projectVitalMap;
+            this.serverSettings = serverSettings;
+            this.fetchConcurrency = fetchConcurrency;
+            this.totalCount = projects.size();
+        }
+
+        private CompletableFuture<DataRefresh> start() {
+            startLoop.run();
+            return done;
+        }
 
+        private void startCalls() {
+            List<WhiteSourceComponent> toStart = new ArrayList<>();
+            boolean finished;
+            synchronized (this) {
+                // stop calling a server whose circuit opened while projects were being collected
+                boolean open = circuitBreaker.isOpen(serverSettings);
+                while (!open && toCollect.hasNext() && inFlight < fetchConcurrency) {
+                    toStart.add(toCollect.next());
+                    inFlight++;
+                }
+                finished = inFlight == 0 && (open || !toCollect.hasNext()) && !done.isDone();
+            }
+            toStart.forEach(this::call);
+            if (finished) {
+                finish();
+            }
+        }
 
-    private static String getComponentName(String component) {
-        return component.contains("#") ? component.substring(0, component.indexOf('#')) : "";
+        private void call(WhiteSourceComponent project) {
+            CompletableFuture<LibraryPolicyResult> call;
+            try {
+                call = whiteSourceClient.getProjectAlertsAsync(project, projectVitalMap.get(project.getProjectToken()), serverSettings);
+            } catch (RuntimeException e) {
+                call = new CompletableFuture<>();
+                call.completeExceptionally(e);
+            }
+            call.whenCompleteAsync((libraryPolicyResult, e) -> {
+                try {
+                    LOG.info("Collected alerts for Project Token " + project.getProjectToken() + ": " + counter.incrementAndGet() + "  of " + totalCount);
+                    // a failed call has no result, saving an empty one would wipe out the last good scan
+                    if (e == null && libraryPolicyResult != null) {
+                        saveScanData(project, Collections.singletonMap(project.getProjectToken(), libraryPolicyResult));
+                        synchronized (dataRefresh) {
+                            dataRefresh.addProject(project);
+                        }
+                    }
+                } catch (RuntimeException saveError) {
+                    LOG.error("Could not save alerts of Project Token " + project.getProjectToken(), saveError);
+                } finally {
+                    synchronized (this) {
+                        inFlight--;
+                    }
+                    startLoop.run();
+                }
+            }, collectorExecutor);
+        }
+
+        private void finish() {
+            try {
+                scanDataWriter.flush();
+                done.complete(dataRefresh);
+            } catch (RuntimeException e) {
+                done.completeExceptionally(e);
+            }
+        }
     }
 }
@@ -1,6 +1,5 @@
 package com.capitalone.dashboard.collector;
 
-import com.capitalone.dashboard.client.RestClient;
 import com.capitalone.dashboard.misc.HygieiaException;
 import com.capitalone.dashboard.model.Build;
 import com.capitalone.dashboard.model.BuildStatus;
@@ -10,10 +9,12 @@ import com.capitalone.dashboard.model.LibraryPolicyResult;
 import com.capitalone.dashboard.model.LibraryPolicyThreatDisposition;
 import com.capitalone.dashboard.model.LibraryPolicyThreatLevel;
 import com.capitalone.dashboard.model.LibraryPolicyType;
-import com.capitalone.dashboard.model.LicensePolicyType;
+import com.capitalone.dashboard.model.WhiteSourceAlert;
 import com.capitalone.dashboard.model.WhiteSourceChangeRequest;
 import com.capitalone.dashboard.model.WhiteSourceComponent;
 import com.capitalone.dashboard.model.WhiteSourceProduct;
+import com.capitalone.dashboard.model.WhiteSourceProductCost;
+import com.capitalone.dashboard.model.WhiteSourceProjectIndex;
 import com.capitalone.dashboard.model.WhiteSourceProjectVital;
 import com.capitalone.dashboard.model.WhiteSourceRequest;
 import com.capitalone.dashboard.model.WhitesourceOrg;
@@ -28,6 +29,8 @@ import com.capitalone.dashboard.util.HygieiaUtils;
 import com.capitalone.dashboard.utils.Constants;
 import com.capitalone.dashboard.utils.DateTimeUtils;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.io.input.CharSequenceInputStream;
+import org.apache.commons.io.input.ProxyReader;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -36,10 +39,13 @@ import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collections;
@@ -49,6 +55,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -60,23 +72,44 @@ import static com.capitalone.dashboard.utils.Constants.yyyy_MM_dd_HH_mm_ss_z;
 public class DefaultWhiteSourceClient implements WhiteSourceClient {
     private static final Log LOG = LogFactory.getLog(DefaultWhiteSourceClient.class);
     private static final String API_URL = "/api/v1.3";
-    private final RestClient restClient;
+    private final WhiteSourceHttpTransport transport;
+    private final WhiteSourceAsyncHttpTransport asyncTransport;
+    private final WhiteSourceRateLimiter rateLimiter;
+    private final WhiteSourceRetryPolicy retryPolicy;
+    private final WhiteSourceCircuitBreaker circuitBreaker;
+    private final WhiteSourceProjectVitalCache projectVitalCache;
+    private final WhiteSourceStringInterner stringInterner;
+    private final WhiteSourceProductCosts productCosts;
     private final WhiteSourceSettings whiteSourceSettings;
     private final CollectorItemRepository collectorItemRepository;
     private final LibraryPolicyResultsRepository libraryPolicyResultsRepository;
     private final CollectorRepository collectorRepository;
     private final BuildRepository buildRepository;
     private final WhiteSourceComponentRepository whiteSourceComponentRepository;
+    private volatile LicensePolicyClassifier licensePolicyClassifier;
 
 
     @Autowired
-    public DefaultWhiteSourceClient(RestClient restClient, WhiteSourceSettings settings,
+    public DefaultWhiteSourceClient(WhiteSourceHttpTransport transport, WhiteSourceAsyncHttpTransport asyncTransport,
+                                    WhiteSourceRateLimiter rateLimiter,
+                                    WhiteSourceRetryPolicy retryPolicy, WhiteSourceCircuitBreaker circuitBreaker,
+                                    WhiteSourceProjectVitalCache projectVitalCache,
+                                    WhiteSourceStringInterner stringInterner,
+                                    WhiteSourceProductCosts productCosts,
+                                    WhiteSourceSettings settings,
                                     WhiteSourceComponentRepository whiteSourceComponentRepository,
                                     CollectorItemRepository collectorItemRepository,
                                     LibraryPolicyResultsRepository libraryPolicyResultsRepository,
                                     CollectorRepository collectorRepository,
                                     BuildRepository buildRepository) {
-        this.restClient = restClient;
+        this.transport = transport;
+        this.asyncTransport = asyncTransport;
+        this.rateLimiter = rateLimiter;
+        this.retryPolicy = retryPolicy;
+        this.circuitBreaker = circuitBreaker;
+        this.projectVitalCache = projectVitalCache;
+        this.stringInterner = stringInterner;
+        this.productCosts = productCosts;
         this.whiteSourceSettings = settings;
         this.collectorItemRepository = collectorItemRepository;
         this.whiteSourceComponentRepository = whiteSourceComponentRepository;
@@ -138,6 +171,9 @@ public class DefaultWhiteSourceClient implements WhiteSourceClient {
             String name = (String) jsonObject.get(Constants.ORG_NAME);
             return new WhitesourceOrg(name, whitesourceOrg.getToken());
             //TODO: Refactor Exception Handling
+        } catch (WhiteSourceCircuitOpenException e) {
+            // the org is skipped, not failed
+            throw e;
         } catch (Exception e) {
             throw new HygieiaException("Exception occurred while calling getOrgDetails", e.getCause(), HygieiaException.BAD_DATA);
         }
@@ -169,6 +205,9 @@ public class DefaultWhiteSourceClient implements WhiteSourceClient {
                 whiteSourceProducts.add(whiteSourceProduct);
             }
             //TODO: Refactor Exception Handling
+        } catch (WhiteSourceCircuitOpenException e) {
+            // the org is skipped, not failed
+            throw e;
         } catch (Exception e) {
             throw new HygieiaException("Exception occurred while retrieving getAllProducts for orgName=" + whitesourceOrg.getName(), e.getCause(), HygieiaException.BAD_DATA);
         }
@@ -178,34 +217,37 @@ public class DefaultWhiteSourceClient implements WhiteSourceClient {
     }
 
     /**
-     * Gets all projects for a given product
+     * Gets all projects for a given product without blocking
      *
      * @param whitesourceOrg Whitesource Org
      * @param product        Whitesource Product
      * @param serverSettings Whitesource Server Settings
-     * @return List of Whitesource Component
+     * @return future of the list of Whitesource Components, empty when the call failed
      */
     @Override
-    public List<WhiteSourceComponent> getAllProjectsForProduct(WhitesourceOrg whitesourceOrg, WhiteSourceProduct product, WhiteSourceServerSettings serverSettings) {
+    public CompletableFuture<List<WhiteSourceComponent>> getAllProjectsForProductAsync(WhitesourceOrg whitesourceOrg, WhiteSourceProduct product, WhiteSourceServerSettings serverSettings) {
+        return makeRestCallAsync(Constants.RequestType.getAllProjects, whitesourceOrg, product.getProductToken(), null, null, null, serverSettings)
+                .thenApply(jsonObject -> toProjects(jsonObject, whitesourceOrg, product))
+                .exceptionally(e -> {
+                    LOG.error("Exception occurred while retrieving getAllProjectsForProduct for productName=" + product.getProductName(), WhiteSourceRetryPolicy.unwrap(e));
+                    return new ArrayList<>();
+                });
+    }
+
+    private static List<WhiteSourceComponent> toProjects(JSONObject jsonObject, WhitesourceOrg whitesourceOrg, WhiteSourceProduct product) {
         List<WhiteSourceComponent> whiteSourceProjects = new ArrayList<>();
-        try {
-            JSONObject jsonObject = makeRestCall(Constants.RequestType.getAllProjects, whitesourceOrg, product.getProductToken(), null, null, null, serverSettings);
-            if (Objects.isNull(jsonObject)) return whiteSourceProjects;
-            JSONArray jsonArray = (JSONArray) jsonObject.get(Constants.PROJECTS);
-            if (jsonArray == null) return whiteSourceProjects;
-            for (Object project : jsonArray) {
-                JSONObject wsProject = (JSONObject) project;
-                WhiteSourceComponent whiteSourceProject = new WhiteSourceComponent();
-                whiteSourceProject.setProjectName(getStringValue(wsProject, Constants.PROJECT_NAME));
-                whiteSourceProject.setProjectToken(getStringValue(wsProject, Constants.PROJECT_TOKEN));
-                whiteSourceProject.setProductToken(product.getProductToken());
-                whiteSourceProject.setProductName(product.getProductName());
-                whiteSourceProject.setOrgName(whitesourceOrg.getName());
-                whiteSourceProjects.add(whiteSourceProject);
-            }
-            //TODO: Refactor Exception Handling
-        } catch (Exception e) {
-            LOG.error("Exception occurred while retrieving getAllProjectsForProduct for productName=" + product.getProductName(), e);
+        if (Objects.isNull(jsonObject)) return whiteSourceProjects;
+        JSONArray jsonArray = (JSONArray) jsonObject.get(Constants.PROJECTS);
+        if (jsonArray == null) return whiteSourceProjects;
+        for (Object project : jsonArray) {
+            JSONObject wsProject = (JSONObject) project;
+            WhiteSourceComponent whiteSourceProject = new WhiteSourceComponent();
+            whiteSourceProject.setProjectName(getStringValue(wsProject, Constants.PROJECT_NAME));
+            whiteSourceProject.setProjectToken(getStringValue(wsProject, Constants.PROJECT_TOKEN));
+            whiteSourceProject.setProductToken(product.getProductToken());
+            whiteSourceProject.setProductName(product.getProductName());
+            whiteSourceProject.setOrgName(whitesourceOrg.getName());
+            whiteSourceProjects.add(whiteSourceProject);
         }
         return whiteSourceProjects;
     }
@@ -259,35 +301,33 @@ public class DefaultWhiteSourceClient implements WhiteSourceClient {
     }
 
     /**
-     * Gets product alerts
+     * Gets product alerts without blocking
      *
      * @param productToken    Product Token
-     * @param enabledProjects
+     * @param enabledProjects enabled projects
      * @param projectVitalMap Product Vitals Map
      * @param serverSettings  Whitesource Server Setting
-     * @return Map or Project Token and Corresponding Library Policy Result
+     * @return future of the map of Project Token and Corresponding Library Policy Result, empty when the call failed
      */
     @Override
-    public Map<String, LibraryPolicyResult> getProductAlerts(String productToken, Set<WhiteSourceComponent> enabledProjects, Map<String, WhiteSourceProjectVital> projectVitalMap, WhiteSourceServerSettings serverSettings) {
-        Map<String, LibraryPolicyResult> libraryPolicyResultMap = new HashMap<>();
-        try {
-            JSONObject jsonObject = makeRestCall(Constants.RequestType.getProductAlerts, null, productToken, null, null, null, serverSettings);
-            JSONArray alerts = (JSONArray) Objects.requireNonNull(jsonObject).get(Constants.ALERTS);
-            if (!CollectionUtils.isEmpty(alerts)) {
-                libraryPolicyResultMap = transformProductAlerts(alerts, enabledProjects, projectVitalMap, serverSettings);
-            }
-            //TODO: Refactor Exception Handling
-        } catch (Exception e) {
-            LOG.info("Exception occurred while calling getProductAlerts for productToken =" + productToken ,e);
-            return libraryPolicyResultMap;
-        }
+    public CompletableFuture<Map<String, LibraryPolicyResult>> getProductAlertsAsync(String productToken, WhiteSourceProjectIndex enabledProjects, Map<String, WhiteSourceProjectVital> projectVitalMap, WhiteSourceServerSettings serverSettings) {
+        return transformProductAlertsAsync(productToken, projectVitalMap, serverSettings)
+                .handle((libraryPolicyResultMap, e) -> {
+                    if (e != null) {
+                        LOG.info("Exception occurred while calling getProductAlerts for productToken =" + productToken, WhiteSourceRetryPolicy.unwrap(e));
+                        return new HashMap<>();
+                    }
+                    return addEmptyProjectAlerts(productToken, libraryPolicyResultMap, enabledProjects, projectVitalMap, serverSettings);
+                });
+    }
 
-        // Now create skeleton library policy results for projects that didn't show up in the above response. These projects
-        // does not have scan results for whatever reasons
-        Map<String, LibraryPolicyResult> finalLibraryPolicyResultMap = libraryPolicyResultMap;
-        Map<String, LibraryPolicyResult> emptyLibraryPolicyMap = enabledProjects.stream()
-                .filter(p-> productToken.equals(p.getProductToken()))
-                .filter(p -> !finalLibraryPolicyResultMap.containsKey(p.getProjectToken()))
+    // Now create skeleton library policy results for projects that didn't show up in the product alerts. These projects
+    // does not have scan results for whatever reasons
+    private static Map<String, LibraryPolicyResult> addEmptyProjectAlerts(String productToken, Map<String, LibraryPolicyResult> libraryPolicyResultMap,
+                                                                          WhiteSourceProjectIndex enabledProjects, Map<String, WhiteSourceProjectVital> projectVitalMap,
+                                                                          WhiteSourceServerSettings serverSettings) {
+        Map<String, LibraryPolicyResult> emptyLibraryPolicyMap = enabledProjects.getProductProjects(productToken).stream()
+                .filter(p -> !libraryPolicyResultMap.containsKey(p.getProjectToken()))
                 .filter(p -> Objects.nonNull(projectVitalMap.get(p.getProjectToken())))
                 .collect(Collectors.toMap(WhiteSourceComponent::getProjectToken, p -> getEmptyProjectAlert(p, projectVitalMap.get(p.getProjectToken()), serverSettings), (a, b) -> b));
         libraryPolicyResultMap.putAll(emptyLibraryPolicyMap);
@@ -322,18 +362,17 @@ public class DefaultWhiteSourceClient implements WhiteSourceClient {
     public LibraryPolicyResult getProjectAlerts(WhiteSourceComponent project, WhiteSourceProjectVital projectVital, WhiteSourceServerSettings serverSettings, Boolean[] failed) {
         LibraryPolicyResult libraryPolicyResult = new LibraryPolicyResult();
         try {
-            JSONObject jsonObject = makeRestCall(Constants.RequestType.getProjectAlerts, null, null, project.getProjectToken(), null, null, serverSettings);
-            JSONArray alerts = (JSONArray) Objects.requireNonNull(jsonObject).get(Constants.ALERTS);
+            libraryPolicyResult = execute(Constants.RequestType.getProjectAlerts, serverSettings, () -> {
+                LibraryPolicyResult result = new LibraryPolicyResult();
+                streamAlerts(Constants.RequestType.getProjectAlerts, null, project.getProjectToken(), serverSettings,
+                        alert -> translateAlert(alert, result));
+                return result;
+            });
             if (projectVital == null) {
-                JSONObject projectVitalsObject = makeRestCall(Constants.RequestType.getProjectVitals, null, null, project.getProjectToken(), null, null, serverSettings);
-                setEvaluationTimeStampAndReportUrl(libraryPolicyResult, projectVitalsObject, serverSettings);
-            } else {
-                setEvaluationTimeStampAndReportUrl(libraryPolicyResult, projectVital, serverSettings);
+                projectVital = getProjectVital(project.getProjectToken(), serverSettings);
             }
+            setEvaluationTimeStampAndReportUrl(libraryPolicyResult, projectVital, serverSettings);
             libraryPolicyResult.setCollectorItemId(project.getId());
-            if (!CollectionUtils.isEmpty(alerts)) {
-                transformAlerts(libraryPolicyResult, alerts);
-            }
         } catch (Exception e) {
             LOG.info("Exception occurred while calling getProjectAlerts for projectName=" + project.getProjectName() , e);
             if(Objects.nonNull(failed)){failed[0] = true;}
@@ -341,6 +380,36 @@ public class DefaultWhiteSourceClient implements WhiteSourceClient {
         return libraryPolicyResult;
     }
 
+    /**
+     * Gets Project Alerts without blocking
+     *
+     * @param project        Whitesource Component
+     * @param projectVital   Project Vital, fetched when null
+     * @param serverSettings Whitesource Server Setting
+     * @return future of the Library Policy Result, failed when the alerts or the vital could not be fetched
+     */
+    @Override
+    public CompletableFuture<LibraryPolicyResult> getProjectAlertsAsync(WhiteSourceComponent project, WhiteSourceProjectVital projectVital, WhiteSourceServerSettings serverSettings) {
+        return executeAsync(Constants.RequestType.getProjectAlerts, serverSettings, () -> {
+                    LibraryPolicyResult result = new LibraryPolicyResult();
+                    return streamAlertsAsync(Constants.RequestType.getProjectAlerts, null, project.getProjectToken(), serverSettings,
+                            alert -> translateAlert(alert, result), null).thenApply(count -> result);
+                })
+                .thenCompose(libraryPolicyResult -> (projectVital != null
+                        ? CompletableFuture.completedFuture(projectVital)
+                        : getProjectVitalAsync(project.getProjectToken(), serverSettings))
+                        .thenApply((WhiteSourceProjectVital vital) -> {
+                            setEvaluationTimeStampAndReportUrl(libraryPolicyResult, vital, serverSettings);
+                            libraryPolicyResult.setCollectorItemId(project.getId());
+                            return libraryPolicyResult;
+                        }))
+                .whenComplete((libraryPolicyResult, e) -> {
+                    if (e != null) {
+                        LOG.info("Exception occurred while calling getProjectAlerts for projectName=" + project.getProjectName(), WhiteSourceRetryPolicy.unwrap(e));
+                    }
+                });
+    }
+
 
     /**
      * Gets Orgnization Change Request Log
@@ -398,22 +467,73 @@ public class DefaultWhiteSourceClient implements WhiteSourceClient {
         Map<String, WhiteSourceProjectVital> projectVitalMap = new HashMap<>();
         JSONObject jsonObject = makeRestCall(Constants.RequestType.getOrganizationProjectVitals, whitesourceOrg, null, null, null, null, serverSettings);
         JSONArray vitals = (JSONArray) Objects.requireNonNull(jsonObject).get(Constants.PROJECT_VITALS);
+        if (vitals == null) {
+            throw new HygieiaException("Project vitals missing in getOrganizationProjectVitals response for orgName=" + whitesourceOrg.getName(), HygieiaException.BAD_DATA);
+        }
         for (Object v : vitals) {
-            JSONObject vital = (JSONObject) v;
-            WhiteSourceProjectVital whiteSourceProjectVital = new WhiteSourceProjectVital();
-            whiteSourceProjectVital.setName(getStringValue(vital, Constants.NAME));
-            whiteSourceProjectVital.setId(getLongValue(vital, Constants.ID));
-            String token = getStringValue(vital, Constants.TOKEN);
-            whiteSourceProjectVital.setToken(token);
-            whiteSourceProjectVital.setLastUpdateDate(DateTimeUtils.timeFromStringToMillis(getStringValue(vital, Constants.LAST_UPDATED_DATE), serverSettings.getTimeZone(), yyyy_MM_dd_HH_mm_ss_z));
-            whiteSourceProjectVital.setCreationDate(DateTimeUtils.timeFromStringToMillis(getStringValue(vital, Constants.CREATIONDATE), serverSettings.getTimeZone(), yyyy_MM_dd_HH_mm_ss_z));
-            projectVitalMap.put(token, whiteSourceProjectVital);
+            WhiteSourceProjectVital whiteSourceProjectVital = toProjectVital((JSONObject) v, serverSettings);
+            projectVitalMap.put(whiteSourceProjectVital.getToken(), whiteSourceProjectVital);
         }
         timeGetProjectVitals = System.currentTimeMillis() - timeGetProjectVitals;
         LOG.info("WhitesourceClient: Time to get all project vitals: " + timeGetProjectVitals);
         return projectVitalMap;
     }
 
+    /**
+     * Gets the vital of a single project that is missing from the org level project vitals. Concurrent lookups of the
+     * same project share one api call and the result is cached for the rest of the run.
+     *
+     * @param projectToken   project token
+     * @param serverSettings Whitesource Server Setting
+     * @return project vital, or null when the project has none
+     * @throws ExecutionException   when the project vitals call failed
+     * @throws InterruptedException when interrupted while waiting for the call
+     */
+    private WhiteSourceProjectVital getProjectVital(String projectToken, WhiteSourceServerSettings serverSettings) throws ExecutionException, InterruptedException {
+        return projectVitalCache.get(serverSettings, projectToken, () -> {
+            JSONObject jsonObject = makeRestCall(Constants.RequestType.getProjectVitals, null, null, projectToken, null, null, serverSettings);
+            return toSingleProjectVital(jsonObject, projectToken, serverSettings);
+        });
+    }
+
+    /**
+     * Non-blocking {@link #getProjectVital(String, WhiteSourceServerSettings)}
+     *
+     * @param projectToken   project token
+     * @param serverSettings Whitesource Server Setting
+     * @return future of the project vital, or null when the project has none
+     */
+    private CompletableFuture<WhiteSourceProjectVital> getProjectVitalAsync(String projectToken, WhiteSourceServerSettings serverSettings) {
+        return projectVitalCache.getAsync(serverSettings, projectToken, () ->
+                makeRestCallAsync(Constants.RequestType.getProjectVitals, null, null, projectToken, null, null, serverSettings)
+                        .thenApply(jsonObject -> {
+                            try {
+                                return toSingleProjectVital(jsonObject, projectToken, serverSettings);
+                            } catch (HygieiaException e) {
+                                throw new CompletionException(e);
+                            }
+                        }));
+    }
+
+    private static WhiteSourceProjectVital toSingleProjectVital(JSONObject jsonObject, String projectToken, WhiteSourceServerSettings serverSettings) throws HygieiaException {
+        JSONArray vitals = (JSONArray) jsonObject.get(Constants.PROJECT_VITALS);
+        if (vitals == null) {
+            throw new HygieiaException("Project vitals missing in getProjectVitals response for projectToken=" + projectToken, HygieiaException.BAD_DATA);
+        }
+        //There is just 1 of them!
+        return vitals.isEmpty() ? null : toProjectVital((JSONObject) vitals.get(0), serverSettings);
+    }
+
+    private static WhiteSourceProjectVital toProjectVital(JSONObject vital, WhiteSourceServerSettings serverSettings) throws HygieiaException {
+        WhiteSourceProjectVital whiteSourceProjectVital = new WhiteSourceProjectVital();
+        whiteSourceProjectVital.setName(getStringValue(vital, Constants.NAME));
+        whiteSourceProjectVital.setId(getLongValue(vital, Constants.ID));
+        whiteSourceProjectVital.setToken(getStringValue(vital, Constants.TOKEN));
+        whiteSourceProjectVital.setLastUpdateDate(DateTimeUtils.timeFromStringToMillis(getStringValue(vital, Constants.LAST_UPDATED_DATE), serverSettings.getTimeZone(), yyyy_MM_dd_HH_mm_ss_z));
+        whiteSourceProjectVital.setCreationDate(DateTimeUtils.timeFromStringToMillis(getStringValue(vital, Constants.CREATIONDATE), serverSettings.getTimeZone(), yyyy_MM_dd_HH_mm_ss_z));
+        return whiteSourceProjectVital;
+    }
+
 
     @Override
     public HashMap<String, Integer> refresh (String projectToken, String altIdentifier){
@@ -444,82 +564,141 @@ public class DefaultWhiteSourceClient implements WhiteSourceClient {
 
 
     /**
-     * Transforms all product alerts into corresponding Library Policy Results and returns in a Map of Project Token
-     * and Library Policy Result
+     * Streams all product alerts into corresponding Library Policy Results and returns in a Map of Project Token
+     * and Library Policy Result, without blocking. Alerts are transformed as they are read, the full response is never
+     * held as a json tree. The cost of the call is recorded for ordering the products of later runs.
      *
-     * @param alerts project alerts
-     * @param enabledProjects
+     * @param productToken    product token
      * @param projectVitalMap project vital map
-     * @param serverSettings whitesource server setting
-     * @return Map of project token and LibraryPolicyResult
+     * @param serverSettings  whitesource server setting
+     * @return future of the map of project token and LibraryPolicyResult
      */
-    private Map<String, LibraryPolicyResult> transformProductAlerts(JSONArray alerts, Set<WhiteSourceComponent> enabledProjects, Map<String, WhiteSourceProjectVital> projectVitalMap, WhiteSourceServerSettings serverSettings) throws HygieiaException {
-        Map<String, LibraryPolicyResult> libraryPolicyResultMap = new HashMap<>();
-        for (Object alert : alerts) {
-            String projectToken = getStringValue((JSONObject) alert, Constants.PROJECT_TOKEN);
-            WhiteSourceComponent project = enabledProjects.stream().filter(p->p.getProjectToken().equals(projectToken)).findFirst().orElse(null);
-
-            LibraryPolicyResult libraryPolicyResult = libraryPolicyResultMap.get(projectToken);
-            if (libraryPolicyResult == null) {
-                libraryPolicyResult = new LibraryPolicyResult();
-            }
-            if (project != null) {
-                libraryPolicyResult.setCollectorItemId(project.getCollectorId());
-            }
-            translateAlertJSON((JSONObject) alert, libraryPolicyResult);
-            WhiteSourceProjectVital projectVital = projectVitalMap.get(projectToken);
-            if (projectVital == null) {
-                try {
-                    JSONObject projectVitalsObject = makeRestCall(Constants.RequestType.getProjectVitals, null, null, projectToken, null, null, serverSettings);
-                    setEvaluationTimeStampAndReportUrl(libraryPolicyResult, projectVitalsObject, serverSettings);
-                } catch (Exception e) {
-                    LOG.error("Exception occurred while fetching ProjectVitals for projectToken : "+ projectToken);
+    private CompletableFuture<Map<String, LibraryPolicyResult>> transformProductAlertsAsync(String productToken, Map<String, WhiteSourceProjectVital> projectVitalMap, WhiteSourceServerSettings serverSettings) {
+        // a failed attempt may have read part of the alerts, every attempt starts from an empty map
+        return executeAsync(Constants.RequestType.getProductAlerts, serverSettings, () -> {
+            Map<String, LibraryPolicyResult> results = new HashMap<>();
+            WhiteSourceProductCost cost = new WhiteSourceProductCost(productToken);
+            long startTime = System.currentTimeMillis();
+            return streamAlertsAsync(Constants.RequestType.getProductAlerts, productToken, null, serverSettings, alert -> {
+                LibraryPolicyResult libraryPolicyResult = results.computeIfAbsent(alert.getProjectToken(), k -> new LibraryPolicyResult());
+                translateAlert(alert, libraryPolicyResult);
+            }, cost).thenApply(count -> {
+                cost.setProjectCount(results.size());
+                cost.setLatency(System.currentTimeMillis() - startTime);
+                productCosts.record(cost);
+                return results;
+            });
+        }).thenCompose(libraryPolicyResultMap -> {
+            List<CompletableFuture<Void>> missingVitals = new ArrayList<>();
+            for (Map.Entry<String, LibraryPolicyResult> entry : libraryPolicyResultMap.entrySet()) {
+                String projectToken = entry.getKey();
+                LibraryPolicyResult libraryPolicyResult = entry.getValue();
+                WhiteSourceProjectVital projectVital = projectVitalMap.get(projectToken);
+                if (projectVital != null) {
+                    setEvaluationTimeStampAndReportUrl(libraryPolicyResult, projectVital, serverSettings);
+                    continue;
                 }
-            } else {
-                setEvaluationTimeStampAndReportUrl(libraryPolicyResult, projectVital, serverSettings);
+                missingVitals.add(getProjectVitalAsync(projectToken, serverSettings).handle((vital, e) -> {
+                    if (e != null) {
+                        LOG.error("Exception occurred while fetching ProjectVitals for projectToken : " + projectToken, WhiteSourceRetryPolicy.unwrap(e));
+                    } else {
+                        setEvaluationTimeStampAndReportUrl(libraryPolicyResult, vital, serverSettings);
+                    }
+                    return null;
+                }));
             }
-            libraryPolicyResultMap.put(projectToken, libraryPolicyResult);
-        }
-        return libraryPolicyResultMap;
+            return CompletableFuture.allOf(missingVitals.toArray(new CompletableFuture[0])).thenApply(v -> libraryPolicyResultMap);
+        });
     }
 
 
     /**
-     * Transforms alerts into Library Policy Fields
+     * Transforms pushed alerts into Library Policy Fields
      *
      * @param libraryPolicyResult Library Policy Result that needs to be enriched with alerts data
-     * @param alerts              project alerts
+     * @param alertsPayload       base64 encoded project alerts payload
+     * @throws HygieiaException when the payload is not valid base64 or not a valid alerts json
      */
-    private void transformAlerts(LibraryPolicyResult libraryPolicyResult, JSONArray alerts) {
-        for (Object alert : alerts) {
-            translateAlertJSON((JSONObject) alert, libraryPolicyResult);
+    private void transformAlerts(LibraryPolicyResult libraryPolicyResult, String alertsPayload) throws HygieiaException {
+        try (Reader reader = decodingReader(alertsPayload)) {
+            WhiteSourceAlertReader.readAlerts(reader, alert -> translateAlert(alert, libraryPolicyResult));
+        } catch (IOException e) {
+            throw new HygieiaException("WhiteSource request : alerts is not a valid json.", e, HygieiaException.JSON_FORMAT_ERROR);
         }
     }
 
 
     /**
-     * Helper method to Translates alert json object
+     * Helper method to Translates an alert
      *
-     * @param alert               JSONObject of project alert
+     * @param alert               project alert
      * @param libraryPolicyResult Library Policy Result that need to be enriched
      */
-    private void translateAlertJSON(JSONObject alert, LibraryPolicyResult libraryPolicyResult) {
-        String alertType = getStringValue(alert, Constants.TYPE);
-        JSONObject library = (JSONObject) Objects.requireNonNull(alert).get(Constants.LIBRARY);
-        long creationDateTimeStamp = getLongValue(alert, Constants.TIME);
-        String description = (StringUtils.isNotEmpty(getStringValue(alert, Constants.DESCRIPTION))) ? getStringValue(alert, Constants.DESCRIPTION) : "None";
-        String componentName = getStringValue(library, Constants.FILENAME);
+    private void translateAlert(WhiteSourceAlert alert, LibraryPolicyResult libraryPolicyResult) {
+        // the same libraries and policies show up in many projects, keep one copy of their strings per run
+        String description = stringInterner.intern(StringUtils.isNotEmpty(alert.getDescription()) ? alert.getDescription() : "None");
+        String componentName = stringInterner.intern(alert.getLibraryFilename());
+        String age = stringInterner.intern(String.valueOf(DateTimeUtils.getDays(alert.getTime())));
         // add threat for license
-        setAllLibraryLicensesAlerts(libraryPolicyResult, componentName, String.valueOf(DateTimeUtils.getDays(creationDateTimeStamp)), getLicenseThreatLevel(alertType, description), description);
+        setAllLibraryLicensesAlerts(libraryPolicyResult, componentName, age, getLicenseThreatLevel(alert.getType(), description), description);
         // add threat for Security vulns
-        JSONObject vulns = (JSONObject) Objects.requireNonNull(alert).get(Constants.VULNERABILITY);
-        if (Objects.nonNull(vulns) && !vulns.isEmpty()) {
-            setSecurityVulns(vulns, libraryPolicyResult, componentName, String.valueOf(DateTimeUtils.getDays(creationDateTimeStamp)), description);
-            setCVSS3SecurityVulns(vulns, libraryPolicyResult, componentName, String.valueOf(DateTimeUtils.getDays(creationDateTimeStamp)), description);
+        if (alert.hasVulnerability()) {
+            setSecurityVulns(alert, libraryPolicyResult, componentName, age, stringInterner.intern(getScore(alert)), description);
+            setCVSS3SecurityVulns(alert, libraryPolicyResult, componentName, age, stringInterner.intern(getCVSS3Score(alert)), description);
         }
         libraryPolicyResult.setTimestamp(System.currentTimeMillis());
     }
 
+    /**
+     * Executes an alerts rest call and streams the alerts in the response to the consumer
+     *
+     * @param requestType    Request Type
+     * @param productToken   product token
+     * @param projectToken   project token
+     * @param serverSettings server settings
+     * @param consumer       alert consumer
+     * @return number of alerts read
+     * @throws IOException when the response is not a valid alerts json
+     */
+    private int streamAlerts(Constants.RequestType requestType, String productToken, String projectToken,
+                             WhiteSourceServerSettings serverSettings, Consumer<WhiteSourceAlert> consumer) throws IOException {
+        JSONObject requestJSON = getRequest(requestType, null, productToken, projectToken, null, serverSettings, null);
+        return post(requestType, requestJSON, serverSettings, reader -> WhiteSourceAlertReader.readAlerts(reader, consumer));
+    }
+
+    /**
+     * Non-blocking {@link #streamAlerts(Constants.RequestType, String, String, WhiteSourceServerSettings, Consumer)}.
+     * The consumer is called on a response thread.
+     *
+     * @param requestType    Request Type
+     * @param productToken   product token
+     * @param projectToken   project token
+     * @param serverSettings server settings
+     * @param consumer       alert consumer
+     * @param cost           product cost to set the response characters and alert count on, may be null
+     * @return future of the number of alerts read
+     */
+    private CompletableFuture<Integer> streamAlertsAsync(Constants.RequestType requestType, String productToken, String projectToken,
+                                                         WhiteSourceServerSettings serverSettings, Consumer<WhiteSourceAlert> consumer,
+                                                         WhiteSourceProductCost cost) {
+        JSONObject requestJSON = getRequest(requestType, null, productToken, projectToken, null, serverSettings, null);
+        if (cost == null) {
+            return postAsync(requestType, requestJSON, serverSettings, reader -> WhiteSourceAlertReader.readAlerts(reader, consumer));
+        }
+        return postAsync(requestType, requestJSON, serverSettings, reader -> {
+            AtomicLong responseChars = new AtomicLong();
+            int alertCount = WhiteSourceAlertReader.readAlerts(new ProxyReader(reader) {
+                @Override
+                protected void afterRead(int n) {
+                    if (n > 0) responseChars.addAndGet(n);
+                }
+            }, consumer);
+            cost.setResponseChars(responseChars.get());
+            cost.setAlertCount(alertCount);
+            return alertCount;
+        });
+    }
+
     /**
      * Generic helper method to execute rest call
      *
@@ -539,16 +718,151 @@ public class DefaultWhiteSourceClient implements WhiteSourceClient {
         JSONObject requestJSON = getRequest(requestType, orgToken, productToken, projectToken, startDateTime, serverSettings, alertType);
         JSONParser parser = new JSONParser();
         try {
-            ResponseEntity<String> response = restClient.makeRestCallPost(getApiBaseUrl(serverSettings.getInstanceUrl()), new HttpHeaders(), requestJSON);
-            if ((response == null) || (response.toString().isEmpty())) return new JSONObject();
-            return (JSONObject) parser.parse(response.getBody());
-        } catch (ParseException e) {
+            return execute(requestType, serverSettings, () -> post(requestType, requestJSON, serverSettings, reader -> {
+                try {
+                    return (JSONObject) parser.parse(reader);
+                } catch (ParseException e) {
+                    throw new IOException("Invalid json response for " + requestType, e);
+                }
+            }));
+        } catch (IOException e) {
             LOG.error("Exception occurred while parsing json object", e);
         }
         return new JSONObject();
     }
 
 
+    /**
+     * Non-blocking generic helper method to execute rest call, with retries
+     *
+     * @param requestType    Request Type
+     * @param whitesourceOrg Whitesource Org
+     * @param productToken   product token
+     * @param projectToken   project token
+     * @param alertType      alert type
+     * @param startDateTime  start date time
+     * @param serverSettings server settings
+     * @return future of the JSON Object, failed when the call failed
+     */
+    private CompletableFuture<JSONObject> makeRestCallAsync(Constants.RequestType requestType, WhitesourceOrg whitesourceOrg, String productToken,
+                                                            String projectToken, String alertType, String startDateTime,
+                                                            WhiteSourceServerSettings serverSettings) {
+        String orgToken =  whitesourceOrg != null ? whitesourceOrg.getToken() : null;
+        JSONObject requestJSON = getRequest(requestType, orgToken, productToken, projectToken, startDateTime, serverSettings, alertType);
+        return executeAsync(requestType, serverSettings, () -> postAsync(requestType, requestJSON, serverSettings, reader -> {
+            try {
+                return (JSONObject) new JSONParser().parse(reader);
+            } catch (ParseException e) {
+                throw new IOException("Invalid json response for " + requestType, e);
+            }
+        }));
+    }
+
+    /**
+     * Executes a call with retries, within the server's circuit breaker. The breaker sees one outcome per call, once
+     * its retries are exhausted, so a single call failing on every attempt counts as one failure.
+     *
+     * @param requestType    Request Type
+     * @param serverSettings server settings
+     * @param call           api call, invoked once per attempt
+     * @return call result
+     * @throws IOException when the response cannot be read
+     * @throws WhiteSourceCircuitOpenException when the server's circuit is open
+     */
+    private <T> T execute(Constants.RequestType requestType, WhiteSourceServerSettings serverSettings,
+                          WhiteSourceRetryPolicy.Call<T> call) throws IOException {
+        circuitBreaker.acquirePermission(requestType, serverSettings);
+        try {
+            T result = retryPolicy.execute(requestType, call);
+            circuitBreaker.onSuccess(serverSettings);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            circuitBreaker.onFailure(serverSettings, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Non-blocking {@link #execute(Constants.RequestType, WhiteSourceServerSettings, WhiteSourceRetryPolicy.Call)}
+     *
+     * @param requestType    Request Type
+     * @param serverSettings server settings
+     * @param call           async api call, invoked once per attempt
+     * @return future of the call result, failed with a {@link WhiteSourceCircuitOpenException} when the server's
+     * circuit is open
+     */
+    private <T> CompletableFuture<T> executeAsync(Constants.RequestType requestType, WhiteSourceServerSettings serverSettings,
+                                                  Supplier<CompletableFuture<T>> call) {
+        try {
+            circuitBreaker.acquirePermission(requestType, serverSettings);
+        } catch (WhiteSourceCircuitOpenException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return retryPolicy.executeAsync(requestType, call)
+                .whenComplete((result, e) -> {
+                    if (e == null) {
+                        circuitBreaker.onSuccess(serverSettings);
+                        return;
+                    }
+                    Throwable cause = WhiteSourceRetryPolicy.unwrap(e);
+                    if (cause instanceof Exception) {
+                        circuitBreaker.onFailure(serverSettings, (Exception) cause);
+                    }
+                });
+    }
+
+    /**
+     * Sends a request within the server's rate limit and feeds the outcome back to it
+     *
+     * @param requestType    Request Type
+     * @param requestJSON    request
+     * @param serverSettings server settings
+     * @param handler        response handler
+     * @return handler result
+     * @throws IOException when the response cannot be read
+     */
+    private <T> T post(Constants.RequestType requestType, JSONObject requestJSON, WhiteSourceServerSettings serverSettings,
+                       WhiteSourceHttpTransport.ResponseHandler<T> handler) throws IOException {
+        rateLimiter.acquire(serverSettings);
+        try {
+            T result = transport.post(requestType, getApiBaseUrl(serverSettings.getInstanceUrl()), requestJSON, handler);
+            rateLimiter.onSuccess(serverSettings);
+            return result;
+        } catch (WhiteSourceApiException e) {
+            if (WhiteSourceRateLimiter.isThrottled(e)) {
+                rateLimiter.onThrottled(serverSettings);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Non-blocking {@link #post(Constants.RequestType, JSONObject, WhiteSourceServerSettings, WhiteSourceHttpTransport.ResponseHandler)}.
+     * The rate limit wait is scheduled, no thread is held while waiting for it or for the response.
+     *
+     * @param requestType    Request Type
+     * @param requestJSON    request
+     * @param serverSettings server settings
+     * @param handler        response handler, called on a response thread
+     * @return future of the handler result
+     */
+    private <T> CompletableFuture<T> postAsync(Constants.RequestType requestType, JSONObject requestJSON, WhiteSourceServerSettings serverSettings,
+                                               WhiteSourceHttpTransport.ResponseHandler<T> handler) {
+        return rateLimiter.acquireAsync(serverSettings)
+                .thenCompose(v -> asyncTransport.post(requestType, getApiBaseUrl(serverSettings.getInstanceUrl()), requestJSON, handler)
+                        .whenComplete((result, e) -> {
+                            if (e == null) {
+                                rateLimiter.onSuccess(serverSettings);
+                                return;
+                            }
+                            Throwable cause = WhiteSourceRetryPolicy.unwrap(e);
+                            if (cause instanceof WhiteSourceApiException && WhiteSourceRateLimiter.isThrottled((WhiteSourceApiException) cause)) {
+                                rateLimiter.onThrottled(serverSettings);
+                            }
+                        }));
+    }
+
+
     // Gets project evaluation time stamp
     public static void setEvaluationTimeStampAndReportUrl(LibraryPolicyResult libraryPolicyResult, JSONObject projectVitalsObject, WhiteSourceServerSettings serverSettings) throws HygieiaException {
         JSONArray projectVitals = (JSONArray) Objects.requireNonNull(projectVitalsObject).get(Constants.PROJECT_VITALS);
@@ -572,13 +886,27 @@ public class DefaultWhiteSourceClient implements WhiteSourceClient {
     }
 
 
-    // Decodes json payload
-    private static Object decodeJsonPayload(String payload) throws HygieiaException {
+    // Decodes base64 payload
+    private static String decodePayload(String payload) throws HygieiaException {
         if (payload == null || StringUtils.isEmpty(payload)) {
             throw new HygieiaException("WhiteSource request is not a valid json.", HygieiaException.JSON_FORMAT_ERROR);
         }
-        byte[] decodedBytes = Base64.getDecoder().decode(payload);
-        String decodedPayload = new String(decodedBytes);
+        try {
+            return new String(Base64.getDecoder().decode(payload), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new HygieiaException("WhiteSource request is not valid base64.", e, HygieiaException.JSON_FORMAT_ERROR);
+        }
+    }
+
+    // Decodes a base64 payload while it is read, neither the decoded bytes nor the decoded text are held in memory
+    private static Reader decodingReader(String payload) {
+        InputStream encoded = new CharSequenceInputStream(payload, StandardCharsets.ISO_8859_1);
+        return new InputStreamReader(Base64.getDecoder().wrap(encoded), StandardCharsets.UTF_8);
+    }
+
+    // Decodes json payload
+    private static Object decodeJsonPayload(String payload) throws HygieiaException {
+        String decodedPayload = decodePayload(payload);
         JSONParser parser = new JSONParser();
         Object obj = null;
         try {
@@ -600,7 +928,11 @@ public class DefaultWhiteSourceClient implements WhiteSourceClient {
     public String process(WhiteSourceRequest whiteSourceRequest) throws HygieiaException {
         long startTime = System.currentTimeMillis();
         JSONObject projectVital = (JSONObject) decodeJsonPayload(whiteSourceRequest.getProjectVitals());
-        JSONArray alerts = (JSONArray) decodeJsonPayload(whiteSourceRequest.getAlerts());
+        // alerts stay base64 encoded here, they are decoded while they are parsed
+        String alerts = whiteSourceRequest.getAlerts();
+        if (StringUtils.isEmpty(alerts)) {
+            throw new HygieiaException("WhiteSource request is not a valid json.", HygieiaException.JSON_FORMAT_ERROR);
+        }
         String orgName = whiteSourceRequest.getOrgName();
         String clientReference = whiteSourceRequest.getClientReference();
         if (projectVital == null) {
@@ -716,33 +1048,30 @@ public class DefaultWhiteSourceClient implements WhiteSourceClient {
         libraryPolicyResult.addThreat(LibraryPolicyType.License, severity, LibraryPolicyThreatDisposition.Open, Constants.OPEN, componentName, age, Constants.ZERO, policyName);
     }
 
-    private static void setSecurityVulns(JSONObject vuln, LibraryPolicyResult libraryPolicyResult, String componentName, String age, String policyName) {
-        libraryPolicyResult.addThreat(LibraryPolicyType.Security, LibraryPolicyThreatLevel.fromString(getSecurityVulnSeverity(vuln)), LibraryPolicyThreatDisposition.Open, Constants.OPEN, componentName, age, getScore(vuln), policyName);
+    private static void setSecurityVulns(WhiteSourceAlert vuln, LibraryPolicyResult libraryPolicyResult, String componentName, String age, String score, String policyName) {
+        libraryPolicyResult.addThreat(LibraryPolicyType.Security, LibraryPolicyThreatLevel.fromString(getSecurityVulnSeverity(vuln)), LibraryPolicyThreatDisposition.Open, Constants.OPEN, componentName, age, score, policyName);
     }
 
-    private static void setCVSS3SecurityVulns(JSONObject vuln, LibraryPolicyResult libraryPolicyResult, String componentName, String age, String policyName) {
-        libraryPolicyResult.addThreat(LibraryPolicyType.Security_cvss3, LibraryPolicyThreatLevel.fromString(getCVSS3SecurityVulnSeverity(vuln)), LibraryPolicyThreatDisposition.Open, Constants.OPEN, componentName, age, getCVSS3Score(vuln), policyName);
+    private static void setCVSS3SecurityVulns(WhiteSourceAlert vuln, LibraryPolicyResult libraryPolicyResult, String componentName, String age, String score, String policyName) {
+        libraryPolicyResult.addThreat(LibraryPolicyType.Security_cvss3, LibraryPolicyThreatLevel.fromString(getCVSS3SecurityVulnSeverity(vuln)), LibraryPolicyThreatDisposition.Open, Constants.OPEN, componentName, age, score, policyName);
     }
 
     private LibraryPolicyThreatLevel getLicenseThreatLevel(String alertType, String description) {
-        if (!CollectionUtils.isEmpty(whiteSourceSettings.getCriticalLicensePolicyTypes()) && getLicenseSeverity(whiteSourceSettings.getCriticalLicensePolicyTypes(), alertType, description)) {
-            return LibraryPolicyThreatLevel.Critical;
-        }
-        if (!CollectionUtils.isEmpty(whiteSourceSettings.getHighLicensePolicyTypes()) && getLicenseSeverity(whiteSourceSettings.getHighLicensePolicyTypes(), alertType, description)) {
-            return LibraryPolicyThreatLevel.High;
-        }
-        if (!CollectionUtils.isEmpty(whiteSourceSettings.getMediumLicensePolicyTypes()) && getLicenseSeverity(whiteSourceSettings.getMediumLicensePolicyTypes(), alertType, description)) {
-            return LibraryPolicyThreatLevel.Medium;
-        }
-        if (!CollectionUtils.isEmpty(whiteSourceSettings.getLowLicensePolicyTypes()) && getLicenseSeverity(whiteSourceSettings.getLowLicensePolicyTypes(), alertType, description)) {
-            return LibraryPolicyThreatLevel.Low;
-        }
-        return LibraryPolicyThreatLevel.None;
+        return getLicensePolicyClassifier().classify(alertType, description);
     }
 
-    private static boolean getLicenseSeverity(List<LicensePolicyType> licensePolicyTypes, String alertType, String description) {
-        return licensePolicyTypes.stream().anyMatch(licensePolicyType -> licensePolicyType.getPolicyName().equalsIgnoreCase(alertType)
-                && licensePolicyType.getDescriptions().stream().anyMatch(description::contains));
+    /**
+     * Gets the license policy classifier, compiling it again when the license policy settings changed
+     *
+     * @return license policy classifier
+     */
+    private LicensePolicyClassifier getLicensePolicyClassifier() {
+        LicensePolicyClassifier classifier = licensePolicyClassifier;
+        if (classifier == null || !classifier.isBuiltFrom(whiteSourceSettings)) {
+            classifier = LicensePolicyClassifier.build(whiteSourceSettings);
+            licensePolicyClassifier = classifier;
+        }
+        return classifier;
     }
 
     /**
@@ -819,30 +1148,23 @@ public class DefaultWhiteSourceClient implements WhiteSourceClient {
         return obj == null ? 0L : (Long) obj;
     }
 
-    private static Double toDouble(JSONObject jsonObject, String key) {
-        Object obj = jsonObject.get(key);
-        return obj == null ? 0 : (Double) obj;
-    }
-
-    private static String getScore(JSONObject vuln) {
-        Double score = toDouble(vuln, Constants.SCORE1);
-        return score.toString();
+    private static String getScore(WhiteSourceAlert vuln) {
+        return Double.toString(vuln.getScore());
     }
 
-    private static String getSecurityVulnSeverity(JSONObject vuln) {
-        String severity = getStringValue(vuln, Constants.SEVERITY);
+    private static String getSecurityVulnSeverity(WhiteSourceAlert vuln) {
+        String severity = vuln.getSeverity();
         if (Objects.nonNull(severity)) return severity;
         return Constants.NONE;
     }
 
 
-    private static String getCVSS3Score(JSONObject vuln) {
-        Double cvss3Score = toDouble(vuln, Constants.CVSS_3_SCORE);
-        return cvss3Score.toString();
+    private static String getCVSS3Score(WhiteSourceAlert vuln) {
+        return Double.toString(vuln.getCvss3Score());
     }
 
-    private static String getCVSS3SecurityVulnSeverity(JSONObject vuln) {
-        String cvss3_severity = getStringValue(vuln, Constants.CVSS_3_SEVERITY);
+    private static String getCVSS3SecurityVulnSeverity(WhiteSourceAlert vuln) {
+        String cvss3_severity = vuln.getCvss3Severity();
         if (Objects.nonNull(cvss3_severity)) return cvss3_severity;
         return Constants.NONE;
     }
@@ -0,0 +1,228 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.LibraryPolicyThreatLevel;
+import com.capitalone.dashboard.model.LicensePolicyType;
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Classifies license alerts by the license policy types of {@link WhiteSourceSettings}.
+ *
+ * Policies are indexed by alert type, and the descriptions of each alert type are compiled into one Aho-Corasick
+ * automaton, so an alert description is scanned once no matter how many policies and descriptions are configured.
+ * The strictest level with a description contained in the alert description wins, like the critical, high, medium,
+ * low order of the settings.
+ *
+ * A classifier is immutable. It remembers the policy lists it was built from, see {@link #isBuiltFrom}, so callers
+ * can rebuild it when the settings change.
+ */
+public final class LicensePolicyClassifier {
+    // strictest first, the index is the rank of a level
+    private static final LibraryPolicyThreatLevel[] LEVELS = {
+            LibraryPolicyThreatLevel.Critical, LibraryPolicyThreatLevel.High, LibraryPolicyThreatLevel.Medium, LibraryPolicyThreatLevel.Low};
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private final Map<String, Automaton> automatonByAlertType;
+    private final List<List<LicensePolicyType>> source;
+    private final int[] sourceSizes;
+
+    private LicensePolicyClassifier(Map<String, Automaton> automatonByAlertType, List<List<LicensePolicyType>> source) {
+        this.automatonByAlertType = automatonByAlertType;
+        this.source = source;
+        this.sourceSizes = source.stream().mapToInt(LicensePolicyClassifier::size).toArray();
+    }
+
+    /**
+     * Compiles the license policy types of the settings
+     *
+     * @param settings whitesource settings
+     * @return classifier
+     */
+    public static LicensePolicyClassifier build(WhiteSourceSettings settings) {
+        List<List<LicensePolicyType>> source = getPolicyTypes(settings);
+        Map<String, Automaton.Builder> builders = new HashMap<>();
+        for (int rank = 0; rank < source.size(); rank++) {
+            List<LicensePolicyType> policyTypes = source.get(rank);
+            if (policyTypes == null) continue;
+            for (LicensePolicyType policyType : policyTypes) {
+                if (policyType == null || policyType.getPolicyName() == null || policyType.getDescriptions() == null) continue;
+                Automaton.Builder builder = builders.computeIfAbsent(toKey(policyType.getPolicyName()), k -> new Automaton.Builder());
+                for (String description : policyType.getDescriptions()) {
+                    if (description != null) {
+                        builder.add(description, rank);
+                    }
+                }
+            }
+        }
+        Map<String, Automaton> automatonByAlertType = new HashMap<>();
+        builders.forEach((alertType, builder) -> automatonByAlertType.put(alertType, builder.build()));
+        return new LicensePolicyClassifier(automatonByAlertType, source);
+    }
+
+    /**
+     * Gets the strictest license threat level of an alert
+     *
+     * @param alertType   alert type, matched ignoring case against the policy names
+     * @param description alert description
+     * @return threat level, None when no policy matches
+     */
+    public LibraryPolicyThreatLevel classify(String alertType, String description) {
+        if (alertType == null || description == null) {
+            return LibraryPolicyThreatLevel.None;
+        }
+        Automaton automaton = automatonByAlertType.get(toKey(alertType));
+        int rank = automaton == null ? NO_MATCH : automaton.strictestMatch(description);
+        return rank == NO_MATCH ? LibraryPolicyThreatLevel.None : LEVELS[rank];
+    }
+
+    /**
+     * Checks if the classifier was built from the current policy lists of the settings. Replaced lists and lists with
+     * added or removed policies are detected, policies edited in place are not.
+     *
+     * @param settings whitesource settings
+     * @return true when the classifier is up to date
+     */
+    public boolean isBuiltFrom(WhiteSourceSettings settings) {
+        List<List<LicensePolicyType>> current = getPolicyTypes(settings);
+        for (int i = 0; i < current.size(); i++) {
+            if (current.get(i) != source.get(i) || size(current.get(i)) != sourceSizes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<List<LicensePolicyType>> getPolicyTypes(WhiteSourceSettings settings) {
+        return Arrays.asList(settings.getCriticalLicensePolicyTypes(), settings.getHighLicensePolicyTypes(),
+                settings.getMediumLicensePolicyTypes(), settings.getLowLicensePolicyTypes());
+    }
+
+    private static int size(List<LicensePolicyType> policyTypes) {
+        return policyTypes == null ? -1 : policyTypes.size();
+    }
+
+    private static String toKey(String alertType) {
+        return alertType.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Aho-Corasick automaton over the descriptions of one alert type. Every state keeps the strictest rank of the
+     * descriptions ending there, including the ones reached through its failure links, so matching needs no output
+     * lists.
+     */
+    private static final class Automaton {
+        private final char[][] labels;
+        private final int[][] targets;
+        private final int[] failure;
+        private final int[] rank;
+
+        private Automaton(char[][] labels, int[][] targets, int[] failure, int[] rank) {
+            this.labels = labels;
+            this.targets = targets;
+            this.failure = failure;
+            this.rank = rank;
+        }
+
+        int strictestMatch(String text) {
+            int best = rank[0];
+            int state = 0;
+            for (int i = 0; i < text.length() && best != 0; i++) {
+                char c = text.charAt(i);
+                int next = next(state, c);
+                while (next < 0 && state != 0) {
+                    state = failure[state];
+                    next = next(state, c);
+                }
+                state = Math.max(next, 0);
+                best = Math.min(best, rank[state]);
+            }
+            return best;
+        }
+
+        private int next(int state, char c) {
+            int index = Arrays.binarySearch(labels[state], c);
+            return index < 0 ? -1 : targets[state][index];
+        }
+
+        static final class Builder {
+            private final List<TreeMap<Character, Integer>> children = new ArrayList<>();
+            private final List<Integer> ranks = new ArrayList<>();
+
+            Builder() {
+                addState();
+            }
+
+            void add(String pattern, int patternRank) {
+                int state = 0;
+                for (int i = 0; i < pattern.length(); i++) {
+                    char c = pattern.charAt(i);
+                    Integer next = children.get(state).get(c);
+                    if (next == null) {
+                        next = addState();
+                        children.get(state).put(c, next);
+                    }
+                    state = next;
+                }
+                ranks.set(state, Math.min(ranks.get(state), patternRank));
+            }
+
+            Automaton build() {
+                int size = children.size();
+                char[][] labels = new char[size][];
+                int[][] targets = new int[size][];
+                int[] failure = new int[size];
+                int[] rank = new int[size];
+                for (int state = 0; state < size; state++) {
+                    TreeMap<Character, Integer> edges = children.get(state);
+                    labels[state] = new char[edges.size()];
+                    targets[state] = new int[edges.size()];
+                    int i = 0;
+                    for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                        labels[state][i] = edge.getKey();
+                        targets[state][i++] = edge.getValue();
+                    }
+                    rank[state] = ranks.get(state);
+                }
+                Automaton automaton = new Automaton(labels, targets, failure, rank);
+
+                // breadth first, so the failure state of a state is complete before the state itself is visited
+                Deque<Integer> queue = new ArrayDeque<>();
+                for (int child : targets[0]) {
+                    queue.add(child);
+                }
+                while (!queue.isEmpty()) {
+                    int state = queue.poll();
+                    rank[state] = Math.min(rank[state], rank[failure[state]]);
+                    for (int i = 0; i < labels[state].length; i++) {
+                        char c = labels[state][i];
+                        int child = targets[state][i];
+                        int fallback = failure[state];
+                        int next = automaton.next(fallback, c);
+                        while (next < 0 && fallback != 0) {
+                            fallback = failure[fallback];
+                            next = automaton.next(fallback, c);
+                        }
+                        failure[child] = Math.max(next, 0);
+                        queue.add(child);
+                    }
+                }
+                return automaton;
+            }
+
+            private int addState() {
+                children.add(new TreeMap<>());
+                ranks.add(NO_MATCH);
+                return children.size() - 1;
+            }
+        }
+    }
+}
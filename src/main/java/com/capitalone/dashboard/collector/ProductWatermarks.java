@@ -0,0 +1,54 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.WhiteSourceComponent;
+import com.capitalone.dashboard.model.WhiteSourceProjectVital;
+import org.bson.types.ObjectId;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Per product comparison of the org project vitals with the stored library policy results.
+ *
+ * A product is unchanged when every one of its projects has a vital and a stored result evaluated at or after the
+ * vital's last update date. Anything that cannot be proven unchanged - a project without a vital, without a stored
+ * result or with a newer vital - marks the whole product as changed, since its alerts are fetched per product.
+ */
+public final class ProductWatermarks {
+    private final Map<String, Boolean> changedByProduct = new HashMap<>();
+
+    /**
+     * @param projects            projects to compare
+     * @param projectVitalMap     project vitals by project token
+     * @param storedEvaluations   latest stored evaluation timestamp by collector item id
+     */
+    public ProductWatermarks(Collection<WhiteSourceComponent> projects, Map<String, WhiteSourceProjectVital> projectVitalMap,
+                             Map<ObjectId, Long> storedEvaluations) {
+        projects.stream().filter(p -> Objects.nonNull(p.getProductToken())).forEach(project -> {
+            WhiteSourceProjectVital vital = projectVitalMap.get(project.getProjectToken());
+            Long evaluated = storedEvaluations.get(project.getId());
+            boolean changed = vital == null || evaluated == null || evaluated < vital.getLastUpdateDate();
+            changedByProduct.merge(project.getProductToken(), changed, Boolean::logicalOr);
+        });
+    }
+
+    public boolean isChanged(String productToken) {
+        return changedByProduct.getOrDefault(productToken, true);
+    }
+
+    /**
+     * @param projects projects to filter
+     * @return projects of the unchanged products
+     */
+    public Set<WhiteSourceComponent> getUnchangedProjects(Collection<WhiteSourceComponent> projects) {
+        return projects.stream().filter(p -> !isChanged(p.getProductToken())).collect(Collectors.toSet());
+    }
+
+    public long getUnchangedProductCount() {
+        return changedByProduct.values().stream().filter(changed -> !changed).count();
+    }
+}
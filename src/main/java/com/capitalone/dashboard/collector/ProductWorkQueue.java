@@ -0,0 +1,166 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.LibraryPolicyResult;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Fetch and persist stages of one updateData call, connected by a bounded queue of fetched products.
+ *
+ * Products are fetched in the given order, at most fetchConcurrency at a time. Fetched products wait in the queue
+ * until a worker takes them one at a time and saves them. A product is only started while fewer than queueCapacity
+ * products are being fetched or waiting in the queue, so fetching slows down to the pace of the workers instead of
+ * holding every fetched product in memory. A large product only holds up the worker saving it, so the wall time
+ * follows the slowest product instead of the slowest fixed chunk of products.
+ */
+public class ProductWorkQueue {
+    private static final Log LOG = LogFactory.getLog(ProductWorkQueue.class);
+
+    private final Function<String, CompletableFuture<Map<String, LibraryPolicyResult>>> fetcher;
+    private final int fetchConcurrency;
+    private final int queueCapacity;
+    private final int size;
+    private final BlockingQueue<ProductAlerts> fetched = new LinkedBlockingQueue<>();
+    private final AtomicInteger unclaimed;
+    // only one thread starts fetches at a time
+    private final SerialLoop fetchLoop = new SerialLoop(this::fetchMore);
+
+    // guarded by this
+    private final Iterator<String> pending;
+    private int fetching;
+    private int maxFetching;
+    private int maxQueued;
+    private int heldBack;
+
+    private final LongAdder persistWaitNanos = new LongAdder();
+
+    /**
+     * @param productTokens    products, fetched in this order
+     * @param fetchConcurrency products fetched at once
+     * @param queueCapacity    products fetched or waiting in the queue before new fetches are held back
+     * @param fetcher          starts the fetch of a product, its future must complete with the alerts or null
+     */
+    public ProductWorkQueue(Collection<String> productTokens, int fetchConcurrency, int queueCapacity,
+                            Function<String, CompletableFuture<Map<String, LibraryPolicyResult>>> fetcher) {
+        this.pending = new ArrayList<>(productTokens).iterator();
+        this.size = productTokens.size();
+        this.unclaimed = new AtomicInteger(size);
+        this.fetchConcurrency = Math.max(1, fetchConcurrency);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.fetcher = fetcher;
+    }
+
+    /**
+     * Starts the first fetches
+     *
+     * @return this queue
+     */
+    public ProductWorkQueue start() {
+        fetchLoop.run();
+        return this;
+    }
+
+    /**
+     * Takes the next fetched product, waiting for one to complete when needed
+     *
+     * @return product alerts, or null when every product has been taken by a worker
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public ProductAlerts take() throws InterruptedException {
+        // claim a product first, a claimed product is guaranteed to show up
+        if (unclaimed.getAndUpdate(n -> Math.max(n - 1, 0)) == 0) {
+            return null;
+        }
+        long waitStart = System.nanoTime();
+        ProductAlerts productAlerts = fetched.take();
+        persistWaitNanos.add(System.nanoTime() - waitStart);
+        // the product left the queue, room for another fetch
+        fetchLoop.run();
+        return productAlerts;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Logs the queue depth and the backpressure of the fetch stage
+     *
+     * @param workers number of workers that drained the queue
+     */
+    public synchronized void logMetrics(int workers) {
+        LOG.info(String.format("ProductWorkQueue: products=%d, fetchConcurrency=%d, maxFetching=%d, queueCapacity=%d, maxQueued=%d, fetchesHeldBack=%d, persistWorkers=%d, persistWaitMillis=%d",
+                size, fetchConcurrency, maxFetching, queueCapacity, maxQueued, heldBack, workers, TimeUnit.NANOSECONDS.toMillis(persistWaitNanos.sum())));
+    }
+
+    // Starts as many fetches as the limits allow, run through fetchLoop since fetches may complete on the calling
+    // thread and ask for more fetches
+    private void fetchMore() {
+        List<String> toFetch = new ArrayList<>();
+        synchronized (this) {
+            while (pending.hasNext() && fetching < fetchConcurrency) {
+                if (fetching + fetched.size() >= queueCapacity) {
+                    heldBack++;
+                    break;
+                }
+                toFetch.add(pending.next());
+                fetching++;
+            }
+            maxFetching = Math.max(maxFetching, fetching);
+        }
+        toFetch.forEach(this::fetch);
+    }
+
+    private void fetch(String productToken) {
+        CompletableFuture<Map<String, LibraryPolicyResult>> future;
+        try {
+            future = fetcher.apply(productToken);
+        } catch (RuntimeException e) {
+            LOG.error("Could not start fetching product alerts for productToken=" + productToken, e);
+            future = CompletableFuture.completedFuture(null);
+        }
+        future.whenComplete((results, e) -> complete(productToken, e == null ? results : null));
+    }
+
+    // Every product completes exactly once, with an empty map when it failed, so no worker waits for it forever
+    private void complete(String productToken, Map<String, LibraryPolicyResult> results) {
+        synchronized (this) {
+            fetching--;
+            fetched.add(new ProductAlerts(productToken, results == null ? Collections.emptyMap() : results));
+            maxQueued = Math.max(maxQueued, fetched.size());
+        }
+        fetchLoop.run();
+    }
+
+    public static class ProductAlerts {
+        private final String productToken;
+        private final Map<String, LibraryPolicyResult> results;
+
+        ProductAlerts(String productToken, Map<String, LibraryPolicyResult> results) {
+            this.productToken = productToken;
+            this.results = results;
+        }
+
+        public String getProductToken() {
+            return productToken;
+        }
+
+        public Map<String, LibraryPolicyResult> getResults() {
+            return results;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.capitalone.dashboard.collector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs an action on one thread at a time, once more for every request made while it runs.
+ *
+ * Actions that start calls may have them complete on the same thread and request another run from the completion.
+ * Those requests are counted and served by the running loop instead of recursing, so any number of calls completing
+ * right away does not grow the stack.
+ */
+final class SerialLoop {
+    private final Runnable action;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    SerialLoop(Runnable action) {
+        this.action = action;
+    }
+
+    /**
+     * Runs the action, or has the thread running it run it again
+     */
+    void run() {
+        if (requests.getAndIncrement() != 0) {
+            return;
+        }
+        int served = 1;
+        do {
+            action.run();
+            served = requests.addAndGet(-served);
+        } while (served != 0);
+    }
+}
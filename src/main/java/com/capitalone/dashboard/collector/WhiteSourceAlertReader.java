@@ -0,0 +1,206 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.WhiteSourceAlert;
+import com.capitalone.dashboard.utils.Constants;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader for WhiteSource alert payloads.
+ *
+ * Accepts both the api response shape ({"alerts": [...]}) returned by getProductAlerts and getProjectAlerts and
+ * the bare alert array pushed to /project-alerts. Alerts are handed to the consumer one at a time, so memory use
+ * is bound by a single alert instead of the whole payload.
+ */
+public final class WhiteSourceAlertReader {
+
+    private WhiteSourceAlertReader() {
+    }
+
+    /**
+     * Reads all alerts from the payload
+     *
+     * @param reader   payload reader
+     * @param consumer alert consumer
+     * @return number of alerts read
+     * @throws IOException when the payload cannot be read or is not valid json
+     */
+    public static int readAlerts(Reader reader, Consumer<WhiteSourceAlert> consumer) throws IOException {
+        JsonReader jsonReader = new JsonReader(reader);
+        JsonToken token;
+        try {
+            token = jsonReader.peek();
+        } catch (EOFException e) {
+            // empty payload, nothing to read
+            return 0;
+        }
+        if (token == JsonToken.BEGIN_ARRAY) {
+            return readAlertArray(jsonReader, consumer);
+        }
+        if (token != JsonToken.BEGIN_OBJECT) {
+            jsonReader.skipValue();
+            return 0;
+        }
+        int count = 0;
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String name = jsonReader.nextName();
+            if (Constants.ALERTS.equals(name) && jsonReader.peek() == JsonToken.BEGIN_ARRAY) {
+                count += readAlertArray(jsonReader, consumer);
+            } else {
+                jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+        return count;
+    }
+
+    private static int readAlertArray(JsonReader jsonReader, Consumer<WhiteSourceAlert> consumer) throws IOException {
+        int count = 0;
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            if (jsonReader.peek() != JsonToken.BEGIN_OBJECT) {
+                jsonReader.skipValue();
+                continue;
+            }
+            consumer.accept(readAlert(jsonReader));
+            count++;
+        }
+        jsonReader.endArray();
+        return count;
+    }
+
+    private static WhiteSourceAlert readAlert(JsonReader jsonReader) throws IOException {
+        WhiteSourceAlert alert = new WhiteSourceAlert();
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String name = jsonReader.nextName();
+            switch (name) {
+                case Constants.PROJECT_TOKEN:
+                    alert.setProjectToken(nextString(jsonReader));
+                    break;
+                case Constants.TYPE:
+                    alert.setType(nextString(jsonReader));
+                    break;
+                case Constants.DESCRIPTION:
+                    alert.setDescription(nextString(jsonReader));
+                    break;
+                case Constants.TIME:
+                    alert.setTime(nextLong(jsonReader));
+                    break;
+                case Constants.LIBRARY:
+                    readLibrary(jsonReader, alert);
+                    break;
+                case Constants.VULNERABILITY:
+                    readVulnerability(jsonReader, alert);
+                    break;
+                default:
+                    jsonReader.skipValue();
+                    break;
+            }
+        }
+        jsonReader.endObject();
+        return alert;
+    }
+
+    private static void readLibrary(JsonReader jsonReader, WhiteSourceAlert alert) throws IOException {
+        if (jsonReader.peek() != JsonToken.BEGIN_OBJECT) {
+            jsonReader.skipValue();
+            return;
+        }
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            if (Constants.FILENAME.equals(jsonReader.nextName())) {
+                alert.setLibraryFilename(nextString(jsonReader));
+            } else {
+                jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+    }
+
+    private static void readVulnerability(JsonReader jsonReader, WhiteSourceAlert alert) throws IOException {
+        if (jsonReader.peek() != JsonToken.BEGIN_OBJECT) {
+            jsonReader.skipValue();
+            return;
+        }
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            // any attribute makes it a vulnerability alert, same as a non empty vulnerability object
+            alert.setVulnerability(true);
+            switch (jsonReader.nextName()) {
+                case Constants.SEVERITY:
+                    alert.setSeverity(nextString(jsonReader));
+                    break;
+                case Constants.SCORE1:
+                    alert.setScore(nextDouble(jsonReader));
+                    break;
+                case Constants.CVSS_3_SEVERITY:
+                    alert.setCvss3Severity(nextString(jsonReader));
+                    break;
+                case Constants.CVSS_3_SCORE:
+                    alert.setCvss3Score(nextDouble(jsonReader));
+                    break;
+                default:
+                    jsonReader.skipValue();
+                    break;
+            }
+        }
+        jsonReader.endObject();
+    }
+
+    // Helper methods to extract Json values ///
+
+    private static String nextString(JsonReader jsonReader) throws IOException {
+        switch (jsonReader.peek()) {
+            case STRING:
+            case NUMBER:
+                return jsonReader.nextString();
+            case BOOLEAN:
+                return String.valueOf(jsonReader.nextBoolean());
+            case NULL:
+                jsonReader.nextNull();
+                return "";
+            default:
+                jsonReader.skipValue();
+                return "";
+        }
+    }
+
+    private static long nextLong(JsonReader jsonReader) throws IOException {
+        switch (jsonReader.peek()) {
+            case NUMBER:
+            case STRING:
+                try {
+                    return jsonReader.nextLong();
+                } catch (NumberFormatException e) {
+                    jsonReader.skipValue();
+                    return 0L;
+                }
+            default:
+                jsonReader.skipValue();
+                return 0L;
+        }
+    }
+
+    private static double nextDouble(JsonReader jsonReader) throws IOException {
+        switch (jsonReader.peek()) {
+            case NUMBER:
+            case STRING:
+                try {
+                    return jsonReader.nextDouble();
+                } catch (NumberFormatException e) {
+                    jsonReader.skipValue();
+                    return 0;
+                }
+            default:
+                jsonReader.skipValue();
+                return 0;
+        }
+    }
+}
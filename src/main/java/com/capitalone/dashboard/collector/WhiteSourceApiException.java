@@ -0,0 +1,36 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.utils.Constants;
+
+/**
+ * Thrown when a WhiteSource api call fails at the transport level - the server could not be reached, no pooled
+ * connection became available in time, or the server answered with a non 2xx status.
+ */
+public class WhiteSourceApiException extends RuntimeException {
+    public static final int NO_STATUS = 0;
+    // status of a server throttling its clients
+    public static final int TOO_MANY_REQUESTS = 429;
+
+    private final Constants.RequestType requestType;
+    private final int statusCode;
+
+    public WhiteSourceApiException(Constants.RequestType requestType, int statusCode, String message) {
+        super(message);
+        this.requestType = requestType;
+        this.statusCode = statusCode;
+    }
+
+    public WhiteSourceApiException(Constants.RequestType requestType, String message, Throwable cause) {
+        super(message, cause);
+        this.requestType = requestType;
+        this.statusCode = NO_STATUS;
+    }
+
+    public Constants.RequestType getRequestType() {
+        return requestType;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
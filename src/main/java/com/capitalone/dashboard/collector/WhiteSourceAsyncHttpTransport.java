@@ -0,0 +1,377 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.settings.HttpClientSettings;
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+import com.capitalone.dashboard.utils.Constants;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.entity.ContentInputStream;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.nio.util.SharedInputBuffer;
+import org.apache.http.protocol.HttpContext;
+import org.json.simple.JSONObject;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking http transport for the WhiteSource api.
+ *
+ * Requests are sent from a couple of io reactor threads, so calls wait on the server without holding a collector
+ * thread each. The response body is streamed: the io reactor moves it into a small bounded buffer per response and a
+ * response thread decodes and parses it from that buffer while it arrives. When the buffer is full the io reactor
+ * stops reading that connection until the response thread catches up, so a response never sits in memory as a whole.
+ * Every response being read holds a response thread, so no more calls than response threads are in flight. Further
+ * calls wait in a queue, before a connection is leased.
+ *
+ * Connections are pooled per WhiteSource server like the blocking {@link WhiteSourceHttpTransport}. Both pools share
+ * the configured connection limits, see {@link WhiteSourceConnectionLimits}. Transfer sizes are counted with the
+ * blocking transport's metrics.
+ */
+@Component
+public class WhiteSourceAsyncHttpTransport implements DisposableBean {
+    private static final Log LOG = LogFactory.getLog(WhiteSourceAsyncHttpTransport.class);
+    // bytes of a response held between the io reactor and the response thread reading it
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final WhiteSourceHttpTransport transport;
+    private final PoolingNHttpClientConnectionManager connectionManager;
+    private final CloseableHttpAsyncClient httpClient;
+    private final ExecutorService responseExecutor;
+    // calls in flight, each one is read by a response thread
+    private final Semaphore streams;
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    private final SerialLoop startLoop = new SerialLoop(this::startWaiting);
+    private final WhiteSourcePoolMetrics poolMetrics;
+    private final boolean compression;
+
+    @Autowired
+    public WhiteSourceAsyncHttpTransport(WhiteSourceHttpTransport transport, WhiteSourceSettings settings) {
+        this.transport = transport;
+        HttpClientSettings httpClientSettings = settings.getHttpClientSettings();
+        compression = httpClientSettings.isCompression();
+        WhiteSourceConnectionLimits limits = WhiteSourceConnectionLimits.async(settings);
+
+        IOReactorConfig reactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(Math.max(1, httpClientSettings.getIoThreads()))
+                .setConnectTimeout(settings.getConnectTimeout())
+                .setSoTimeout(settings.getReadTimeout())
+                .setSoKeepAlive(true)
+                .build();
+        try {
+            connectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(reactorConfig));
+        } catch (IOReactorException e) {
+            throw new IllegalStateException("Unable to start the WhiteSource io reactor", e);
+        }
+        connectionManager.setMaxTotal(limits.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(limits.getDefaultMaxPerServer());
+        limits.getMaxPerServer().forEach(connectionManager::setMaxPerRoute);
+        poolMetrics = new WhiteSourcePoolMetrics("WhiteSourceAsyncHttpTransport", connectionManager);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(settings.getConnectTimeout())
+                .setSocketTimeout(settings.getReadTimeout())
+                .setConnectionRequestTimeout(httpClientSettings.getConnectionRequestTimeout())
+                .build();
+        // the async client never decodes content itself, responses are decoded by the blocking transport's reader
+        httpClient = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(WhiteSourceHttpTransport.keepAliveStrategy(httpClientSettings.getKeepAlive()))
+                .build();
+        httpClient.start();
+
+        // a response thread is held for as long as a response streams in, default to one per connection of a server
+        int responseThreads = httpClientSettings.getResponseThreads() > 0 ? httpClientSettings.getResponseThreads() : limits.getDefaultMaxPerServer();
+        streams = new Semaphore(responseThreads);
+        AtomicInteger threadCount = new AtomicInteger();
+        responseExecutor = Executors.newFixedThreadPool(responseThreads, r -> {
+            Thread thread = new Thread(r, "WSResponseThread-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        LOG.info("WhiteSourceAsyncHttpTransport: connection pool maxTotal=" + limits.getMaxTotal() + ", defaultMaxPerServer=" + limits.getDefaultMaxPerServer()
+                + ", servers=" + limits.getMaxPerServer().size() + ", responseThreads=" + responseThreads);
+    }
+
+    /**
+     * Posts a json request without blocking. The response body is handed to the handler on a response thread as soon
+     * as it starts to arrive, the handler reads it while it streams in.
+     *
+     * @param requestType request type
+     * @param url         api url
+     * @param request     json request
+     * @param handler     response body handler
+     * @return future of the handler result, failed with a {@link WhiteSourceApiException} when the call fails or the
+     * server answers with a non 2xx status, or with an IOException when the handler fails to read the response
+     */
+    public <T> CompletableFuture<T> post(Constants.RequestType requestType, String url, JSONObject request,
+                                         WhiteSourceHttpTransport.ResponseHandler<T> handler) {
+        HttpRoute route = WhiteSourceHttpTransport.getRoute(url);
+        WhiteSourcePoolMetrics.Server metrics = poolMetrics.request(route);
+
+        HttpPost post = new HttpPost(url);
+        post.setEntity(new StringEntity(request.toJSONString(), ContentType.APPLICATION_JSON));
+        if (compression) {
+            post.setHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        StreamingCall<T> call = new StreamingCall<>(requestType, route, metrics, handler, future);
+        future.whenComplete((result, e) -> {
+            streams.release();
+            startLoop.run();
+        });
+        waiting.add(() -> call.start(post));
+        startLoop.run();
+        return future;
+    }
+
+    /**
+     * Logs connection pool usage per server, then resets the per run counters
+     */
+    public void logMetrics() {
+        poolMetrics.log(LOG);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        httpClient.close();
+        responseExecutor.shutdownNow();
+    }
+
+    // Starts waiting calls while there are response threads for them, run through startLoop since calls may
+    // complete on the calling thread and ask for more starts
+    private void startWaiting() {
+        while (!waiting.isEmpty() && streams.tryAcquire()) {
+            Runnable start = waiting.poll();
+            if (start == null) {
+                streams.release();
+            } else {
+                start.run();
+            }
+        }
+    }
+
+    /**
+     * One call: consumes the response on the io reactor into a bounded buffer and reads it on a response thread.
+     * The future is completed by the response thread once it started reading, otherwise by the exchange callback.
+     */
+    private final class StreamingCall<T> extends AbstractAsyncResponseConsumer<Void> {
+        private final Constants.RequestType requestType;
+        private final HttpRoute route;
+        private final WhiteSourcePoolMetrics.Server metrics;
+        private final WhiteSourceHttpTransport.ResponseHandler<T> handler;
+        private final CompletableFuture<T> future;
+        private final SharedInputBuffer buffer = new SharedInputBuffer(BUFFER_SIZE);
+
+        // guarded by this
+        private boolean reading;
+        private boolean abandoned;
+        private Exception failure;
+        private Future<Void> exchange;
+
+        StreamingCall(Constants.RequestType requestType, HttpRoute route, WhiteSourcePoolMetrics.Server metrics,
+                      WhiteSourceHttpTransport.ResponseHandler<T> handler, CompletableFuture<T> future) {
+            this.requestType = requestType;
+            this.route = route;
+            this.metrics = metrics;
+            this.handler = handler;
+            this.future = future;
+        }
+
+        void start(HttpPost post) {
+            metrics.leased(1);
+            Future<Void> started;
+            try {
+                started = httpClient.execute(HttpAsyncMethods.create(post), this, new FutureCallback<Void>() {
+                    @Override
+                    public void completed(Void result) {
+                        metrics.leased(-1);
+                        onCompleted();
+                    }
+
+                    @Override
+                    public void failed(Exception e) {
+                        metrics.leased(-1);
+                        onFailed(e);
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        metrics.leased(-1);
+                        onFailed(new CancellationException(requestType + " request was cancelled"));
+                    }
+                });
+            } catch (RuntimeException e) {
+                metrics.leased(-1);
+                future.completeExceptionally(new WhiteSourceApiException(requestType, "Unable to call " + requestType + " on " + route.getTargetHost(), e));
+                return;
+            }
+            synchronized (this) {
+                exchange = started;
+                if (!abandoned) return;
+            }
+            started.cancel(true);
+        }
+
+        // Exceptions other than IOException and HttpException would stop the io reactor, a failed status is kept
+        // and reported when the exchange fails
+        @Override
+        protected void onResponseReceived(HttpResponse response) throws HttpException {
+            WhiteSourceApiException statusException = WhiteSourceHttpTransport.getStatusException(requestType, response);
+            if (statusException != null) {
+                synchronized (this) {
+                    failure = statusException;
+                }
+                throw new HttpException(statusException.getMessage());
+            }
+        }
+
+        @Override
+        protected void onEntityEnclosed(HttpEntity entity, ContentType contentType) throws IOException {
+            BasicHttpEntity streamed = new BasicHttpEntity();
+            streamed.setContent(new ContentInputStream(buffer));
+            streamed.setContentLength(entity.getContentLength());
+            streamed.setContentType(entity.getContentType());
+            streamed.setContentEncoding(entity.getContentEncoding());
+            startReading(streamed);
+        }
+
+        @Override
+        protected void onContentReceived(ContentDecoder decoder, IOControl ioControl) throws IOException {
+            // suspends reading from the connection while the buffer is full
+            buffer.consumeContent(decoder, ioControl);
+        }
+
+        @Override
+        protected Void buildResult(HttpContext context) {
+            return null;
+        }
+
+        @Override
+        protected void releaseResources() {
+            // the buffer is read to its end by the response thread, or shut down when the call fails
+        }
+
+        private void startReading(HttpEntity entity) throws IOException {
+            synchronized (this) {
+                reading = true;
+            }
+            try {
+                // decoding and parsing is cpu work, keep it off the io reactor threads
+                responseExecutor.execute(() -> read(entity));
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    reading = false;
+                }
+                throw new IOException("Response executor is shut down", e);
+            }
+        }
+
+        private void read(HttpEntity entity) {
+            T result = null;
+            Exception error = null;
+            try {
+                result = transport.read(requestType, entity, handler);
+            } catch (IOException | RuntimeException e) {
+                error = e;
+            }
+            if (error == null) {
+                future.complete(result);
+                return;
+            }
+            Future<Void> running;
+            Exception transportFailure;
+            synchronized (this) {
+                abandoned = true;
+                running = exchange;
+                transportFailure = failure;
+            }
+            // a transport failure cut the body short, it is the cause of the read error
+            future.completeExceptionally(transportFailure != null ? transportFailure : error);
+            // nothing reads the rest of the body, stop the download
+            buffer.shutdown();
+            if (running != null) {
+                running.cancel(true);
+            }
+        }
+
+        private void onCompleted() {
+            boolean started;
+            synchronized (this) {
+                started = reading;
+            }
+            if (started) return;
+            // a response without a body
+            try {
+                startReading(null);
+            } catch (IOException e) {
+                future.completeExceptionally(new WhiteSourceApiException(requestType, e.getMessage(), e));
+            }
+        }
+
+        private void onFailed(Exception e) {
+            boolean started;
+            Exception cause;
+            synchronized (this) {
+                if (failure == null) {
+                    failure = toApiException(e);
+                }
+                cause = failure;
+                started = reading;
+            }
+            // wakes up the response thread, it completes the future with the failure
+            buffer.shutdown();
+            if (!started) {
+                future.completeExceptionally(cause);
+            }
+        }
+
+        private Exception toApiException(Exception e) {
+            if (e instanceof CancellationException) {
+                return e;
+            }
+            if (e instanceof TimeoutException) {
+                // the async pool reports lease timeouts as a TimeoutException
+                metrics.leaseTimeout();
+                ConnectionPoolTimeoutException timeout = new ConnectionPoolTimeoutException(e.getMessage());
+                return new WhiteSourceApiException(requestType, "Timed out waiting for a pooled connection to " + route.getTargetHost(), timeout);
+            }
+            return new WhiteSourceApiException(requestType, "Exception occurred while calling " + requestType + " on " + route.getTargetHost(), e);
+        }
+    }
+}
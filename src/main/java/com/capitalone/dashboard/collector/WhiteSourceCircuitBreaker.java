@@ -0,0 +1,189 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.settings.WhiteSourceServerSettings;
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+import com.capitalone.dashboard.utils.Constants;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Circuit breaker per WhiteSource server and org (instanceUrl + orgToken).
+ *
+ * After errorThreshold consecutive calls failed on the server side (timeouts, dropped connections, 5xx) the circuit
+ * opens and calls fail fast with {@link WhiteSourceCircuitOpenException} instead of waiting out the read timeout. Once
+ * errorResetWindow has passed a single probe request is let through (half open). The circuit closes when the probe
+ * succeeds and opens for another window when it fails.
+ *
+ * A call is recorded once, after its retries: a call failing on every attempt is one failure.
+ *
+ * The breaker is off when errorThreshold is 0 or less.
+ */
+@Component
+public class WhiteSourceCircuitBreaker {
+    private static final Log LOG = LogFactory.getLog(WhiteSourceCircuitBreaker.class);
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final WhiteSourceSettings settings;
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    @Autowired
+    public WhiteSourceCircuitBreaker(WhiteSourceSettings settings) {
+        this.settings = settings;
+    }
+
+    public boolean isEnabled() {
+        return settings.getErrorThreshold() > 0;
+    }
+
+    /**
+     * Lets a request through or fails fast when the server's circuit is open
+     *
+     * @param requestType    request type
+     * @param serverSettings whitesource server settings
+     * @throws WhiteSourceCircuitOpenException when the circuit is open, or half open with a probe in flight
+     */
+    public void acquirePermission(Constants.RequestType requestType, WhiteSourceServerSettings serverSettings) {
+        if (!isEnabled()) return;
+        Circuit circuit = getCircuit(serverSettings);
+        if (!circuit.tryAcquire(System.currentTimeMillis(), settings.getErrorResetWindow())) {
+            throw new WhiteSourceCircuitOpenException(requestType, circuit.getReason(serverSettings));
+        }
+    }
+
+    /**
+     * Fails fast when the server's circuit is open and not yet due for a probe. Used between collection steps to
+     * skip the rest of an org.
+     *
+     * @param serverSettings whitesource server settings
+     * @throws WhiteSourceCircuitOpenException when the circuit is open
+     */
+    public void checkClosed(WhiteSourceServerSettings serverSettings) {
+        if (isOpen(serverSettings)) {
+            throw new WhiteSourceCircuitOpenException(null, getCircuit(serverSettings).getReason(serverSettings));
+        }
+    }
+
+    /**
+     * @param serverSettings whitesource server settings
+     * @return true when calls to the server currently fail fast
+     */
+    public boolean isOpen(WhiteSourceServerSettings serverSettings) {
+        if (!isEnabled()) return false;
+        Circuit circuit = circuits.get(getKey(serverSettings));
+        return circuit != null && circuit.isOpen(System.currentTimeMillis(), settings.getErrorResetWindow());
+    }
+
+    public void onSuccess(WhiteSourceServerSettings serverSettings) {
+        if (!isEnabled()) return;
+        Circuit circuit = getCircuit(serverSettings);
+        if (circuit.success()) {
+            LOG.info("WhiteSourceCircuitBreaker: circuit closed for server=" + serverSettings.getInstanceUrl());
+        }
+    }
+
+    /**
+     * Records a failed call. Only server side failures count towards the threshold, a client error or a malformed
+     * response still proves the server is answering.
+     *
+     * @param serverSettings whitesource server settings
+     * @param e              failure
+     */
+    public void onFailure(WhiteSourceServerSettings serverSettings, Exception e) {
+        if (!isEnabled()) return;
+        Circuit circuit = getCircuit(serverSettings);
+        if (isInterrupted(e)) {
+            circuit.release();
+        } else if (!isServerFailure(e)) {
+            onSuccess(serverSettings);
+        } else if (circuit.failure(System.currentTimeMillis(), settings.getErrorThreshold(), e)) {
+            LOG.warn("WhiteSourceCircuitBreaker: " + circuit.getReason(serverSettings));
+        }
+    }
+
+    static boolean isServerFailure(Exception e) {
+        if (e instanceof WhiteSourceApiException && ((WhiteSourceApiException) e).getStatusCode() == WhiteSourceApiException.TOO_MANY_REQUESTS) {
+            // throttling is handled by the rate limiter, the server is healthy
+            return false;
+        }
+        return WhiteSourceRetryPolicy.isRetryable(e);
+    }
+
+    private static boolean isInterrupted(Exception e) {
+        return Thread.currentThread().isInterrupted() || (e instanceof InterruptedIOException && !(e instanceof SocketTimeoutException));
+    }
+
+    private Circuit getCircuit(WhiteSourceServerSettings serverSettings) {
+        return circuits.computeIfAbsent(getKey(serverSettings), k -> new Circuit());
+    }
+
+    private static String getKey(WhiteSourceServerSettings serverSettings) {
+        return serverSettings.getInstanceUrl() + "|" + serverSettings.getOrgToken();
+    }
+
+    private static final class Circuit {
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+        private boolean probeInFlight;
+        private String lastError = "";
+
+        synchronized boolean tryAcquire(long now, long resetWindow) {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (now - openedAt < resetWindow) return false;
+                    state = State.HALF_OPEN;
+                    probeInFlight = true;
+                    return true;
+                default:
+                    if (probeInFlight) return false;
+                    probeInFlight = true;
+                    return true;
+            }
+        }
+
+        synchronized boolean isOpen(long now, long resetWindow) {
+            return state == State.OPEN && now - openedAt < resetWindow;
+        }
+
+        // returns true when this closed an open circuit
+        synchronized boolean success() {
+            boolean closed = state != State.CLOSED;
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            probeInFlight = false;
+            return closed;
+        }
+
+        // returns true when this opened the circuit
+        synchronized boolean failure(long now, int threshold, Exception e) {
+            lastError = e.getClass().getSimpleName() + ": " + e.getMessage();
+            consecutiveFailures++;
+            probeInFlight = false;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= threshold)) {
+                state = State.OPEN;
+                openedAt = now;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void release() {
+            probeInFlight = false;
+        }
+
+        synchronized String getReason(WhiteSourceServerSettings serverSettings) {
+            return "circuit open for server=" + serverSettings.getInstanceUrl() + " after " + consecutiveFailures
+                    + " consecutive failures, last error=" + lastError;
+        }
+    }
+}
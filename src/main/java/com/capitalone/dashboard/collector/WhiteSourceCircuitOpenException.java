@@ -0,0 +1,13 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.utils.Constants;
+
+/**
+ * Thrown instead of calling a WhiteSource server whose circuit is open.
+ */
+public class WhiteSourceCircuitOpenException extends WhiteSourceApiException {
+
+    public WhiteSourceCircuitOpenException(Constants.RequestType requestType, String message) {
+        super(requestType, NO_STATUS, message);
+    }
+}
@@ -9,19 +9,26 @@ import com.capitalone.dashboard.model.WhiteSourceChangeRequest;
 import com.capitalone.dashboard.model.WhiteSourceCollector;
 import com.capitalone.dashboard.model.WhiteSourceComponent;
 import com.capitalone.dashboard.model.WhiteSourceProduct;
+import com.capitalone.dashboard.model.WhiteSourceProjectIndex;
 import com.capitalone.dashboard.model.WhiteSourceProjectVital;
+import com.capitalone.dashboard.model.WhiteSourceRunCheckpoint;
 import com.capitalone.dashboard.model.WhitesourceOrg;
 import com.capitalone.dashboard.repository.BaseCollectorRepository;
-import com.capitalone.dashboard.repository.LibraryReferenceRepository;
 import com.capitalone.dashboard.repository.WhiteSourceCollectorRepository;
 import com.capitalone.dashboard.repository.WhiteSourceComponentRepository;
+import com.capitalone.dashboard.repository.WhiteSourceCustomComponentRepository;
+import com.capitalone.dashboard.repository.WhiteSourceCustomLibraryPolicyRepository;
+import com.capitalone.dashboard.repository.WhiteSourceCustomLibraryReferenceRepository;
+import com.capitalone.dashboard.settings.PipelineSettings;
 import com.capitalone.dashboard.settings.WhiteSourceServerSettings;
 import com.capitalone.dashboard.settings.WhiteSourceSettings;
 import com.capitalone.dashboard.utils.Constants;
 import com.google.common.collect.Iterables;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
@@ -29,14 +36,19 @@ import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -49,8 +61,24 @@ public class WhiteSourceCollectorTask extends CollectorTask<WhiteSourceCollector
     private final WhiteSourceComponentRepository whiteSourceComponentRepository;
     private final WhiteSourceClient whiteSourceClient;
     private final WhiteSourceSettings whiteSourceSettings;
-    private final LibraryReferenceRepository libraryReferenceRepository;
     private final AsyncService dataRefreshService;
+    private final WhiteSourceHttpTransport transport;
+    private final WhiteSourceRateLimiter rateLimiter;
+    private final WhiteSourceRetryPolicy retryPolicy;
+    private final WhiteSourceCircuitBreaker circuitBreaker;
+    private final WhiteSourceProjectVitalCache projectVitalCache;
+    private final WhiteSourceAsyncHttpTransport asyncTransport;
+    private final WhiteSourceCustomLibraryPolicyRepository libraryPolicyRepository;
+    private final WhiteSourceStringInterner stringInterner;
+    private final WhiteSourceProductCosts productCosts;
+    private final WhiteSourceScanDataWriter scanDataWriter;
+    private final WhiteSourceCustomComponentRepository customComponentRepository;
+    private final WhiteSourceCustomLibraryReferenceRepository customLibraryReferenceRepository;
+    private final WhiteSourceLibraryIndex libraryIndex;
+    private final WhiteSourceRunCheckpoints runCheckpoints;
+    private final Executor orgExecutor;
+    // last time all projects of an org were listed, by server and org. Empty after a restart, so the first run lists everything
+    private final Map<String, Long> lastFullProjectDiscovery = new ConcurrentHashMap<>();
 
 
     @Autowired
@@ -59,15 +87,43 @@ public class WhiteSourceCollectorTask extends CollectorTask<WhiteSourceCollector
                                     WhiteSourceComponentRepository whiteSourceComponentRepository,
                                     WhiteSourceClient whiteSourceClient,
                                     WhiteSourceSettings whiteSourceSettings,
-                                    LibraryReferenceRepository libraryReferenceRepository,
-                                    AsyncService dataRefreshService) {
+                                    AsyncService dataRefreshService,
+                                    WhiteSourceHttpTransport transport,
+                                    WhiteSourceRateLimiter rateLimiter,
+                                    WhiteSourceRetryPolicy retryPolicy,
+                                    WhiteSourceCircuitBreaker circuitBreaker,
+                                    WhiteSourceProjectVitalCache projectVitalCache,
+                                    WhiteSourceAsyncHttpTransport asyncTransport,
+                                    WhiteSourceCustomLibraryPolicyRepository libraryPolicyRepository,
+                                    WhiteSourceStringInterner stringInterner,
+                                    WhiteSourceProductCosts productCosts,
+                                    WhiteSourceScanDataWriter scanDataWriter,
+                                    WhiteSourceCustomComponentRepository customComponentRepository,
+                                    WhiteSourceCustomLibraryReferenceRepository customLibraryReferenceRepository,
+                                    WhiteSourceLibraryIndex libraryIndex,
+                                    WhiteSourceRunCheckpoints runCheckpoints,
+                                    @Qualifier("WSOrgExecutor") Executor orgExecutor) {
         super(taskScheduler, Constants.WHITE_SOURCE);
         this.whiteSourceCollectorRepository = whiteSourceCollectorRepository;
         this.whiteSourceComponentRepository = whiteSourceComponentRepository;
         this.whiteSourceClient = whiteSourceClient;
         this.whiteSourceSettings = whiteSourceSettings;
-        this.libraryReferenceRepository = libraryReferenceRepository;
         this.dataRefreshService = dataRefreshService;
+        this.transport = transport;
+        this.rateLimiter = rateLimiter;
+        this.retryPolicy = retryPolicy;
+        this.circuitBreaker = circuitBreaker;
+        this.projectVitalCache = projectVitalCache;
+        this.asyncTransport = asyncTransport;
+        this.libraryPolicyRepository = libraryPolicyRepository;
+        this.stringInterner = stringInterner;
+        this.productCosts = productCosts;
+        this.scanDataWriter = scanDataWriter;
+        this.customComponentRepository = customComponentRepository;
+        this.customLibraryReferenceRepository = customLibraryReferenceRepository;
+        this.libraryIndex = libraryIndex;
+        this.runCheckpoints = runCheckpoints;
+        this.orgExecutor = orgExecutor;
     }
 
     @Override
@@ -102,49 +158,106 @@ public class WhiteSourceCollectorTask extends CollectorTask<WhiteSourceCollector
     public void collect(WhiteSourceCollector collector) {
         long start = System.currentTimeMillis();
         CollectorMetric collectorMetric = new CollectorMetric();
+        // Costs of the previous runs, to start the most expensive products first
+        productCosts.load(collector.getId());
         // Get existing projects from collector item repository
         List<WhiteSourceComponent> existingProjects = whiteSourceComponentRepository.findByCollectorIdIn(Stream.of(collector.getId()).collect(Collectors.toList()));
-        collector.getWhiteSourceServers().forEach(instanceUrl -> {
-            log(instanceUrl);
-            whiteSourceSettings.getWhiteSourceServerSettings().forEach(whiteSourceServerSettings -> {
-                String logMessage = "WhiteSourceCollector :";
-                try {
-                    // Get org details
-                    WhitesourceOrg whitesourceOrg = whiteSourceClient.getOrgDetails(whiteSourceServerSettings);
-
-                    // Get the change request log
-                    Set<WhiteSourceChangeRequest> changeSet = getChangeRequests(collector, whitesourceOrg, whiteSourceServerSettings);
-
-                    // Add new projects
-                    List<WhiteSourceComponent> projects = addProjects(collector, whitesourceOrg, changeSet, new HashSet<>(existingProjects), collectorMetric, whiteSourceServerSettings);
-                    // Get project vitals in a map
-                    Map<String, WhiteSourceProjectVital> projectVitalMap = whiteSourceClient.getOrgProjectVitals(whitesourceOrg, whiteSourceServerSettings);
-
-                    //Refresh scan data
-                    int refreshCount = refreshData(collector, whitesourceOrg, changeSet, projectVitalMap, whiteSourceServerSettings);
-                    collectorMetric.addInstanceCount(refreshCount);
-
-                    logMessage = "SUCCESS, orgName=" + whitesourceOrg.getName() + ", fetched projects=" + projects.size() + ", New projects=" + collectorMetric.getAdded() + ", updated-projects=" + collectorMetric.getUpdated() + ", updated instance-data=" + collectorMetric.getInstanceCount();
-                } catch (HygieiaException | ExecutionException he) {
-                    logMessage = "EXCEPTION occurred, " + he.getClass().getCanonicalName();
-                    LOG.error("Unexpected error occurred while collecting data for url=" + instanceUrl, he);
-                } catch (InterruptedException e) {
-                    LOG.error("InterruptedException error occurred while collecting data for url=" + instanceUrl, e);
-                    Thread.currentThread().interrupt();
-                } finally {
-                    LOG.info(String.format("status=%s", logMessage));
-                }
-            });
-        });
+        collector.getWhiteSourceServers().forEach(instanceUrl -> log(instanceUrl));
+
+        // every org runs its own pipeline, the run takes about as long as the slowest org
+        List<WhiteSourceServerSettings> collectionPlan = getCollectionPlan(whiteSourceSettings.getWhiteSourceServerSettings());
+        List<CompletableFuture<CollectorMetric>> orgs = new ArrayList<>();
+        for (WhiteSourceServerSettings serverSettings : collectionPlan) {
+            orgs.add(CompletableFuture.supplyAsync(() -> collectOrg(collector, existingProjects, serverSettings), orgExecutor));
+        }
+        orgs.forEach(org -> collectorMetric.combine(org.join()));
         long end = System.currentTimeMillis();
         long elapsedTime = (end - start) / 1000;
         collector.setLastExecutionRecordCount(collectorMetric.getUpdated());
         collector.setLastExecutedSeconds(elapsedTime);
+        productCosts.save(collector.getId());
+        transport.logMetrics();
+        asyncTransport.logMetrics();
+        rateLimiter.logMetrics();
+        retryPolicy.logMetrics();
+        projectVitalCache.logMetrics();
+        stringInterner.logMetrics();
+        scanDataWriter.logMetrics();
+
+        LOG.info(String.format("WhitesourceCollectorTask:collector stop, totalProcessSeconds=%d,  totalFetchedProjects=%d, totalNewProjects=%d, totalUpdatedProjects=%d, totalUpdatedInstanceData=%d, skippedOrgs=%d ",
+                elapsedTime, collectorMetric.getFetched(), collectorMetric.getAdded(), collectorMetric.getUpdated(), collectorMetric.getInstanceCount(), collectorMetric.getSkipped().size()));
+        collectorMetric.getSkipped().forEach((org, reason) -> LOG.warn("WhitesourceCollectorTask: skipped orgName=" + org + ", reason=" + reason));
+    }
+
+
+    /**
+     * Collects one org: org details, change log, project discovery, vitals and scan data. Failures are logged and
+     * end this org only, the other orgs of the run go on.
+     *
+     * @param collector                 Whitesource collector
+     * @param existingProjects          existing projects of the collector
+     * @param whiteSourceServerSettings Whitesource server setting of the org
+     * @return metrics of this org
+     */
+    private CollectorMetric collectOrg(WhiteSourceCollector collector, List<WhiteSourceComponent> existingProjects, WhiteSourceServerSettings whiteSourceServerSettings) {
+        CollectorMetric collectorMetric = new CollectorMetric();
+        String logMessage = "WhiteSourceCollector :";
+        String orgName = whiteSourceServerSettings.getInstanceUrl();
+        try {
+            // Skip the org while its server is failing
+            circuitBreaker.checkClosed(whiteSourceServerSettings);
+
+            // Get org details
+            WhitesourceOrg whitesourceOrg = whiteSourceClient.getOrgDetails(whiteSourceServerSettings);
+            orgName = whitesourceOrg.getName();
+
+            // Get the change request log
+            Set<WhiteSourceChangeRequest> changeSet = getChangeRequests(collector, whitesourceOrg, whiteSourceServerSettings);
 
-        LOG.info(String.format("WhitesourceCollectorTask:collector stop, totalProcessSeconds=%d,  totalFetchedProjects=%d, totalNewProjects=%d, totalUpdatedProjects=%d, totalUpdatedInstanceData=%d ",
-                elapsedTime, collectorMetric.getFetched(), collectorMetric.getAdded(), collectorMetric.getUpdated(), collectorMetric.getInstanceCount()));
+            // Add new projects
+            List<WhiteSourceComponent> projects = addProjects(collector, whitesourceOrg, changeSet, new HashSet<>(existingProjects), collectorMetric, whiteSourceServerSettings);
+            circuitBreaker.checkClosed(whiteSourceServerSettings);
+
+            // Get project vitals in a map
+            Map<String, WhiteSourceProjectVital> projectVitalMap = whiteSourceClient.getOrgProjectVitals(whitesourceOrg, whiteSourceServerSettings);
+
+            //Refresh scan data
+            int refreshCount = refreshData(collector, whitesourceOrg, changeSet, projectVitalMap, whiteSourceServerSettings);
+            collectorMetric.addInstanceCount(refreshCount);
+
+            logMessage = "SUCCESS, orgName=" + whitesourceOrg.getName() + ", fetched projects=" + projects.size() + ", New projects=" + collectorMetric.getAdded() + ", updated-projects=" + collectorMetric.getUpdated() + ", updated instance-data=" + collectorMetric.getInstanceCount();
+        } catch (WhiteSourceCircuitOpenException e) {
+            logMessage = "SKIPPED, orgName=" + orgName + ", reason=" + e.getMessage();
+            collectorMetric.addSkipped(orgName, e.getMessage());
+        } catch (HygieiaException | ExecutionException | RuntimeException he) {
+            logMessage = "EXCEPTION occurred, orgName=" + orgName + ", " + he.getClass().getCanonicalName();
+            LOG.error("Unexpected error occurred while collecting data for url=" + whiteSourceServerSettings.getInstanceUrl(), he);
+        } catch (InterruptedException e) {
+            LOG.error("InterruptedException error occurred while collecting data for url=" + whiteSourceServerSettings.getInstanceUrl(), e);
+            Thread.currentThread().interrupt();
+        } finally {
+            LOG.info(String.format("status=%s", logMessage));
+        }
+        return collectorMetric;
     }
 
+    /**
+     * Distinct orgs to collect, by instance url and org token. An org configured twice is collected once.
+     *
+     * @param serverSettings Whitesource server settings
+     * @return server settings of the orgs, in configuration order
+     */
+    private static List<WhiteSourceServerSettings> getCollectionPlan(List<WhiteSourceServerSettings> serverSettings) {
+        Map<String, WhiteSourceServerSettings> plan = new LinkedHashMap<>();
+        for (WhiteSourceServerSettings settings : serverSettings) {
+            String instanceUrl = Objects.toString(settings.getInstanceUrl(), "").toLowerCase(Locale.ROOT);
+            String key = (instanceUrl.endsWith("/") ? instanceUrl.substring(0, instanceUrl.length() - 1) : instanceUrl) + "|" + settings.getOrgToken();
+            if (plan.putIfAbsent(key, settings) != null) {
+                LOG.warn("WhitesourceCollectorTask: org configured more than once, collecting it once. url=" + settings.getInstanceUrl());
+            }
+        }
+        return new ArrayList<>(plan.values());
+    }
 
     /**
      * Gets the org level change requests log
@@ -163,7 +276,10 @@ public class WhiteSourceCollectorTask extends CollectorTask<WhiteSourceCollector
     }
 
     /**
-     * Fetches all projects for an org and adds new collector items
+     * Fetches projects for an org and adds new collector items.
+     * <p>
+     * All products are listed on the first run and every fullProjectDiscoveryInterval. In between only the products
+     * named in project changes of the change log are listed again.
      *
      * @param collector                 collector
      * @param whitesourceOrg            white source org
@@ -180,28 +296,34 @@ public class WhiteSourceCollectorTask extends CollectorTask<WhiteSourceCollector
 
         long timeGetProjects = System.currentTimeMillis();
         List<WhiteSourceComponent> projects = new ArrayList<>();
+        String discoveryKey = whiteSourceServerSettings.getInstanceUrl() + "|" + whitesourceOrg.getName();
         try {
-            if (collector.getLastExecuted() == 0 || checkForProjectChange(changeSet)) {
+            boolean fullDiscovery = collector.getLastExecuted() == 0
+                    || timeGetProjects - lastFullProjectDiscovery.getOrDefault(discoveryKey, 0L) >= whiteSourceSettings.getFullProjectDiscoveryInterval();
+            Set<String> changedProductNames = fullDiscovery ? Collections.emptySet() : getChangedProductNames(changeSet);
+            // a project change without a product name can not be narrowed down
+            fullDiscovery = fullDiscovery || changedProductNames.contains(null);
+            if (fullDiscovery || !changedProductNames.isEmpty()) {
                 List<WhiteSourceProduct> products = whiteSourceClient.getProducts(whitesourceOrg,
                         whiteSourceServerSettings);
+                if (!fullDiscovery) {
+                    products = products.stream().filter(product -> changedProductNames.contains(product.getProductName())).collect(Collectors.toList());
+                    LOG.info("WhitesourceCollectorTask: Listing projects of changed products only. Products to list=" + products.size());
+                }
 
                 if (CollectionUtils.isEmpty(products)) {
                     return projects;
                 }
 
-                Iterable<List<WhiteSourceProduct>> partitions = Iterables.partition(products, products.size() / whiteSourceSettings.getThreadPoolSettings().getCorePoolSize());
-
-                List<CompletableFuture<List<WhiteSourceComponent>>> threads = new ArrayList<>();
-                for (List<WhiteSourceProduct> partition : partitions) {
-                    CompletableFuture<List<WhiteSourceComponent>> thread = dataRefreshService.getProjectsForProductsAsync(whitesourceOrg, partition, whiteSourceServerSettings);
-                    threads.add(thread);
-                }
-                CompletableFuture.allOf(Iterables.toArray(threads, CompletableFuture.class)).join();
-                for (CompletableFuture<List<WhiteSourceComponent>> thread : threads) {
-                    projects.addAll(thread.get());
+                // every product is listed on its own non blocking call, no fixed chunks of products. Bigger products
+                // have more projects, start them first
+                products = productCosts.longestFirst(products, WhiteSourceProduct::getProductToken);
+                projects.addAll(dataRefreshService.getProjectsForProductsAsync(whitesourceOrg, products, whiteSourceServerSettings).get());
+                if (fullDiscovery) {
+                    lastFullProjectDiscovery.put(discoveryKey, timeGetProjects);
                 }
                 timeGetProjects = System.currentTimeMillis() - timeGetProjects;
-                LOG.info("WhitesourceCollectorTask: Time to get all projects: " + timeGetProjects);
+                LOG.info("WhitesourceCollectorTask: Time to get " + (fullDiscovery ? "all" : "changed") + " projects: " + timeGetProjects);
                 count.addFetched(projects.size());
                 upsertProjects(projects, existingProjectsSet, collector, count);
             } else {
@@ -226,31 +348,45 @@ public class WhiteSourceCollectorTask extends CollectorTask<WhiteSourceCollector
      * @param count            Count
      */
     private void upsertProjects(List<WhiteSourceComponent> projects, Set<WhiteSourceComponent> existingProjects, WhiteSourceCollector collector, CollectorMetric count) {
-        int newCount = 0;
-        int updatedCount = 0;
         HashMap<WhiteSourceComponent, WhiteSourceComponent> existingMap = (HashMap<WhiteSourceComponent, WhiteSourceComponent>) existingProjects.stream().collect(Collectors.toMap(Function.identity(), Function.identity()));
+        List<WhiteSourceComponent> newProjects = new ArrayList<>();
+        List<WhiteSourceComponent> updatedProjects = new ArrayList<>();
+        Set<WhiteSourceComponent> seen = new HashSet<>();
         for (WhiteSourceComponent project : projects) {
             WhiteSourceComponent matched = existingMap.get(project);
             if (matched == null) {
+                // a project listed twice is registered once
+                if (!seen.add(project)) continue;
                 project.setCollectorId(collector.getId());
                 project.setCollector(collector);
                 project.setEnabled(false);
                 project.setDescription(project.getProjectName());
                 project.setPushed(false);
-                whiteSourceComponentRepository.save(project);
-                newCount++;
+                newProjects.add(project);
             } else {
                 if (Objects.isNull(matched.getProjectName()) || Objects.isNull(matched.getProductName()) || Objects.isNull(matched.getProductToken())) {
                     matched.setProductToken(project.getProductToken());
                     matched.setProjectName(project.getProjectName());
                     matched.setProductName(project.getProductName());
-                    whiteSourceComponentRepository.save(matched);
-                    updatedCount++;
+                    updatedProjects.add(matched);
                 }
             }
         }
+
+        int newCount = 0;
+        for (List<WhiteSourceComponent> batch : Iterables.partition(newProjects, Constants.BULK_BATCH_SIZE)) {
+            long batchStart = System.currentTimeMillis();
+            int inserted = customComponentRepository.insertNewProjects(collector.getId(), batch);
+            newCount += inserted;
+            LOG.info("WhitesourceCollectorTask: registered new projects, batch=" + batch.size() + ", inserted=" + inserted + ", duration=" + (System.currentTimeMillis() - batchStart));
+        }
+        for (List<WhiteSourceComponent> batch : Iterables.partition(updatedProjects, Constants.BULK_BATCH_SIZE)) {
+            long batchStart = System.currentTimeMillis();
+            customComponentRepository.updateProjectDetails(batch);
+            LOG.info("WhitesourceCollectorTask: updated project details, batch=" + batch.size() + ", duration=" + (System.currentTimeMillis() - batchStart));
+        }
         count.addNewCount(newCount);
-        count.addUpdatedCount(updatedCount);
+        count.addUpdatedCount(updatedProjects.size());
     }
 
 
@@ -267,6 +403,9 @@ public class WhiteSourceCollectorTask extends CollectorTask<WhiteSourceCollector
      * <p>
      * - For the first collector run, collect all project alerts (step 4)
      * - For all project alert collection, collect alerts at the product level to reduce number of http calls
+     * - A refresh interrupted by a restart resumes from its checkpoint. Steps (1) to (3) collect what changed and always run
+     *   again, a finished step (4) is skipped and step (4) and (5) skip the projects saved since the interrupted refresh started
+     * - A failed refresh removes its checkpoint, the next one starts over
      *
      * @param collector       Whitesource collector
      * @param whitesourceOrg  Whitesource Org
@@ -279,115 +418,137 @@ public class WhiteSourceCollectorTask extends CollectorTask<WhiteSourceCollector
 
         Map<WhiteSourceChangeRequest, WhiteSourceChangeRequest> changeRequestMap = changeRequests.stream().collect(Collectors.toMap(Function.identity(), Function.identity()));
 
-        Set<WhiteSourceComponent> enabledProjects = getEnabledProjects(collector);
+        Set<WhiteSourceComponent> enabledProjects = getEnabledProjects(collector, whitesourceOrg.getName());
+        libraryIndex.load(whitesourceOrg.getName());
+        // token lookups for all alert transformations of this run
+        WhiteSourceProjectIndex projectIndex = new WhiteSourceProjectIndex(enabledProjects);
 
         Set<String> enabledProductTokens = enabledProjects.stream().map(WhiteSourceComponent::getProductToken).collect(Collectors.toSet());
 
         LOG.info("WhitesourceCollectorTask: Refresh Data - Total enabled products : " + (CollectionUtils.isEmpty(enabledProductTokens) ? 0 : enabledProductTokens.size()));
         LOG.info("WhitesourceCollectorTask: Refresh Data - Total enabled projects : " + (CollectionUtils.isEmpty(enabledProjects) ? 0 : enabledProjects.size()));
 
-        long totalTime = 0;
-        long startTime = System.currentTimeMillis();
-        int count = 0;
         DataRefresh cumulativeDataRefresh = new DataRefresh();
-        if (whiteSourceSettings.isOptimizeCollection()) {
-            if (collector.getLastExecuted() > 0) {
-                // (1) Collect for recently scanned projects first
-                Set<WhiteSourceComponent> recentScannedProjects = getRecentScannedEnabledProjects(projectVitalMap, enabledProjects);
-                LOG.info("WhitesourceCollectorTask: Refresh Data - Step 1 - Collecting Recently Scanned Projects. To be collected =" + recentScannedProjects.size());
-                DataRefresh dataRefresh = updateData(enabledProjects, recentScannedProjects, projectVitalMap, serverSettings);
-
-                count = dataRefresh.getCollectedProjects().size();
-                LOG.info("WhitesourceCollectorTask: Refresh Data - Step 1 - Finished Collecting Recently Scanned Projects. Total collected =" + count + ". Time taken =" + (System.currentTimeMillis() - startTime));
-                cumulativeDataRefresh.combine(dataRefresh);
-                totalTime += (System.currentTimeMillis() - startTime);
-
-                startTime = System.currentTimeMillis();
-
-                // (2) Collect for any project that has a new alert
-                Set<String> newAlertProjectTokens = whiteSourceClient.getAffectedProjectsForOrganization(whitesourceOrg, getHistoryTimestamp(collector), serverSettings);
-                Set<WhiteSourceComponent> newAlertProjects = filterProjects(enabledProjects, cumulativeDataRefresh.getCollectedProjects(), newAlertProjectTokens);
-                LOG.info("WhitesourceCollectorTask: Refresh Data - Step 2 - Collecting Projects with new alerts. To be collected =" + newAlertProjects.size());
-                dataRefresh = updateData(enabledProjects, newAlertProjects, projectVitalMap, serverSettings);
-                count = count + dataRefresh.getCollectedProjects().size();
-                LOG.info("WhitesourceCollectorTask: Refresh Data - Step 2 - Finished Collecting Projects with new alert. Total collected =" + count + ". Time taken =" + (System.currentTimeMillis() - startTime));
-                cumulativeDataRefresh.combine(dataRefresh);
-                totalTime += (System.currentTimeMillis() - startTime);
-
-
-                startTime = System.currentTimeMillis();
-
-                // (3) Collect for any project that has related changes
-                Set<String> changeRequestProjectTokens = getAffectedProjectsFromChanges(changeRequests, whitesourceOrg.getName());
-                Set<WhiteSourceComponent> changeRequestProjects = filterProjects(enabledProjects, cumulativeDataRefresh.getCollectedProjects(), changeRequestProjectTokens);
-                LOG.info("WhitesourceCollectorTask: Refresh Data - Step 3 - Collecting Projects in change log. To be collected =" + changeRequestProjects.size());
-                dataRefresh = updateData(enabledProjects, changeRequestProjects, projectVitalMap, serverSettings);
-                count = count + dataRefresh.getCollectedProjects().size();
-                LOG.info("WhitesourceCollectorTask: Refresh Data - Step 3 - Finished Collecting Projects in change log. Total collected =" + count + ". Time taken =" + (System.currentTimeMillis() - startTime));
-                cumulativeDataRefresh.combine(dataRefresh);
+        WhiteSourceRunCheckpoint checkpoint = runCheckpoints.start(collector.getId(), whitesourceOrg.getName());
+        Set<WhiteSourceComponent> savedProjects = new HashSet<>();
+        if (checkpoint.isResumed()) {
+            // projects saved by the interrupted refresh are up to date, libraries included, unless they changed since
+            enabledProjects.stream()
+                    .filter(e -> e.getLastUpdated() >= checkpoint.getRunStart())
+                    .forEach(savedProjects::add);
+            LOG.info("WhitesourceCollectorTask: Refresh Data - Resuming interrupted refresh. Projects already collected =" + savedProjects.size());
+        }
+        try {
+            long totalTime = 0;
+            long startTime = System.currentTimeMillis();
+            int count = 0;
+            if (whiteSourceSettings.isOptimizeCollection()) {
+                if (collector.getLastExecuted() > 0) {
+                    // (1) Collect for recently scanned projects first
+                    Set<WhiteSourceComponent> recentScannedProjects = getRecentScannedEnabledProjects(projectVitalMap, enabledProjects);
+                    LOG.info("WhitesourceCollectorTask: Refresh Data - Step 1 - Collecting Recently Scanned Projects. To be collected =" + recentScannedProjects.size());
+                    DataRefresh dataRefresh = updateData(projectIndex, recentScannedProjects, projectVitalMap, serverSettings);
+
+                    count = dataRefresh.getCollectedProjects().size();
+                    LOG.info("WhitesourceCollectorTask: Refresh Data - Step 1 - Finished Collecting Recently Scanned Projects. Total collected =" + count + ". Time taken =" + (System.currentTimeMillis() - startTime));
+                    cumulativeDataRefresh.combine(dataRefresh);
+                    runCheckpoints.completeStep(checkpoint, 1);
+                    totalTime += (System.currentTimeMillis() - startTime);
+
+                    startTime = System.currentTimeMillis();
+
+                    circuitBreaker.checkClosed(serverSettings);
+                    // (2) Collect for any project that has a new alert
+                    Set<String> newAlertProjectTokens = whiteSourceClient.getAffectedProjectsForOrganization(whitesourceOrg, getHistoryTimestamp(collector), serverSettings);
+                    Set<WhiteSourceComponent> newAlertProjects = filterProjects(enabledProjects, cumulativeDataRefresh.getCollectedProjects(), newAlertProjectTokens);
+                    LOG.info("WhitesourceCollectorTask: Refresh Data - Step 2 - Collecting Projects with new alerts. To be collected =" + newAlertProjects.size());
+                    dataRefresh = updateData(projectIndex, newAlertProjects, projectVitalMap, serverSettings);
+                    count = count + dataRefresh.getCollectedProjects().size();
+                    LOG.info("WhitesourceCollectorTask: Refresh Data - Step 2 - Finished Collecting Projects with new alert. Total collected =" + count + ". Time taken =" + (System.currentTimeMillis() - startTime));
+                    cumulativeDataRefresh.combine(dataRefresh);
+                    runCheckpoints.completeStep(checkpoint, 2);
+                    totalTime += (System.currentTimeMillis() - startTime);
+
+
+                    startTime = System.currentTimeMillis();
+
+                    circuitBreaker.checkClosed(serverSettings);
+                    // (3) Collect for any project that has related changes
+                    Set<String> changeRequestProjectTokens = getAffectedProjectsFromChanges(changeRequests, whitesourceOrg.getName());
+                    Set<WhiteSourceComponent> changeRequestProjects = filterProjects(enabledProjects, cumulativeDataRefresh.getCollectedProjects(), changeRequestProjectTokens);
+                    LOG.info("WhitesourceCollectorTask: Refresh Data - Step 3 - Collecting Projects in change log. To be collected =" + changeRequestProjects.size());
+                    dataRefresh = updateData(projectIndex, changeRequestProjects, projectVitalMap, serverSettings);
+                    count = count + dataRefresh.getCollectedProjects().size();
+                    LOG.info("WhitesourceCollectorTask: Refresh Data - Step 3 - Finished Collecting Projects in change log. Total collected =" + count + ". Time taken =" + (System.currentTimeMillis() - startTime));
+                    cumulativeDataRefresh.combine(dataRefresh);
+                    runCheckpoints.completeStep(checkpoint, 3);
+
+                    LOG.info("WhitesourceCollectorTask: Refresh Data - High Priority Changes - Total projects : " + cumulativeDataRefresh.getCollectedProjects().size() + ". Time taken =" + (System.currentTimeMillis() - startTime));
+                    totalTime += (System.currentTimeMillis() - startTime);
+
+                    startTime = System.currentTimeMillis();
+                }
 
-                LOG.info("WhitesourceCollectorTask: Refresh Data - High Priority Changes - Total projects : " + cumulativeDataRefresh.getCollectedProjects().size() + ". Time taken =" + (System.currentTimeMillis() - startTime));
+                // steps (1) to (3) collected what changed since the interrupted refresh saved these, the rest is up to date
+                cumulativeDataRefresh.addCollectedProjects(savedProjects);
+                circuitBreaker.checkClosed(serverSettings);
+                // (4) Collect everything enabled that is not collected yet in (1) through (3)
+                Set<WhiteSourceComponent> remainingProjects = enabledProjects.stream().filter(e -> !cumulativeDataRefresh.getCollectedProjects().contains(e)).collect(Collectors.toSet());
+                if (whiteSourceSettings.isSkipUnchangedProducts()) {
+                    Set<WhiteSourceComponent> unchangedProjects = getUnchangedProductProjects(remainingProjects, projectVitalMap);
+                    remainingProjects.removeAll(unchangedProjects);
+                    // already up to date, keep step (5) from collecting them one by one
+                    cumulativeDataRefresh.addCollectedProjects(unchangedProjects);
+                }
+                // after a resumed step (4), the projects left are the ones it failed to collect, step (5) retries them
+                if (!checkpoint.isStepCompleted(4)) {
+                    LOG.info("WhitesourceCollectorTask: Refresh Data - Step 4 - Collecting all remaining projects. To be collected =" + remainingProjects.size());
+                    DataRefresh dataRefresh = updateData(projectIndex, remainingProjects, projectVitalMap, serverSettings);
+                    count = count + dataRefresh.getCollectedProjects().size();
+                    LOG.info("WhitesourceCollectorTask: Refresh Data - Step 4 - Finished Collecting all remaining Projects. Total collected =" + count + ". Time taken =" + (System.currentTimeMillis() - startTime));
+                    cumulativeDataRefresh.combine(dataRefresh);
+                    runCheckpoints.completeStep(checkpoint, 4);
+                }
                 totalTime += (System.currentTimeMillis() - startTime);
-
-                startTime = System.currentTimeMillis();
+            } else {
+                cumulativeDataRefresh.addCollectedProjects(savedProjects);
             }
-
-            // (4) Collect everything enabled that is not collected yet in (1) through (3)
+            circuitBreaker.checkClosed(serverSettings);
+            // (5) Normal collection - Collect everything.
+            // In optimized mode, projects left to collect at this point were due to exceptions and most probably due to whitesource api calls timing out.
+            startTime = System.currentTimeMillis();
             Set<WhiteSourceComponent> remainingProjects = enabledProjects.stream().filter(e -> !cumulativeDataRefresh.getCollectedProjects().contains(e)).collect(Collectors.toSet());
-            LOG.info("WhitesourceCollectorTask: Refresh Data - Step 4 - Collecting all remaining projects. To be collected =" + remainingProjects.size());
-            DataRefresh dataRefresh = updateData(enabledProjects, remainingProjects, projectVitalMap, serverSettings);
-            count = count + dataRefresh.getCollectedProjects().size();
-            LOG.info("WhitesourceCollectorTask: Refresh Data - Step 4 - Finished Collecting all remaining Projects. Total collected =" + count + ". Time taken =" + (System.currentTimeMillis() - startTime));
-            cumulativeDataRefresh.combine(dataRefresh);
-            totalTime += (System.currentTimeMillis() - startTime);
-        }
-        // (5) Normal collection - Collect everything.
-        // In optimized mode, projects left to collect at this point were due to exceptions and most probably due to whitesource api calls timing out.
-        startTime = System.currentTimeMillis();
-        Set<WhiteSourceComponent> remainingProjects = enabledProjects.stream().filter(e -> !cumulativeDataRefresh.getCollectedProjects().contains(e)).collect(Collectors.toSet());
-        if (!CollectionUtils.isEmpty(remainingProjects)) {
-            // Need to partition products
-            LOG.info("WhitesourceCollectorTask: Refresh Data - Step 5 - Collecting all remaining projects that failed. To be collected =" + remainingProjects.size());
-            int partitionCount = remainingProjects.size() >= whiteSourceSettings.getThreadPoolSettings().getCorePoolSize() ? whiteSourceSettings.getThreadPoolSettings().getCorePoolSize() : 1;
-            Iterable<List<WhiteSourceComponent>> partitions = Iterables.partition(remainingProjects, remainingProjects.size() / partitionCount);
-            List<CompletableFuture<DataRefresh>> threads = new ArrayList<>();
-            for (List<WhiteSourceComponent> partition : partitions) {
-                CompletableFuture<DataRefresh> thread = dataRefreshService.getAndUpdateDataByProjectAsync(partition, projectVitalMap, serverSettings);
-                threads.add(thread);
-            }
-            CompletableFuture.allOf(Iterables.toArray(threads, CompletableFuture.class)).join();
-            for (CompletableFuture<DataRefresh> thread : threads) {
-                cumulativeDataRefresh.combine(thread.get());
+            if (!CollectionUtils.isEmpty(remainingProjects)) {
+                LOG.info("WhitesourceCollectorTask: Refresh Data - Step 5 - Collecting all remaining projects that failed. To be collected =" + remainingProjects.size());
+                cumulativeDataRefresh.combine(dataRefreshService.getAndUpdateDataByProjectAsync(remainingProjects, projectVitalMap, serverSettings, whiteSourceSettings.getPipelineSettings()).get());
             }
+            totalTime += (System.currentTimeMillis() - startTime);
+            LOG.info("WhitesourceCollectorTask: Finished Collected All Steps. Total Projects Collected : " + cumulativeDataRefresh.getCollectedProjects().size() + ". Time taken =" + totalTime);
+            runCheckpoints.finish(checkpoint);
+            return count;
+        } catch (RuntimeException | ExecutionException e) {
+            // a failed refresh is not resumed, the next one starts over
+            runCheckpoints.abandon(checkpoint);
+            throw e;
         }
-        totalTime += (System.currentTimeMillis() - startTime);
-        LOG.info("WhitesourceCollectorTask: Finished Collected All Steps. Total Projects Collected : " + cumulativeDataRefresh.getCollectedProjects().size() + ". Time taken =" + totalTime);
-
-        return count;
     }
 
     /**
-     * Save Library Reference
-     * @param referenceMap referenceMap
+     * Gets the projects of products whose stored results are at least as recent as the project vitals, the product
+     * alerts would not return anything new for them
+     *
+     * @param projects        projects left to collect
+     * @param projectVitalMap project vital map
+     * @return projects of unchanged products
      */
-    private void saveLibraryReferenceData(Map<String, LibraryPolicyReference> referenceMap) {
-        Collection<LibraryPolicyReference> referenceList = referenceMap.values();
-        referenceList.forEach(r -> {
-            LibraryPolicyReference existing = libraryReferenceRepository.findByLibraryNameAndOrgName(r.getLibraryName(),r.getOrgName());
-            if (existing == null) {
-                libraryReferenceRepository.save(r);
-            } else {
-                List<WhiteSourceComponent> existingProjects = existing.getProjectReferences();
-                List<WhiteSourceComponent> newProjects = r.getProjectReferences();
-                List<WhiteSourceComponent> missing = newProjects.stream().filter(n-> !existingProjects.contains(n)).collect(Collectors.toList());
-                if (!CollectionUtils.isEmpty(missing)) {
-                    existingProjects.addAll(missing);
-                    existing.setProjectReferences(existingProjects);
-                    existing.setLastUpdated(System.currentTimeMillis());
-                    libraryReferenceRepository.save(existing);
-                }
-            }
-        });
+    private Set<WhiteSourceComponent> getUnchangedProductProjects(Set<WhiteSourceComponent> projects, Map<String, WhiteSourceProjectVital> projectVitalMap) {
+        long startTime = System.currentTimeMillis();
+        List<ObjectId> collectorItemIds = projects.stream().map(WhiteSourceComponent::getId).collect(Collectors.toList());
+        ProductWatermarks watermarks = new ProductWatermarks(projects, projectVitalMap, libraryPolicyRepository.findLatestEvaluationTimestamps(collectorItemIds));
+        Set<WhiteSourceComponent> unchangedProjects = watermarks.getUnchangedProjects(projects);
+        LOG.info("WhitesourceCollectorTask: Refresh Data - Step 4 - Skipping unchanged products. Products skipped =" + watermarks.getUnchangedProductCount()
+                + ", projects skipped =" + unchangedProjects.size() + ". Time taken =" + (System.currentTimeMillis() - startTime));
+        return unchangedProjects;
     }
 
     /**
@@ -415,7 +576,7 @@ public class WhiteSourceCollectorTask extends CollectorTask<WhiteSourceCollector
      * @throws ExecutionException   execution exception
      * @throws InterruptedException interrupted exception
      */
-    private DataRefresh updateData(Set<WhiteSourceComponent> enabledProjects, Set<WhiteSourceComponent> projectsToCollect,
+    private DataRefresh updateData(WhiteSourceProjectIndex enabledProjects, Set<WhiteSourceComponent> projectsToCollect,
                                    Map<String, WhiteSourceProjectVital> projectVitalMap,
                                    WhiteSourceServerSettings serverSettings) throws ExecutionException, InterruptedException {
 
@@ -435,16 +596,19 @@ public class WhiteSourceCollectorTask extends CollectorTask<WhiteSourceCollector
         if (CollectionUtils.isEmpty(productTokensToCollect)) {
             return dataRefresh;
         }
-        // Need to partition products
-        int partitionCount = productTokensToCollect.size() >= whiteSourceSettings.getThreadPoolSettings().getCorePoolSize() ? whiteSourceSettings.getThreadPoolSettings().getCorePoolSize() : 1;
-
-        Iterable<List<String>> partitions = Iterables.partition(productTokensToCollect, productTokensToCollect.size() / partitionCount);
+        // products are fetched on their own and saved by workers pulling from one bounded queue, so the wall time
+        // follows the slowest product instead of the slowest fixed chunk of products, and fetching and saving overlap.
+        // The most expensive products of the previous runs are started first, so the run does not end on one of them
+        PipelineSettings pipelineSettings = whiteSourceSettings.getPipelineSettings();
+        List<String> orderedProductTokens = productCosts.longestFirst(productTokensToCollect, Function.identity());
+        ProductWorkQueue queue = dataRefreshService.fetchProductAlerts(orderedProductTokens, enabledProjects, projectVitalMap, serverSettings, pipelineSettings);
+        int workerCount = Math.min(productTokensToCollect.size(), Math.max(1, pipelineSettings.getPersistConcurrency()));
         List<CompletableFuture<DataRefresh>> threads = new ArrayList<>();
-        for (List<String> partition : partitions) {
-            CompletableFuture<DataRefresh> thread = dataRefreshService.getAndUpdateDataByProductAsync(partition, enabledProjects, projectVitalMap, serverSettings);
-            threads.add(thread);
+        for (int i = 0; i < workerCount; i++) {
+            threads.add(dataRefreshService.saveProductAlertsAsync(queue, enabledProjects));
         }
         CompletableFuture.allOf(Iterables.toArray(threads, CompletableFuture.class)).join();
+        queue.logMetrics(workerCount);
 
         for (CompletableFuture<DataRefresh> thread : threads) {
             dataRefresh.combine(thread.get());
@@ -471,13 +635,14 @@ public class WhiteSourceCollectorTask extends CollectorTask<WhiteSourceCollector
 
 
     /**
-     * Get all enabled project for a collector
+     * Get all enabled project of an org for a collector. Every org refreshes its own projects only.
      *
      * @param collector Whitesource collector
+     * @param orgName   Org name
      * @return List of enabled whitesource project
      */
-    private Set<WhiteSourceComponent> getEnabledProjects(WhiteSourceCollector collector) {
-        return new HashSet<>(whiteSourceComponentRepository.findEnabledComponents(collector.getId()));
+    private Set<WhiteSourceComponent> getEnabledProjects(WhiteSourceCollector collector, String orgName) {
+        return new HashSet<>(whiteSourceComponentRepository.findEnabledComponents(collector.getId(), orgName));
     }
 
 
@@ -489,31 +654,46 @@ public class WhiteSourceCollectorTask extends CollectorTask<WhiteSourceCollector
      * @return List of project tokens
      */
     private Set<String> getAffectedProjectsFromChanges(Set<WhiteSourceChangeRequest> changes, String orgName) {
-        return changes.stream()
+        Set<String> libraryNames = changes.stream()
                 .filter(changeRequest -> Constants.LIBRARY_SCOPE.equalsIgnoreCase(changeRequest.getScope()))
                 .map(WhiteSourceChangeRequest::getScopeName)
-                .map(libraryName -> libraryReferenceRepository.findByLibraryNameAndOrgName(libraryName, orgName))
                 .filter(Objects::nonNull)
-                .map(LibraryPolicyReference::getProjectReferences)
-                .filter(components -> !CollectionUtils.isEmpty(components))
-                .flatMap(Collection::stream)
-                .map(WhiteSourceComponent::getProjectToken)
                 .collect(Collectors.toSet());
+        if (libraryNames.isEmpty()) {
+            return Collections.emptySet();
+        }
+        long startTime = System.currentTimeMillis();
+        Set<String> projectTokens;
+        if (!libraryIndex.isEmpty(orgName)) {
+            projectTokens = libraryIndex.getProjectTokens(orgName, libraryNames);
+        } else {
+            // nothing indexed for the org, not even from its library references, look them up anyway
+            projectTokens = customLibraryReferenceRepository.findByOrgNameAndLibraryNames(orgName, libraryNames).stream()
+                    .map(LibraryPolicyReference::getProjectReferences)
+                    .filter(components -> !CollectionUtils.isEmpty(components))
+                    .flatMap(Collection::stream)
+                    .map(WhiteSourceComponent::getProjectToken)
+                    .collect(Collectors.toSet());
+        }
+        LOG.info("WhitesourceCollectorTask: Refresh Data - Step 3 - Libraries in change log =" + libraryNames.size()
+                + ", affected projects =" + projectTokens.size() + ". Time taken =" + (System.currentTimeMillis() - startTime));
+        return projectTokens;
     }
 
 
     /**
-     * Check if any changes to a project (usually a create, update, delete)
-     * return true if project change.
+     * Gets the product names of project changes (usually a create, update, delete) in the change log.
+     * The set contains null when a project change has no product name.
      */
-
-    private static boolean checkForProjectChange(Set<WhiteSourceChangeRequest> changes) {
-//        return true;  // for testing
-
+    private static Set<String> getChangedProductNames(Set<WhiteSourceChangeRequest> changes) {
         if (CollectionUtils.isEmpty(changes)) {
-            return false;
+            return Collections.emptySet();
         }
-        return changes.stream().anyMatch(wcr -> !StringUtils.isEmpty(wcr.getProjectName()));
+        Set<String> productNames = new HashSet<>();
+        changes.stream()
+                .filter(wcr -> !StringUtils.isEmpty(wcr.getProjectName()))
+                .forEach(wcr -> productNames.add(StringUtils.isEmpty(wcr.getProductName()) ? null : wcr.getProductName()));
+        return productNames;
     }
 
     /**
@@ -0,0 +1,96 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.settings.HttpClientSettings;
+import com.capitalone.dashboard.settings.WhiteSourceServerSettings;
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.conn.routing.HttpRoute;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Connection limits of one of the WhiteSource api transports.
+ *
+ * The blocking and the non-blocking transport pool their own connections. The limit of a server (its maxConnections,
+ * else maxConnectionsPerServer, else the collector thread pool size) and maxConnectionsTotal cap the connections of
+ * both pools together: the non-blocking pool gets asyncConnectionShare of every limit and the blocking pool the rest.
+ * Each pool needs at least one connection, so a limit of 1 still opens one connection per pool.
+ */
+final class WhiteSourceConnectionLimits {
+    private final int defaultMaxPerServer;
+    private final Map<HttpRoute, Integer> maxPerServer;
+    private final int maxTotal;
+
+    private WhiteSourceConnectionLimits(int defaultMaxPerServer, Map<HttpRoute, Integer> maxPerServer, int maxTotal) {
+        this.defaultMaxPerServer = defaultMaxPerServer;
+        this.maxPerServer = Collections.unmodifiableMap(maxPerServer);
+        this.maxTotal = maxTotal;
+    }
+
+    /**
+     * @param settings whitesource settings
+     * @return limits of the blocking transport
+     */
+    static WhiteSourceConnectionLimits blocking(WhiteSourceSettings settings) {
+        return of(settings, false);
+    }
+
+    /**
+     * @param settings whitesource settings
+     * @return limits of the non-blocking transport
+     */
+    static WhiteSourceConnectionLimits async(WhiteSourceSettings settings) {
+        return of(settings, true);
+    }
+
+    int getDefaultMaxPerServer() {
+        return defaultMaxPerServer;
+    }
+
+    Map<HttpRoute, Integer> getMaxPerServer() {
+        return maxPerServer;
+    }
+
+    int getMaxTotal() {
+        return maxTotal;
+    }
+
+    private static WhiteSourceConnectionLimits of(WhiteSourceSettings settings, boolean async) {
+        HttpClientSettings httpClientSettings = settings.getHttpClientSettings();
+        double share = httpClientSettings.getAsyncConnectionShare();
+        int defaultMaxPerServer = httpClientSettings.getMaxConnectionsPerServer() > 0
+                ? httpClientSettings.getMaxConnectionsPerServer()
+                : Math.max(1, settings.getThreadPoolSettings().getMaxPoolSize());
+
+        Map<HttpRoute, Integer> serverLimits = new HashMap<>();
+        for (WhiteSourceServerSettings serverSettings : settings.getWhiteSourceServerSettings()) {
+            if (StringUtils.isEmpty(serverSettings.getInstanceUrl())) continue;
+            int max = serverSettings.getMaxConnections() > 0 ? serverSettings.getMaxConnections() : defaultMaxPerServer;
+            // several orgs can live on the same server, they share its connections
+            serverLimits.merge(WhiteSourceHttpTransport.getRoute(serverSettings.getInstanceUrl()), max, Math::max);
+        }
+        int maxTotal = httpClientSettings.getMaxConnectionsTotal() > 0
+                ? httpClientSettings.getMaxConnectionsTotal()
+                : Math.max(defaultMaxPerServer, serverLimits.values().stream().mapToInt(Integer::intValue).sum());
+
+        Map<HttpRoute, Integer> maxPerServer = new HashMap<>();
+        serverLimits.forEach((route, max) -> maxPerServer.put(route, split(max, share, async)));
+        return new WhiteSourceConnectionLimits(split(defaultMaxPerServer, share, async), maxPerServer, split(maxTotal, share, async));
+    }
+
+    /**
+     * The part of a limit one of the pools gets
+     *
+     * @param limit connections of both pools together
+     * @param share part of the non-blocking pool, 0 to 1
+     * @param async true for the non-blocking pool
+     * @return connections of the pool, at least 1
+     */
+    static int split(int limit, double share, boolean async) {
+        if (limit < 2) return 1;
+        int asyncConnections = (int) Math.min(limit - 1, Math.max(1, Math.round(limit * share)));
+        return async ? asyncConnections : limit - asyncConnections;
+    }
+}
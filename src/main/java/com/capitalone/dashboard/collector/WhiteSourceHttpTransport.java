@@ -0,0 +1,308 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.settings.HttpClientSettings;
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+import com.capitalone.dashboard.utils.Constants;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.DeflateInputStream;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.util.EntityUtils;
+import org.json.simple.JSONObject;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Pooled keep-alive http transport for the WhiteSource api.
+ *
+ * Connections are pooled per WhiteSource server (instanceUrl) so that product and project calls reuse warm TLS
+ * connections instead of handshaking on every request. Each server gets its own connection limit, shared with the
+ * non-blocking transport, see {@link WhiteSourceConnectionLimits}, and pool saturation is tracked per server.
+ *
+ * Responses are requested gzip or deflate encoded and decompressed while the caller reads them. Wire and
+ * uncompressed byte counts are tracked per request type.
+ */
+@Component
+public class WhiteSourceHttpTransport implements DisposableBean {
+    private static final Log LOG = LogFactory.getLog(WhiteSourceHttpTransport.class);
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final WhiteSourcePoolMetrics poolMetrics;
+    private final Map<Constants.RequestType, TransferMetrics> transferMetrics = new EnumMap<>(Constants.RequestType.class);
+    private final boolean compression;
+
+    @Autowired
+    public WhiteSourceHttpTransport(WhiteSourceSettings settings) {
+        HttpClientSettings httpClientSettings = settings.getHttpClientSettings();
+        compression = httpClientSettings.isCompression();
+        for (Constants.RequestType requestType : Constants.RequestType.values()) {
+            transferMetrics.put(requestType, new TransferMetrics());
+        }
+        WhiteSourceConnectionLimits limits = WhiteSourceConnectionLimits.blocking(settings);
+
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(limits.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(limits.getDefaultMaxPerServer());
+        connectionManager.setValidateAfterInactivity(httpClientSettings.getValidateAfterInactivity());
+        limits.getMaxPerServer().forEach(connectionManager::setMaxPerRoute);
+        poolMetrics = new WhiteSourcePoolMetrics("WhiteSourceHttpTransport", connectionManager);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(settings.getConnectTimeout())
+                .setSocketTimeout(settings.getReadTimeout())
+                .setConnectionRequestTimeout(httpClientSettings.getConnectionRequestTimeout())
+                .build();
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy(httpClientSettings.getKeepAlive()))
+                // content encoding is handled here so compressed and uncompressed bytes can be counted
+                .disableContentCompression()
+                .evictExpiredConnections()
+                .evictIdleConnections(httpClientSettings.getKeepAlive(), TimeUnit.MILLISECONDS)
+                .build();
+        LOG.info("WhiteSourceHttpTransport: connection pool maxTotal=" + limits.getMaxTotal() + ", defaultMaxPerServer=" + limits.getDefaultMaxPerServer()
+                + ", servers=" + limits.getMaxPerServer().size());
+    }
+
+    /**
+     * Handles the body of a successful response. The reader is only valid for the duration of the call.
+     */
+    @FunctionalInterface
+    public interface ResponseHandler<T> {
+        T handle(Reader reader) throws IOException;
+    }
+
+    /**
+     * Posts a json request and hands the response body to the handler while the connection is leased.
+     * The connection goes back to the pool once the handler returns.
+     *
+     * @param requestType request type
+     * @param url         api url
+     * @param request     json request
+     * @param handler     response body handler
+     * @return handler result
+     * @throws IOException             when the handler fails to read the response
+     * @throws WhiteSourceApiException when the call fails or the server answers with a non 2xx status
+     */
+    public <T> T post(Constants.RequestType requestType, String url, JSONObject request, ResponseHandler<T> handler) throws IOException {
+        HttpRoute route = getRoute(url);
+        WhiteSourcePoolMetrics.Server metrics = poolMetrics.request(route);
+
+        HttpPost post = new HttpPost(url);
+        post.setEntity(new StringEntity(request.toJSONString(), ContentType.APPLICATION_JSON));
+        if (compression) {
+            post.setHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+        }
+        CloseableHttpResponse response;
+        try {
+            response = httpClient.execute(post);
+        } catch (ConnectionPoolTimeoutException e) {
+            metrics.leaseTimeout();
+            throw new WhiteSourceApiException(requestType, "Timed out waiting for a pooled connection to " + route.getTargetHost(), e);
+        } catch (IOException e) {
+            throw new WhiteSourceApiException(requestType, "Exception occurred while calling " + requestType + " on " + route.getTargetHost(), e);
+        }
+        metrics.leased(1);
+
+        try {
+            checkStatus(requestType, response);
+            return read(requestType, response.getEntity(), handler);
+        } finally {
+            response.close();
+            metrics.leased(-1);
+        }
+    }
+
+    /**
+     * Decodes a response body and hands it to the handler, counting wire and uncompressed bytes
+     *
+     * @param requestType request type
+     * @param entity      response entity, may be null
+     * @param handler     response body handler
+     * @return handler result
+     * @throws IOException when the handler fails to read the response
+     */
+    <T> T read(Constants.RequestType requestType, HttpEntity entity, ResponseHandler<T> handler) throws IOException {
+        if (entity == null) {
+            return handler.handle(new StringReader(""));
+        }
+        Charset charset = ContentType.getOrDefault(entity).getCharset();
+        CountingInputStream wireStream = new CountingInputStream(entity.getContent());
+        CountingInputStream bodyStream = null;
+        boolean compressed = false;
+        try {
+            InputStream decoded = decode(requestType, wireStream, entity);
+            compressed = decoded != wireStream;
+            bodyStream = new CountingInputStream(decoded);
+            T result = handler.handle(new InputStreamReader(bodyStream, Objects.isNull(charset) ? StandardCharsets.UTF_8 : charset));
+            // read what is left so the connection can be reused and the byte counts are complete
+            IOUtils.consume(bodyStream);
+            IOUtils.consume(wireStream);
+            return result;
+        } finally {
+            transferMetrics.get(requestType).record(wireStream.getByteCount(), bodyStream == null ? 0 : bodyStream.getByteCount(), compressed);
+        }
+    }
+
+    // Fails non 2xx responses, discarding their body
+    static void checkStatus(Constants.RequestType requestType, HttpResponse response) {
+        WhiteSourceApiException statusException = getStatusException(requestType, response);
+        if (statusException != null) {
+            EntityUtils.consumeQuietly(response.getEntity());
+            throw statusException;
+        }
+    }
+
+    // The failure of a non 2xx response, null for a 2xx response
+    static WhiteSourceApiException getStatusException(Constants.RequestType requestType, HttpResponse response) {
+        int statusCode = response.getStatusLine().getStatusCode();
+        if (statusCode < 200 || statusCode >= 300) {
+            return new WhiteSourceApiException(requestType, statusCode, requestType + " failed with status " + response.getStatusLine());
+        }
+        return null;
+    }
+
+    /**
+     * Logs connection pool usage per server and transfer sizes per request type, then resets the per run counters
+     */
+    public void logMetrics() {
+        poolMetrics.log(LOG);
+        transferMetrics.forEach((requestType, metrics) -> {
+            long responses = metrics.responses.sumThenReset();
+            if (responses == 0) return;
+            long wireBytes = metrics.wireBytes.sumThenReset();
+            long uncompressedBytes = metrics.uncompressedBytes.sumThenReset();
+            LOG.info(String.format("WhiteSourceHttpTransport: requestType=%s, responses=%d, compressedResponses=%d, wireBytes=%d, uncompressedBytes=%d, ratio=%.1f",
+                    requestType, responses, metrics.compressedResponses.sumThenReset(), wireBytes, uncompressedBytes,
+                    wireBytes == 0 ? 1.0 : (double) uncompressedBytes / wireBytes));
+        });
+    }
+
+    /**
+     * Bytes received on the wire for a request type since the last {@link #logMetrics()}
+     *
+     * @param requestType request type
+     * @return compressed byte count
+     */
+    public long getWireBytes(Constants.RequestType requestType) {
+        return transferMetrics.get(requestType).wireBytes.sum();
+    }
+
+    /**
+     * Bytes handed to callers after decompression for a request type since the last {@link #logMetrics()}
+     *
+     * @param requestType request type
+     * @return uncompressed byte count
+     */
+    public long getUncompressedBytes(Constants.RequestType requestType) {
+        return transferMetrics.get(requestType).uncompressedBytes.sum();
+    }
+
+    /**
+     * Connection pool stats for a server
+     *
+     * @param instanceUrl whitesource server url
+     * @return pool stats
+     */
+    public PoolStats getPoolStats(String instanceUrl) {
+        return connectionManager.getStats(getRoute(instanceUrl));
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        httpClient.close();
+    }
+
+    // Builds the pool route for a url the same way the client's route planner does, so per server limits apply
+    static HttpRoute getRoute(String url) {
+        URI uri = URI.create(url);
+        String scheme = StringUtils.defaultIfEmpty(uri.getScheme(), "http");
+        boolean secure = "https".equalsIgnoreCase(scheme);
+        int port = uri.getPort() > 0 ? uri.getPort() : (secure ? 443 : 80);
+        return new HttpRoute(new HttpHost(uri.getHost(), port, scheme), null, secure);
+    }
+
+    // Wraps the response stream in a decompressing stream matching its content encoding
+    static InputStream decode(Constants.RequestType requestType, InputStream in, HttpEntity entity) throws IOException {
+        if (!isEncoded(entity)) return in;
+        String encoding = entity.getContentEncoding().getValue().trim().toLowerCase(Locale.ROOT);
+        switch (encoding) {
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(in);
+            case "deflate":
+                // handles both zlib wrapped and raw deflate streams
+                return new DeflateInputStream(in);
+            case "identity":
+                return in;
+            default:
+                throw new WhiteSourceApiException(requestType, "Unsupported response content encoding " + encoding, null);
+        }
+    }
+
+    private static boolean isEncoded(HttpEntity entity) {
+        Header encoding = entity.getContentEncoding();
+        return encoding != null && StringUtils.isNotBlank(encoding.getValue()) && entity.getContentLength() != 0;
+    }
+
+    // Honors the server keep-alive header and falls back to the configured keep alive otherwise
+    static ConnectionKeepAliveStrategy keepAliveStrategy(long keepAlive) {
+        return (response, context) -> {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return duration > 0 ? duration : keepAlive;
+        };
+    }
+
+    private static class TransferMetrics {
+        private final LongAdder responses = new LongAdder();
+        private final LongAdder compressedResponses = new LongAdder();
+        private final LongAdder wireBytes = new LongAdder();
+        private final LongAdder uncompressedBytes = new LongAdder();
+
+        void record(long wire, long uncompressed, boolean compressed) {
+            responses.increment();
+            if (compressed) compressedResponses.increment();
+            wireBytes.add(wire);
+            uncompressedBytes.add(uncompressed);
+        }
+    }
+}
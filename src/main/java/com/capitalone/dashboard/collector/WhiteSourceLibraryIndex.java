@@ -0,0 +1,188 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.LibraryPolicyReference;
+import com.capitalone.dashboard.model.WhiteSourceComponent;
+import com.capitalone.dashboard.model.WhiteSourceProjectLibraries;
+import com.capitalone.dashboard.repository.WhiteSourceCustomLibraryReferenceRepository;
+import com.capitalone.dashboard.repository.WhiteSourceProjectLibrariesRepository;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In memory reverse index of the projects using a library, per org, to resolve the projects affected by library
+ * changes in the change log without reading library references from Mongo.
+ *
+ * The index is updated with the libraries of every collected library policy result, replacing the libraries a
+ * project had before. The scan data writer stores the libraries of the projects of every batch it writes, one document
+ * per project whose libraries changed. The index of an org is rebuilt from those documents the first time the org
+ * is refreshed after a restart. An org without stored documents, as after an upgrade, is seeded from its library
+ * references and the seeded index is stored right away, so the index covers the projects collected before as well.
+ */
+@Component
+public class WhiteSourceLibraryIndex {
+    private static final Log LOG = LogFactory.getLog(WhiteSourceLibraryIndex.class);
+
+    private final WhiteSourceProjectLibrariesRepository repository;
+    private final WhiteSourceCustomLibraryReferenceRepository libraryReferenceRepository;
+    private final Map<String, OrgIndex> orgs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public WhiteSourceLibraryIndex(WhiteSourceProjectLibrariesRepository repository,
+                                   WhiteSourceCustomLibraryReferenceRepository libraryReferenceRepository) {
+        this.repository = repository;
+        this.libraryReferenceRepository = libraryReferenceRepository;
+    }
+
+    /**
+     * Loads the stored index of an org, unless it is already in memory. Without a stored index the org is seeded from
+     * its library references.
+     *
+     * @param orgName org name
+     */
+    public void load(String orgName) {
+        if (orgName == null || orgs.containsKey(orgName)) return;
+        OrgIndex index = new OrgIndex();
+        List<WhiteSourceProjectLibraries> stored = repository.findByOrgName(orgName);
+        if (stored.isEmpty()) {
+            seed(orgName, index);
+            return;
+        }
+        stored.stream()
+                .filter(projectLibraries -> projectLibraries.getProjectToken() != null && projectLibraries.getLibraryNames() != null)
+                .forEach(projectLibraries -> index.put(projectLibraries.getProjectToken(), projectLibraries.getLibraryNames()));
+        index.clearUpdated();
+        if (orgs.putIfAbsent(orgName, index) == null) {
+            LOG.info("WhiteSourceLibraryIndex: loaded libraries of " + stored.size() + " projects of org " + orgName);
+        }
+    }
+
+    // Builds the index of an org from its library references and stores it, before any project of the org is updated
+    private void seed(String orgName, OrgIndex index) {
+        Map<String, Set<String>> projectLibraries = new HashMap<>();
+        for (LibraryPolicyReference reference : libraryReferenceRepository.findByOrgName(orgName)) {
+            if (reference.getLibraryName() == null || reference.getProjectReferences() == null) continue;
+            reference.getProjectReferences().stream()
+                    .map(WhiteSourceComponent::getProjectToken)
+                    .filter(Objects::nonNull)
+                    .forEach(projectToken -> projectLibraries.computeIfAbsent(projectToken, k -> new HashSet<>()).add(reference.getLibraryName()));
+        }
+        projectLibraries.forEach(index::put);
+        if (orgs.putIfAbsent(orgName, index) != null) return;
+        List<WhiteSourceProjectLibraries> toSave = index.takeUpdated(orgName, projectLibraries.keySet());
+        if (!toSave.isEmpty()) {
+            repository.upsert(orgName, toSave);
+        }
+        LOG.info("WhiteSourceLibraryIndex: seeded libraries of " + toSave.size() + " projects of org " + orgName + " from library references");
+    }
+
+    /**
+     * Sets the libraries of a collected project
+     *
+     * @param orgName      org name
+     * @param projectToken project token
+     * @param libraryNames library names of the project's library policy result
+     * @return true when the libraries of the project changed
+     */
+    public boolean update(String orgName, String projectToken, Collection<String> libraryNames) {
+        if (orgName == null || projectToken == null) return false;
+        return orgs.computeIfAbsent(orgName, k -> new OrgIndex()).put(projectToken, libraryNames);
+    }
+
+    /**
+     * @param orgName org name
+     * @return true when no project of the org is indexed yet
+     */
+    public boolean isEmpty(String orgName) {
+        OrgIndex index = orgName == null ? null : orgs.get(orgName);
+        return index == null || index.isEmpty();
+    }
+
+    /**
+     * Gets the projects using any of the libraries
+     *
+     * @param orgName      org name
+     * @param libraryNames library names
+     * @return project tokens
+     */
+    public Set<String> getProjectTokens(String orgName, Collection<String> libraryNames) {
+        OrgIndex index = orgName == null ? null : orgs.get(orgName);
+        return index == null ? Collections.emptySet() : index.getProjectTokens(libraryNames);
+    }
+
+    /**
+     * Saves the libraries of projects of an org, those that changed since the last load or save
+     *
+     * @param orgName       org name
+     * @param projectTokens project tokens
+     */
+    public void save(String orgName, Collection<String> projectTokens) {
+        OrgIndex index = orgName == null ? null : orgs.get(orgName);
+        if (index == null) return;
+        List<WhiteSourceProjectLibraries> toSave = index.takeUpdated(orgName, projectTokens);
+        if (toSave.isEmpty()) return;
+        repository.upsert(orgName, toSave);
+        LOG.debug("WhiteSourceLibraryIndex: saved libraries of " + toSave.size() + " projects of org " + orgName);
+    }
+
+    private static final class OrgIndex {
+        // library name and the projects using it
+        private final Map<String, Set<String>> libraryProjects = new HashMap<>();
+        private final Map<String, Set<String>> projectLibraries = new HashMap<>();
+        private Set<String> updated = new HashSet<>();
+
+        synchronized boolean put(String projectToken, Collection<String> libraryNames) {
+            Set<String> libraries = new HashSet<>(libraryNames);
+            Set<String> previous = projectLibraries.getOrDefault(projectToken, Collections.emptySet());
+            if (libraries.equals(previous) && projectLibraries.containsKey(projectToken)) return false;
+            previous.stream().filter(libraryName -> !libraries.contains(libraryName)).forEach(libraryName -> {
+                Set<String> projects = libraryProjects.get(libraryName);
+                if (projects != null && projects.remove(projectToken) && projects.isEmpty()) {
+                    libraryProjects.remove(libraryName);
+                }
+            });
+            libraries.forEach(libraryName -> libraryProjects.computeIfAbsent(libraryName, k -> new HashSet<>()).add(projectToken));
+            projectLibraries.put(projectToken, libraries);
+            updated.add(projectToken);
+            return true;
+        }
+
+        synchronized boolean isEmpty() {
+            return projectLibraries.isEmpty();
+        }
+
+        synchronized Set<String> getProjectTokens(Collection<String> libraryNames) {
+            Set<String> projectTokens = new HashSet<>();
+            libraryNames.forEach(libraryName -> projectTokens.addAll(libraryProjects.getOrDefault(libraryName, Collections.emptySet())));
+            return projectTokens;
+        }
+
+        synchronized List<WhiteSourceProjectLibraries> takeUpdated(String orgName, Collection<String> projectTokens) {
+            long lastUpdated = System.currentTimeMillis();
+            List<WhiteSourceProjectLibraries> projects = new ArrayList<>();
+            projectTokens.stream().filter(updated::remove).forEach(projectToken -> {
+                WhiteSourceProjectLibraries libraries = new WhiteSourceProjectLibraries(orgName, projectToken,
+                        new ArrayList<>(projectLibraries.getOrDefault(projectToken, Collections.emptySet())));
+                libraries.setLastUpdated(lastUpdated);
+                projects.add(libraries);
+            });
+            return projects;
+        }
+
+        synchronized void clearUpdated() {
+            updated = new HashSet<>();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.capitalone.dashboard.collector;
+
+import org.apache.commons.logging.Log;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connection pool usage per WhiteSource server of one of the api transports, logged and reset at the end of a run
+ */
+final class WhiteSourcePoolMetrics {
+    private final String name;
+    private final ConnPoolControl<HttpRoute> pool;
+    private final Map<HttpRoute, Server> servers = new ConcurrentHashMap<>();
+
+    /**
+     * @param name transport name, logged with the metrics
+     * @param pool connection pool of the transport
+     */
+    WhiteSourcePoolMetrics(String name, ConnPoolControl<HttpRoute> pool) {
+        this.name = name;
+        this.pool = pool;
+    }
+
+    /**
+     * Counts a request to a server, and whether it has to wait for a connection
+     *
+     * @param route server route
+     * @return metrics of the server
+     */
+    Server request(HttpRoute route) {
+        Server server = servers.computeIfAbsent(route, r -> new Server());
+        server.requests.increment();
+        PoolStats stats = pool.getStats(route);
+        if (stats.getAvailable() == 0 && stats.getLeased() >= stats.getMax()) {
+            // no idle connection and no room for a new one, this request waits for a connection
+            server.saturated.increment();
+        }
+        return server;
+    }
+
+    /**
+     * Logs connection pool usage per server, then resets the per run counters
+     *
+     * @param log log of the transport
+     */
+    void log(Log log) {
+        servers.forEach((route, server) -> {
+            PoolStats stats = pool.getStats(route);
+            log.info(String.format("%s: server=%s, maxConnections=%d, requests=%d, saturatedRequests=%d, leaseTimeouts=%d, peakLeased=%d, leased=%d, available=%d, pending=%d",
+                    name, route.getTargetHost(), stats.getMax(), server.requests.sumThenReset(), server.saturated.sumThenReset(),
+                    server.leaseTimeouts.sumThenReset(), server.peakLeased.getAndSet(0), stats.getLeased(), stats.getAvailable(), stats.getPending()));
+        });
+    }
+
+    static final class Server {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder saturated = new LongAdder();
+        private final LongAdder leaseTimeouts = new LongAdder();
+        private final AtomicInteger leased = new AtomicInteger();
+        private final AtomicInteger peakLeased = new AtomicInteger();
+
+        void leaseTimeout() {
+            leaseTimeouts.increment();
+        }
+
+        // a connection was leased (1) or released (-1)
+        void leased(int delta) {
+            peakLeased.accumulateAndGet(leased.addAndGet(delta), Math::max);
+        }
+    }
+}
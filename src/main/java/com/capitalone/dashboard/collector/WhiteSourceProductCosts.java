@@ -0,0 +1,104 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.WhiteSourceProductCost;
+import com.capitalone.dashboard.repository.WhiteSourceProductCostRepository;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Historical collection cost per product, used to start the most expensive products first (longest processing time
+ * first), so the run does not end waiting on a big product that happened to be started last.
+ *
+ * Costs are loaded from Mongo at the start of a run, recorded by the client after every successful product alert
+ * collection and saved back at the end of the run. Products are ordered by response size in characters, then alert
+ * count, then latency. Latency includes the wait for the rate limiter, so it only breaks ties. Products without a
+ * recorded cost go first, they may be big and are measured on this run.
+ */
+@Component
+public class WhiteSourceProductCosts {
+    private static final Log LOG = LogFactory.getLog(WhiteSourceProductCosts.class);
+
+    private static final Comparator<WhiteSourceProductCost> LONGEST_FIRST = Comparator
+            .comparingLong(WhiteSourceProductCost::getResponseChars)
+            .thenComparingInt(WhiteSourceProductCost::getAlertCount)
+            .thenComparingLong(WhiteSourceProductCost::getLatency)
+            .reversed();
+
+    private final WhiteSourceProductCostRepository repository;
+    private final Map<String, WhiteSourceProductCost> costs = new ConcurrentHashMap<>();
+    private final Map<String, WhiteSourceProductCost> recorded = new ConcurrentHashMap<>();
+
+    @Autowired
+    public WhiteSourceProductCosts(WhiteSourceProductCostRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Loads the stored costs of a collector, replacing the ones in memory
+     *
+     * @param collectorId collector id
+     */
+    public void load(ObjectId collectorId) {
+        costs.clear();
+        recorded.clear();
+        repository.findByCollectorId(collectorId).stream()
+                .filter(cost -> cost.getProductToken() != null)
+                .forEach(cost -> costs.put(cost.getProductToken(), cost));
+        LOG.info("WhiteSourceProductCosts: loaded costs of " + costs.size() + " products");
+    }
+
+    /**
+     * Records the cost of a successful product alert collection
+     *
+     * @param cost product cost
+     */
+    public void record(WhiteSourceProductCost cost) {
+        if (cost == null || cost.getProductToken() == null) return;
+        cost.setLastUpdated(System.currentTimeMillis());
+        costs.put(cost.getProductToken(), cost);
+        recorded.put(cost.getProductToken(), cost);
+    }
+
+    public WhiteSourceProductCost get(String productToken) {
+        return productToken == null ? null : costs.get(productToken);
+    }
+
+    /**
+     * Saves the costs recorded since the last load or save
+     *
+     * @param collectorId collector id
+     */
+    public void save(ObjectId collectorId) {
+        if (recorded.isEmpty()) return;
+        List<WhiteSourceProductCost> toSave = new ArrayList<>(recorded.values());
+        toSave.forEach(cost -> cost.setCollectorId(collectorId));
+        repository.upsert(collectorId, toSave);
+        toSave.forEach(cost -> recorded.remove(cost.getProductToken(), cost));
+        LOG.info("WhiteSourceProductCosts: saved costs of " + toSave.size() + " products");
+    }
+
+    /**
+     * Orders products longest first
+     *
+     * @param products     products
+     * @param productToken product token of a product
+     * @return new list, products without a recorded cost first
+     */
+    public <T> List<T> longestFirst(Collection<T> products, Function<T, String> productToken) {
+        List<T> ordered = new ArrayList<>(products);
+        ordered.sort(Comparator.comparing((T product) -> get(productToken.apply(product)),
+                Comparator.nullsFirst(LONGEST_FIRST)));
+        return ordered;
+    }
+}
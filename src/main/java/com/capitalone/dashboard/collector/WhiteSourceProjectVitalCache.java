@@ -0,0 +1,135 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.WhiteSourceProjectVital;
+import com.capitalone.dashboard.settings.WhiteSourceServerSettings;
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Short lived cache of single project vitals, used when a project is missing from the org level project vitals.
+ *
+ * Lookups are single flight: the first caller for a project loads the vital, concurrent callers for the same project
+ * wait for that load instead of calling the api again. Loaded vitals, including projects without a vital, are kept
+ * for projectVitalCacheTtl and dropped at the end of every collector run. Failed loads are not cached.
+ */
+@Component
+public class WhiteSourceProjectVitalCache {
+    private static final Log LOG = LogFactory.getLog(WhiteSourceProjectVitalCache.class);
+
+    private final WhiteSourceSettings settings;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+
+    @Autowired
+    public WhiteSourceProjectVitalCache(WhiteSourceSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Loads a project vital
+     */
+    @FunctionalInterface
+    public interface Loader {
+        WhiteSourceProjectVital load() throws Exception;
+    }
+
+    /**
+     * Gets the project vital, loading it once for all concurrent callers when it is not cached
+     *
+     * @param serverSettings whitesource server settings
+     * @param projectToken   project token
+     * @param loader         loads the vital, may return null when the project has none
+     * @return project vital or null
+     * @throws ExecutionException   when the load failed
+     * @throws InterruptedException when interrupted while waiting for another caller's load
+     */
+    public WhiteSourceProjectVital get(WhiteSourceServerSettings serverSettings, String projectToken, Loader loader) throws ExecutionException, InterruptedException {
+        return getAsync(serverSettings, projectToken, () -> {
+            try {
+                return CompletableFuture.completedFuture(loader.load());
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }).get();
+    }
+
+    /**
+     * Gets the project vital without blocking, starting one load for all concurrent callers when it is not cached
+     *
+     * @param serverSettings whitesource server settings
+     * @param projectToken   project token
+     * @param loader         starts loading the vital, the future may complete with null when the project has none
+     * @return future of the project vital or null, failed when the load failed
+     */
+    public CompletableFuture<WhiteSourceProjectVital> getAsync(WhiteSourceServerSettings serverSettings, String projectToken,
+                                                               Supplier<CompletableFuture<WhiteSourceProjectVital>> loader) {
+        String key = serverSettings.getInstanceUrl() + "|" + projectToken;
+        long now = System.currentTimeMillis();
+        long ttl = settings.getProjectVitalCacheTtl();
+        Entry created = new Entry();
+        Entry entry = entries.compute(key, (k, e) -> e == null || e.isExpired(now, ttl) ? created : e);
+        if (entry != created) {
+            (entry.future.isDone() ? hits : coalesced).increment();
+            return entry.future.thenApply(v -> v.orElse(null));
+        }
+
+        loads.increment();
+        CompletableFuture<WhiteSourceProjectVital> load;
+        try {
+            load = loader.get();
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+        load.whenComplete((projectVital, e) -> {
+            if (e != null) {
+                // let the next caller try again
+                entries.remove(key, entry);
+                entry.future.completeExceptionally(e);
+            } else {
+                entry.loadedAt = System.currentTimeMillis();
+                entry.future.complete(Optional.ofNullable(projectVital));
+            }
+        });
+        return entry.future.thenApply(v -> v.orElse(null));
+    }
+
+    /**
+     * Logs hits, coalesced lookups and loads, then drops all cached vitals so the next run starts fresh
+     */
+    public void logMetrics() {
+        long loadCount = loads.sumThenReset();
+        long hitCount = hits.sumThenReset();
+        long coalescedCount = coalesced.sumThenReset();
+        if (loadCount > 0) {
+            LOG.info(String.format("WhiteSourceProjectVitalCache: loads=%d, hits=%d, coalesced=%d", loadCount, hitCount, coalescedCount));
+        }
+        entries.clear();
+    }
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<Optional<WhiteSourceProjectVital>> future = new CompletableFuture<>();
+        private volatile long loadedAt;
+
+        // in flight loads never expire
+        boolean isExpired(long now, long ttl) {
+            return future.isDone() && now - loadedAt > ttl;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.settings.WhiteSourceServerSettings;
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket rate limiter shared by all collector threads.
+ *
+ * Every WhiteSource server and org (instanceUrl + orgToken) gets its own bucket holding requestRateLimit tokens,
+ * refilled evenly over requestRateLimitTimeWindow. Requests reserve a token and wait out any debt, so bursts are
+ * smoothed to the configured rate. When the server answers with a throttling status the rate of that bucket is
+ * halved, and it climbs back to the configured rate by small steps on every successful call.
+ *
+ * Rate limiting is off when requestRateLimit or requestRateLimitTimeWindow is not set.
+ */
+@Component
+public class WhiteSourceRateLimiter {
+    private static final Log LOG = LogFactory.getLog(WhiteSourceRateLimiter.class);
+    private static final int SERVICE_UNAVAILABLE = 503;
+    // never slow down below 1/16th of the configured rate
+    private static final double MIN_RATE_FRACTION = 1.0 / 16;
+    // share of the configured rate recovered per successful call
+    private static final double RECOVERY_FRACTION = 0.05;
+
+    private final WhiteSourceSettings settings;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public WhiteSourceRateLimiter(WhiteSourceSettings settings) {
+        this.settings = settings;
+    }
+
+    public boolean isEnabled() {
+        return settings.getRequestRateLimit() > 0 && settings.getRequestRateLimitTimeWindow() > 0;
+    }
+
+    /**
+     * Blocks until a request to the server is allowed
+     *
+     * @param serverSettings whitesource server settings
+     * @throws InterruptedIOException when interrupted while waiting
+     */
+    public void acquire(WhiteSourceServerSettings serverSettings) throws InterruptedIOException {
+        long waitNanos = reserve(serverSettings);
+        if (waitNanos <= 0) return;
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the WhiteSource request rate limit");
+        }
+    }
+
+    /**
+     * Waits for the server's rate limit without holding a thread
+     *
+     * @param serverSettings whitesource server settings
+     * @return future completed when a request to the server is allowed
+     */
+    public CompletableFuture<Void> acquireAsync(WhiteSourceServerSettings serverSettings) {
+        long waitNanos = reserve(serverSettings);
+        if (waitNanos <= 0) return CompletableFuture.completedFuture(null);
+        return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Reserves a request slot without blocking
+     *
+     * @param serverSettings whitesource server settings
+     * @return nanoseconds the caller has to wait before sending the request
+     */
+    public long reserve(WhiteSourceServerSettings serverSettings) {
+        if (!isEnabled()) return 0;
+        return getBucket(serverSettings).reserve(System.nanoTime());
+    }
+
+    /**
+     * Lets the rate of a throttled server recover after a successful call
+     *
+     * @param serverSettings whitesource server settings
+     */
+    public void onSuccess(WhiteSourceServerSettings serverSettings) {
+        if (!isEnabled()) return;
+        getBucket(serverSettings).recover();
+    }
+
+    /**
+     * Slows the server down after a throttling response
+     *
+     * @param serverSettings whitesource server settings
+     */
+    public void onThrottled(WhiteSourceServerSettings serverSettings) {
+        if (!isEnabled()) return;
+        TokenBucket bucket = getBucket(serverSettings);
+        bucket.throttle(System.nanoTime());
+        LOG.warn(String.format("WhiteSourceRateLimiter: throttled by server=%s, slowing down to %.2f requests/sec",
+                serverSettings.getInstanceUrl(), bucket.getRatePerSecond()));
+    }
+
+    public static boolean isThrottled(WhiteSourceApiException e) {
+        return e.getStatusCode() == WhiteSourceApiException.TOO_MANY_REQUESTS || e.getStatusCode() == SERVICE_UNAVAILABLE;
+    }
+
+    /**
+     * Logs waits and throttles per server and org, then resets the per run counters
+     */
+    public void logMetrics() {
+        buckets.forEach((key, bucket) -> LOG.info(String.format("WhiteSourceRateLimiter: server=%s, ratePerSecond=%.2f, delayedRequests=%d, totalDelayMillis=%d, throttled=%d",
+                key, bucket.getRatePerSecond(), bucket.delayed.sumThenReset(),
+                TimeUnit.NANOSECONDS.toMillis(bucket.delayNanos.sumThenReset()), bucket.throttled.sumThenReset())));
+    }
+
+    private TokenBucket getBucket(WhiteSourceServerSettings serverSettings) {
+        // org token is only a key here, it is never logged
+        return buckets.computeIfAbsent(serverSettings.getInstanceUrl() + "|" + serverSettings.getOrgToken(),
+                k -> new TokenBucket(settings.getRequestRateLimit(), TimeUnit.MILLISECONDS.toNanos(settings.getRequestRateLimitTimeWindow())));
+    }
+
+    /**
+     * Token bucket where a reservation may take the balance negative. The debt is the time the caller waits,
+     * which keeps waiting callers spaced at the current rate.
+     */
+    static final class TokenBucket {
+        private final double capacity;
+        private final double maxRatePerNano;
+        private double ratePerNano;
+        private double tokens;
+        private long lastRefillNanos;
+
+        private final LongAdder delayed = new LongAdder();
+        private final LongAdder delayNanos = new LongAdder();
+        private final LongAdder throttled = new LongAdder();
+
+        TokenBucket(int limit, long windowNanos) {
+            this.capacity = limit;
+            this.maxRatePerNano = (double) limit / windowNanos;
+            this.ratePerNano = maxRatePerNano;
+            this.tokens = limit;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        synchronized long reserve(long nowNanos) {
+            refill(nowNanos);
+            tokens -= 1;
+            if (tokens >= 0) return 0;
+            long waitNanos = (long) Math.ceil(-tokens / ratePerNano);
+            delayed.increment();
+            delayNanos.add(waitNanos);
+            return waitNanos;
+        }
+
+        synchronized void throttle(long nowNanos) {
+            refill(nowNanos);
+            ratePerNano = Math.max(maxRatePerNano * MIN_RATE_FRACTION, ratePerNano / 2);
+            // drop the burst allowance so the next requests are spaced at the reduced rate
+            tokens = Math.min(tokens, 0);
+            throttled.increment();
+        }
+
+        synchronized void recover() {
+            ratePerNano = Math.min(maxRatePerNano, ratePerNano + maxRatePerNano * RECOVERY_FRACTION);
+        }
+
+        synchronized double getRatePerSecond() {
+            return ratePerNano * TimeUnit.SECONDS.toNanos(1);
+        }
+
+        private void refill(long nowNanos) {
+            long elapsed = nowNanos - lastRefillNanos;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * ratePerNano);
+                lastRefillNanos = nowNanos;
+            }
+        }
+    }
+}
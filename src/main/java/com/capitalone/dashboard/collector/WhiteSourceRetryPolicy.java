@@ -0,0 +1,196 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.settings.RetrySettings;
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+import com.capitalone.dashboard.utils.Constants;
+import com.google.gson.stream.MalformedJsonException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.json.simple.parser.ParseException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Retries WhiteSource api calls that failed for transient reasons - timeouts, dropped connections, throttling and
+ * server errors - with exponential backoff and jitter. Client errors and malformed responses are not retried.
+ *
+ * The retried unit is the whole call including reading the response, so callers must build their result from
+ * scratch on every attempt.
+ */
+@Component
+public class WhiteSourceRetryPolicy {
+    private static final Log LOG = LogFactory.getLog(WhiteSourceRetryPolicy.class);
+    private static final int REQUEST_TIMEOUT = 408;
+
+    private final WhiteSourceSettings settings;
+    private final Map<Constants.RequestType, LongAdder> retries = new EnumMap<>(Constants.RequestType.class);
+    private final Map<Constants.RequestType, LongAdder> giveUps = new EnumMap<>(Constants.RequestType.class);
+
+    @Autowired
+    public WhiteSourceRetryPolicy(WhiteSourceSettings settings) {
+        this.settings = settings;
+        for (Constants.RequestType requestType : Constants.RequestType.values()) {
+            retries.put(requestType, new LongAdder());
+            giveUps.put(requestType, new LongAdder());
+        }
+    }
+
+    /**
+     * A WhiteSource api call
+     */
+    @FunctionalInterface
+    public interface Call<T> {
+        T call() throws IOException;
+    }
+
+    /**
+     * Executes the call, retrying transient failures within the request type's attempt budget
+     *
+     * @param requestType request type
+     * @param call        api call
+     * @return call result
+     * @throws IOException             last failure reading the response
+     * @throws WhiteSourceApiException last transport failure
+     */
+    public <T> T execute(Constants.RequestType requestType, Call<T> call) throws IOException {
+        RetrySettings retrySettings = settings.getRetrySettings(requestType);
+        int maxAttempts = Math.max(1, retrySettings.getMaxAttempts());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.call();
+            } catch (WhiteSourceApiException | IOException e) {
+                if (!isRetryable(e)) throw e;
+                if (attempt >= maxAttempts) {
+                    giveUps.get(requestType).increment();
+                    LOG.warn("WhiteSourceRetryPolicy: giving up on " + requestType + " after " + attempt + " attempts, " + e.getMessage());
+                    throw e;
+                }
+                long delay = getBackoff(retrySettings, attempt);
+                retries.get(requestType).increment();
+                LOG.info("WhiteSourceRetryPolicy: " + requestType + " attempt " + attempt + " failed, " + e.getMessage() + ". Retrying in " + delay + " ms");
+                sleep(delay);
+            }
+        }
+    }
+
+    /**
+     * Executes an async call, retrying transient failures within the request type's attempt budget. Backoff delays
+     * are scheduled, no thread waits them out.
+     *
+     * @param requestType request type
+     * @param call        async api call, invoked once per attempt
+     * @return future of the call result, failed with the last failure
+     */
+    public <T> CompletableFuture<T> executeAsync(Constants.RequestType requestType, Supplier<CompletableFuture<T>> call) {
+        RetrySettings retrySettings = settings.getRetrySettings(requestType);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(requestType, call, retrySettings, 1, result);
+        return result;
+    }
+
+    private <T> void attempt(Constants.RequestType requestType, Supplier<CompletableFuture<T>> call, RetrySettings retrySettings,
+                             int attempt, CompletableFuture<T> result) {
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = unwrap(error);
+            if (!(cause instanceof Exception) || !isRetryable((Exception) cause)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            if (attempt >= Math.max(1, retrySettings.getMaxAttempts())) {
+                giveUps.get(requestType).increment();
+                LOG.warn("WhiteSourceRetryPolicy: giving up on " + requestType + " after " + attempt + " attempts, " + cause.getMessage());
+                result.completeExceptionally(cause);
+                return;
+            }
+            long delay = getBackoff(retrySettings, attempt);
+            retries.get(requestType).increment();
+            LOG.info("WhiteSourceRetryPolicy: " + requestType + " attempt " + attempt + " failed, " + cause.getMessage() + ". Retrying in " + delay + " ms");
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS)
+                    .execute(() -> attempt(requestType, call, retrySettings, attempt + 1, result));
+        });
+    }
+
+    /**
+     * Logs retries and give ups per request type, then resets the per run counters
+     */
+    public void logMetrics() {
+        for (Constants.RequestType requestType : Constants.RequestType.values()) {
+            long retryCount = retries.get(requestType).sumThenReset();
+            long giveUpCount = giveUps.get(requestType).sumThenReset();
+            if (retryCount > 0 || giveUpCount > 0) {
+                LOG.info(String.format("WhiteSourceRetryPolicy: requestType=%s, retries=%d, giveUps=%d", requestType, retryCount, giveUpCount));
+            }
+        }
+    }
+
+    public long getRetries(Constants.RequestType requestType) {
+        return retries.get(requestType).sum();
+    }
+
+    public long getGiveUps(Constants.RequestType requestType) {
+        return giveUps.get(requestType).sum();
+    }
+
+    // Failures of dependent futures arrive wrapped
+    static Throwable unwrap(Throwable e) {
+        Throwable cause = e;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    static boolean isRetryable(Exception e) {
+        if (Thread.currentThread().isInterrupted()) return false;
+        if (e instanceof WhiteSourceApiException) {
+            int status = ((WhiteSourceApiException) e).getStatusCode();
+            if (status == WhiteSourceApiException.NO_STATUS) {
+                // connection failures carry the io exception, anything else (e.g. unsupported encoding) is final
+                return e.getCause() instanceof IOException;
+            }
+            return status == REQUEST_TIMEOUT || status == WhiteSourceApiException.TOO_MANY_REQUESTS || status >= 500;
+        }
+        // a malformed response will be malformed again
+        if (e instanceof MalformedJsonException || e.getCause() instanceof ParseException) return false;
+        return e instanceof IOException && (!(e instanceof InterruptedIOException) || e instanceof SocketTimeoutException);
+    }
+
+    static long getBackoff(RetrySettings retrySettings, int attempt) {
+        double backoff = retrySettings.getInitialBackoff() * Math.pow(retrySettings.getMultiplier(), attempt - 1.0);
+        backoff = Math.min(backoff, retrySettings.getMaxBackoff());
+        double jitter = Math.min(1.0, Math.max(0.0, retrySettings.getJitter()));
+        return (long) (backoff * (1.0 - jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+
+    private static void sleep(long delay) throws InterruptedIOException {
+        try {
+            TimeUnit.MILLISECONDS.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry a WhiteSource request");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.WhiteSourceRunCheckpoint;
+import com.capitalone.dashboard.repository.WhiteSourceRunCheckpointRepository;
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Checkpoints of org refreshes, so a refresh interrupted by a restart resumes where it stopped instead of
+ * collecting every product again.
+ *
+ * Only the first refresh of an org after a restart resumes, from the checkpoint left behind by the refresh the
+ * restart interrupted, when that one started less than checkpointMaxAge milliseconds ago. Any later refresh starts a
+ * new checkpoint. Finished steps are recorded as they finish. The checkpoint is removed when the refresh finishes and
+ * when it fails, so a failed refresh is never resumed. With a checkpointMaxAge of 0 nothing is stored and every
+ * refresh starts over.
+ */
+@Component
+public class WhiteSourceRunCheckpoints {
+    private static final Log LOG = LogFactory.getLog(WhiteSourceRunCheckpoints.class);
+
+    private final WhiteSourceSettings settings;
+    private final WhiteSourceRunCheckpointRepository repository;
+    // orgs refreshed since this process started, by collector id and org name
+    private final Set<String> startedOrgs = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public WhiteSourceRunCheckpoints(WhiteSourceSettings settings, WhiteSourceRunCheckpointRepository repository) {
+        this.settings = settings;
+        this.repository = repository;
+    }
+
+    /**
+     * Starts the refresh of an org
+     *
+     * @param collectorId collector id
+     * @param orgName     org name
+     * @return checkpoint of the refresh interrupted by a restart to resume, or a new checkpoint
+     */
+    public WhiteSourceRunCheckpoint start(ObjectId collectorId, String orgName) {
+        long now = System.currentTimeMillis();
+        if (!isEnabled()) {
+            return new WhiteSourceRunCheckpoint(collectorId, orgName, now);
+        }
+        // a checkpoint found by a later refresh was left behind in this process, not by a restart
+        boolean firstRefresh = startedOrgs.add(collectorId + "|" + orgName);
+        WhiteSourceRunCheckpoint checkpoint = firstRefresh ? repository.find(collectorId, orgName) : null;
+        if (checkpoint != null && now - checkpoint.getRunStart() < settings.getCheckpointMaxAge()) {
+            checkpoint.setResumed(true);
+            LOG.info("WhiteSourceRunCheckpoints: resuming refresh of org " + orgName + " started at " + checkpoint.getRunStart()
+                    + ", completed steps=" + checkpoint.getCompletedSteps());
+            return checkpoint;
+        }
+        checkpoint = new WhiteSourceRunCheckpoint(collectorId, orgName, now);
+        repository.upsert(checkpoint);
+        return checkpoint;
+    }
+
+    /**
+     * Records a finished step
+     *
+     * @param checkpoint checkpoint of the refresh
+     * @param step       finished step
+     */
+    public void completeStep(WhiteSourceRunCheckpoint checkpoint, int step) {
+        if (checkpoint.isStepCompleted(step)) return;
+        checkpoint.getCompletedSteps().add(step);
+        checkpoint.setLastUpdated(System.currentTimeMillis());
+        if (isEnabled()) {
+            repository.addCompletedStep(checkpoint.getCollectorId(), checkpoint.getOrgName(), step, checkpoint.getLastUpdated());
+        }
+    }
+
+    /**
+     * Removes the checkpoint of a finished refresh
+     *
+     * @param checkpoint checkpoint of the refresh
+     */
+    public void finish(WhiteSourceRunCheckpoint checkpoint) {
+        if (isEnabled()) {
+            repository.delete(checkpoint.getCollectorId(), checkpoint.getOrgName());
+        }
+    }
+
+    /**
+     * Removes the checkpoint of a failed refresh, the next refresh starts over
+     *
+     * @param checkpoint checkpoint of the refresh
+     */
+    public void abandon(WhiteSourceRunCheckpoint checkpoint) {
+        if (isEnabled()) {
+            LOG.info("WhiteSourceRunCheckpoints: refresh of org " + checkpoint.getOrgName() + " failed, removing its checkpoint");
+            repository.delete(checkpoint.getCollectorId(), checkpoint.getOrgName());
+        }
+    }
+
+    private boolean isEnabled() {
+        return settings.getCheckpointMaxAge() > 0;
+    }
+}
@@ -0,0 +1,224 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.LibraryPolicyResult;
+import com.capitalone.dashboard.model.WhiteSourceComponent;
+import com.capitalone.dashboard.repository.WhiteSourceCustomComponentRepository;
+import com.capitalone.dashboard.repository.WhiteSourceCustomLibraryPolicyRepository;
+import com.capitalone.dashboard.repository.WhiteSourceCustomLibraryReferenceRepository;
+import com.capitalone.dashboard.settings.PipelineSettings;
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes library policy results in bulk.
+ *
+ * Results of all save workers are buffered together. A batch is written with one bulk upsert of the results, keyed
+ * on collector item id and evaluation timestamp, and one update of the last updated time of their projects, instead
+ * of a lookup and two saves per project. The buffer is flushed when it holds persistBatchSize results, when its
+ * oldest result waited persistFlushInterval milliseconds by the time another one is added, and by {@link #flush()}
+ * at the end of every save stage. Flush counts and latencies are logged and reset by {@link #logMetrics()}.
+ *
+ * The libraries of the results are written with them: the library index of the batch's projects and one $addToSet
+ * of project references per library. A project whose libraries changed is first pulled from the references of the
+ * libraries it no longer uses. They are written before the last updated time of the projects, so a project updated
+ * by a refresh has its libraries stored too, even when the refresh is interrupted.
+ */
+@Component
+public class WhiteSourceScanDataWriter {
+    private static final Log LOG = LogFactory.getLog(WhiteSourceScanDataWriter.class);
+
+    private final WhiteSourceSettings settings;
+    private final WhiteSourceCustomLibraryPolicyRepository libraryPolicyRepository;
+    private final WhiteSourceCustomComponentRepository componentRepository;
+    private final WhiteSourceCustomLibraryReferenceRepository libraryReferenceRepository;
+    private final WhiteSourceLibraryIndex libraryIndex;
+
+    // guarded by this
+    private List<ScanData> buffer = new ArrayList<>();
+    private long oldestBuffered;
+
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder flushMillis = new LongAdder();
+    private final AtomicLong maxFlushMillis = new AtomicLong();
+
+    @Autowired
+    public WhiteSourceScanDataWriter(WhiteSourceSettings settings, WhiteSourceCustomLibraryPolicyRepository libraryPolicyRepository,
+                                     WhiteSourceCustomComponentRepository componentRepository,
+                                     WhiteSourceCustomLibraryReferenceRepository libraryReferenceRepository,
+                                     WhiteSourceLibraryIndex libraryIndex) {
+        this.settings = settings;
+        this.libraryPolicyRepository = libraryPolicyRepository;
+        this.componentRepository = componentRepository;
+        this.libraryReferenceRepository = libraryReferenceRepository;
+        this.libraryIndex = libraryIndex;
+    }
+
+    /**
+     * Buffers the result of a project, writing the buffer when it is full or old enough
+     *
+     * @param project             whitesource project
+     * @param libraryPolicyResult library policy result of the project
+     */
+    public void write(WhiteSourceComponent project, LibraryPolicyResult libraryPolicyResult) {
+        libraryPolicyResult.setCollectorItemId(project.getId());
+        Set<String> libraryNames = getLibraryNames(libraryPolicyResult);
+        // the index answers change log lookups right away, it is stored with the batch
+        boolean librariesChanged = libraryIndex.update(project.getOrgName(), project.getProjectToken(), libraryNames);
+        PipelineSettings pipelineSettings = settings.getPipelineSettings();
+        List<ScanData> batch = null;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (buffer.isEmpty()) {
+                oldestBuffered = now;
+            }
+            buffer.add(new ScanData(project, libraryPolicyResult, libraryNames, librariesChanged));
+            if (buffer.size() >= pipelineSettings.getPersistBatchSize() || now - oldestBuffered >= pipelineSettings.getPersistFlushInterval()) {
+                batch = takeBuffer();
+            }
+        }
+        if (batch != null) {
+            write(batch);
+        }
+    }
+
+    /**
+     * Writes the buffered results
+     */
+    public void flush() {
+        List<ScanData> batch;
+        synchronized (this) {
+            batch = takeBuffer();
+        }
+        write(batch);
+    }
+
+    public void logMetrics() {
+        long count = flushes.sumThenReset();
+        long millis = flushMillis.sumThenReset();
+        LOG.info(String.format("WhiteSourceScanDataWriter: flushes=%d, written=%d, avgFlushMillis=%d, maxFlushMillis=%d",
+                count, written.sumThenReset(), count == 0 ? 0 : millis / count, maxFlushMillis.getAndSet(0)));
+    }
+
+    private List<ScanData> takeBuffer() {
+        List<ScanData> batch = buffer;
+        buffer = new ArrayList<>();
+        return batch;
+    }
+
+    private void write(List<ScanData> batch) {
+        if (batch.isEmpty()) return;
+        long start = System.nanoTime();
+        List<LibraryPolicyResult> libraryPolicyResults = new ArrayList<>(batch.size());
+        List<ObjectId> projectIds = new ArrayList<>(batch.size());
+        for (ScanData scanData : batch) {
+            libraryPolicyResults.add(scanData.libraryPolicyResult);
+            projectIds.add(scanData.project.getId());
+        }
+        libraryPolicyRepository.upsertAll(libraryPolicyResults);
+        writeLibraries(batch);
+        long lastUpdated = System.currentTimeMillis();
+        componentRepository.updateLastUpdated(projectIds, lastUpdated);
+        batch.forEach(scanData -> scanData.project.setLastUpdated(lastUpdated));
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        flushes.increment();
+        written.add(batch.size());
+        flushMillis.add(millis);
+        maxFlushMillis.accumulateAndGet(millis, Math::max);
+        LOG.debug("WhiteSourceScanDataWriter: flushed " + batch.size() + " results in " + millis + " ms");
+    }
+
+    // Stores the library index of the batch's projects and moves them to the references of their libraries, per org
+    private void writeLibraries(List<ScanData> batch) {
+        Map<String, List<String>> orgProjects = new HashMap<>();
+        Map<String, Map<ObjectId, Set<String>>> orgChangedProjects = new HashMap<>();
+        Map<String, Map<String, Set<WhiteSourceComponent>>> orgReferences = new HashMap<>();
+        for (ScanData scanData : batch) {
+            String orgName = scanData.project.getOrgName();
+            if (orgName == null) continue;
+            orgProjects.computeIfAbsent(orgName, k -> new ArrayList<>()).add(scanData.project.getProjectToken());
+            if (scanData.librariesChanged && scanData.project.getId() != null) {
+                orgChangedProjects.computeIfAbsent(orgName, k -> new HashMap<>()).put(scanData.project.getId(), scanData.libraryNames);
+            }
+            if (scanData.libraryNames.isEmpty()) continue;
+            WhiteSourceComponent reference = toReference(scanData.project);
+            Map<String, Set<WhiteSourceComponent>> references = orgReferences.computeIfAbsent(orgName, k -> new HashMap<>());
+            scanData.libraryNames.forEach(libraryName -> references.computeIfAbsent(libraryName, k -> new HashSet<>()).add(reference));
+        }
+        orgProjects.forEach(libraryIndex::save);
+        orgChangedProjects.forEach(libraryReferenceRepository::removeStaleProjectReferences);
+        orgReferences.forEach(libraryReferenceRepository::addProjectReferences);
+    }
+
+    /**
+     * Library names of the threats of a library policy result
+     *
+     * @param libraryPolicyResult library policy result
+     * @return library names
+     */
+    static Set<String> getLibraryNames(LibraryPolicyResult libraryPolicyResult) {
+        Set<String> libraryNames = new HashSet<>();
+        if (libraryPolicyResult.getThreats() == null) return libraryNames;
+        libraryPolicyResult.getThreats().values().forEach(threats -> threats.stream()
+                .map(LibraryPolicyResult.Threat::getComponents)
+                .filter(Objects::nonNull)
+                .forEach(components -> components.stream()
+                        .map(WhiteSourceScanDataWriter::getComponentName)
+                        .filter(name -> !name.isEmpty())
+                        .forEach(libraryNames::add)));
+        return libraryNames;
+    }
+
+    /**
+     * Project as it is kept in library references. Only the identifying fields are kept, so the same project is the
+     * same reference on every run.
+     *
+     * @param project whitesource project
+     * @return project reference
+     */
+    public static WhiteSourceComponent toReference(WhiteSourceComponent project) {
+        WhiteSourceComponent reference = new WhiteSourceComponent();
+        reference.setId(project.getId());
+        reference.setCollectorId(project.getCollectorId());
+        reference.setOrgName(project.getOrgName());
+        reference.setProductName(project.getProductName());
+        reference.setProductToken(project.getProductToken());
+        reference.setProjectName(project.getProjectName());
+        reference.setProjectToken(project.getProjectToken());
+        return reference;
+    }
+
+    private static String getComponentName(String component) {
+        return component.contains("#") ? component.substring(0, component.indexOf('#')) : "";
+    }
+
+    private static final class ScanData {
+        private final WhiteSourceComponent project;
+        private final LibraryPolicyResult libraryPolicyResult;
+        private final Set<String> libraryNames;
+        private final boolean librariesChanged;
+
+        ScanData(WhiteSourceComponent project, LibraryPolicyResult libraryPolicyResult, Set<String> libraryNames, boolean librariesChanged) {
+            this.project = project;
+            this.libraryPolicyResult = libraryPolicyResult;
+            this.libraryNames = libraryNames;
+            this.librariesChanged = librariesChanged;
+        }
+    }
+}
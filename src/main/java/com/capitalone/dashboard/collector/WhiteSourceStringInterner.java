@@ -0,0 +1,79 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deduplicates the strings of library policy threats within a collector run.
+ *
+ * Library file names, policy descriptions, ages and scores repeat across thousands of projects, interning them keeps
+ * one copy of each on the heap while the run holds its library policy results. The interner admits new strings until
+ * it holds stringInternerMaxSize of them, after that unknown strings are returned as they are. It is cleared at the
+ * end of every run, after its hit rate is logged.
+ */
+@Component
+public class WhiteSourceStringInterner {
+    private static final Log LOG = LogFactory.getLog(WhiteSourceStringInterner.class);
+
+    private final WhiteSourceSettings settings;
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @Autowired
+    public WhiteSourceStringInterner(WhiteSourceSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Gets the shared copy of a string
+     *
+     * @param value string, may be null
+     * @return the interned copy, or the string itself when it is new and the interner is full
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String interned = strings.get(value);
+        if (interned != null) {
+            hits.increment();
+            return interned;
+        }
+        // the size check is racy, concurrent callers may overshoot the bound by a few entries
+        if (strings.size() >= settings.getStringInternerMaxSize()) {
+            rejected.increment();
+            return value;
+        }
+        misses.increment();
+        interned = strings.putIfAbsent(value, value);
+        return interned == null ? value : interned;
+    }
+
+    /**
+     * Logs the hit rate and size, then drops all strings so the next run starts fresh
+     */
+    public void logMetrics() {
+        long hitCount = hits.sumThenReset();
+        long missCount = misses.sumThenReset();
+        long rejectedCount = rejected.sumThenReset();
+        long lookups = hitCount + missCount + rejectedCount;
+        if (lookups > 0) {
+            LOG.info(String.format("WhiteSourceStringInterner: lookups=%d, hits=%d, hitRate=%.1f%%, size=%d, maxSize=%d, rejected=%d",
+                    lookups, hitCount, 100.0 * hitCount / lookups, strings.size(), settings.getStringInternerMaxSize(), rejectedCount));
+        }
+        strings.clear();
+    }
+
+    public int size() {
+        return strings.size();
+    }
+}
@@ -23,4 +23,16 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    // one thread per org collected at the same time, shut down with the context
+    @Bean("WSOrgExecutor")
+    public Executor orgExecutor(WhiteSourceSettings settings) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, settings.getOrgConcurrency()));
+        executor.setMaxPoolSize(Math.max(1, settings.getOrgConcurrency()));
+        executor.setThreadNamePrefix("WSOrgThread-");
+        executor.setBeanName("WSOrgExecutor");
+        executor.initialize();
+        return executor;
+    }
 }
@@ -1,11 +1,14 @@
 package com.capitalone.dashboard.model;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class CollectorMetric {
     private int added = 0;
     private int updated = 0;
     private int instanceCount = 0;
     private int fetched = 0;
+    private Map<String, String> skipped = new LinkedHashMap<>();
 
     public int getFetched() {
         return fetched;
@@ -54,4 +57,21 @@ public class CollectorMetric {
     public void addFetched(int current){
         this.fetched = fetched + current;
     }
+
+    public Map<String, String> getSkipped() {
+        return skipped;
+    }
+
+    public void addSkipped(String org, String reason) {
+        this.skipped.put(org, reason);
+    }
+
+    public void combine(CollectorMetric metric) {
+        if (metric == null) return;
+        addNewCount(metric.added);
+        addUpdatedCount(metric.updated);
+        addInstanceCount(metric.instanceCount);
+        addFetched(metric.fetched);
+        this.skipped.putAll(metric.skipped);
+    }
 }
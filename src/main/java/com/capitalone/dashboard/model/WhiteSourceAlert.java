@@ -0,0 +1,98 @@
+package com.capitalone.dashboard.model;
+
+/**
+ * The subset of a WhiteSource alert that the collector turns into library policy threats.
+ * Instances are built one at a time while streaming an alerts payload.
+ */
+public class WhiteSourceAlert {
+    String projectToken = "";
+    String type = "";
+    String description = "";
+    long time;
+    String libraryFilename = "";
+    boolean vulnerability;
+    String severity = "";
+    double score;
+    String cvss3Severity = "";
+    double cvss3Score;
+
+    public String getProjectToken() {
+        return projectToken;
+    }
+
+    public void setProjectToken(String projectToken) {
+        this.projectToken = projectToken;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    public String getLibraryFilename() {
+        return libraryFilename;
+    }
+
+    public void setLibraryFilename(String libraryFilename) {
+        this.libraryFilename = libraryFilename;
+    }
+
+    public boolean hasVulnerability() {
+        return vulnerability;
+    }
+
+    public void setVulnerability(boolean vulnerability) {
+        this.vulnerability = vulnerability;
+    }
+
+    public String getSeverity() {
+        return severity;
+    }
+
+    public void setSeverity(String severity) {
+        this.severity = severity;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    public String getCvss3Severity() {
+        return cvss3Severity;
+    }
+
+    public void setCvss3Severity(String cvss3Severity) {
+        this.cvss3Severity = cvss3Severity;
+    }
+
+    public double getCvss3Score() {
+        return cvss3Score;
+    }
+
+    public void setCvss3Score(double cvss3Score) {
+        this.cvss3Score = cvss3Score;
+    }
+}
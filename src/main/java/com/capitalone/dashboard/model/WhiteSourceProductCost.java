@@ -0,0 +1,83 @@
+package com.capitalone.dashboard.model;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Cost of the last successful alert collection of a product, kept per collector so the next run, also after a
+ * restart, can start the most expensive products first.
+ */
+@Document(collection = "whitesource_product_costs")
+public class WhiteSourceProductCost {
+    private ObjectId collectorId;
+    private String productToken;
+    // decoded characters of the response body, a measure of its size
+    private long responseChars;
+    private int alertCount;
+    private int projectCount;
+    private long latency;
+    private long lastUpdated;
+
+    public WhiteSourceProductCost() {
+    }
+
+    public WhiteSourceProductCost(String productToken) {
+        this.productToken = productToken;
+    }
+
+    public ObjectId getCollectorId() {
+        return collectorId;
+    }
+
+    public void setCollectorId(ObjectId collectorId) {
+        this.collectorId = collectorId;
+    }
+
+    public String getProductToken() {
+        return productToken;
+    }
+
+    public void setProductToken(String productToken) {
+        this.productToken = productToken;
+    }
+
+    public long getResponseChars() {
+        return responseChars;
+    }
+
+    public void setResponseChars(long responseChars) {
+        this.responseChars = responseChars;
+    }
+
+    public int getAlertCount() {
+        return alertCount;
+    }
+
+    public void setAlertCount(int alertCount) {
+        this.alertCount = alertCount;
+    }
+
+    public int getProjectCount() {
+        return projectCount;
+    }
+
+    public void setProjectCount(int projectCount) {
+        this.projectCount = projectCount;
+    }
+
+    public long getLatency() {
+        return latency;
+    }
+
+    public void setLatency(long latency) {
+        this.latency = latency;
+    }
+
+    public long getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public void setLastUpdated(long lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
+}
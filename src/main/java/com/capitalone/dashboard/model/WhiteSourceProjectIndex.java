@@ -0,0 +1,48 @@
+package com.capitalone.dashboard.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read only lookup of the enabled projects of a collector run, by project token and by product token.
+ * Built once per run and shared by all threads collecting alerts.
+ */
+public class WhiteSourceProjectIndex {
+    private final Set<WhiteSourceComponent> projects;
+    private final Map<String, WhiteSourceComponent> projectsByToken = new HashMap<>();
+    private final Map<String, List<WhiteSourceComponent>> projectsByProduct = new HashMap<>();
+
+    public WhiteSourceProjectIndex(Collection<WhiteSourceComponent> projects) {
+        this.projects = Collections.unmodifiableSet(new HashSet<>(projects));
+        for (WhiteSourceComponent project : this.projects) {
+            if (project.getProjectToken() != null) {
+                projectsByToken.putIfAbsent(project.getProjectToken(), project);
+            }
+            if (project.getProductToken() != null) {
+                projectsByProduct.computeIfAbsent(project.getProductToken(), k -> new ArrayList<>()).add(project);
+            }
+        }
+    }
+
+    public Set<WhiteSourceComponent> getProjects() {
+        return projects;
+    }
+
+    public WhiteSourceComponent getProject(String projectToken) {
+        return projectToken == null ? null : projectsByToken.get(projectToken);
+    }
+
+    public List<WhiteSourceComponent> getProductProjects(String productToken) {
+        return productToken == null ? Collections.emptyList() : projectsByProduct.getOrDefault(productToken, Collections.emptyList());
+    }
+
+    public int size() {
+        return projects.size();
+    }
+}
@@ -0,0 +1,59 @@
+package com.capitalone.dashboard.model;
+
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Library names of the last collected library policy result of a project. One document per project of an org is the
+ * snapshot the library index is rebuilt from after a restart.
+ */
+@Document(collection = "whitesource_project_libraries")
+public class WhiteSourceProjectLibraries {
+    private String orgName;
+    private String projectToken;
+    private List<String> libraryNames = new ArrayList<>();
+    private long lastUpdated;
+
+    public WhiteSourceProjectLibraries() {
+    }
+
+    public WhiteSourceProjectLibraries(String orgName, String projectToken, List<String> libraryNames) {
+        this.orgName = orgName;
+        this.projectToken = projectToken;
+        this.libraryNames = libraryNames;
+    }
+
+    public String getOrgName() {
+        return orgName;
+    }
+
+    public void setOrgName(String orgName) {
+        this.orgName = orgName;
+    }
+
+    public String getProjectToken() {
+        return projectToken;
+    }
+
+    public void setProjectToken(String projectToken) {
+        this.projectToken = projectToken;
+    }
+
+    public List<String> getLibraryNames() {
+        return libraryNames;
+    }
+
+    public void setLibraryNames(List<String> libraryNames) {
+        this.libraryNames = libraryNames;
+    }
+
+    public long getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public void setLastUpdated(long lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
+}
@@ -0,0 +1,87 @@
+package com.capitalone.dashboard.model;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress of the scan data refresh of an org. It is created when the refresh starts, records each finished step and
+ * is removed when the refresh finishes or fails, so a checkpoint found by the first refresh after a restart belongs to
+ * the refresh the restart interrupted.
+ * Projects saved since runStart are done, their lastUpdated is set when their results are written.
+ */
+@Document(collection = "whitesource_run_checkpoints")
+public class WhiteSourceRunCheckpoint {
+    private ObjectId collectorId;
+    private String orgName;
+    private long runStart;
+    private List<Integer> completedSteps = new ArrayList<>();
+    private long lastUpdated;
+    @Transient
+    private boolean resumed;
+
+    public WhiteSourceRunCheckpoint() {
+    }
+
+    public WhiteSourceRunCheckpoint(ObjectId collectorId, String orgName, long runStart) {
+        this.collectorId = collectorId;
+        this.orgName = orgName;
+        this.runStart = runStart;
+        this.lastUpdated = runStart;
+    }
+
+    public ObjectId getCollectorId() {
+        return collectorId;
+    }
+
+    public void setCollectorId(ObjectId collectorId) {
+        this.collectorId = collectorId;
+    }
+
+    public String getOrgName() {
+        return orgName;
+    }
+
+    public void setOrgName(String orgName) {
+        this.orgName = orgName;
+    }
+
+    public long getRunStart() {
+        return runStart;
+    }
+
+    public void setRunStart(long runStart) {
+        this.runStart = runStart;
+    }
+
+    public List<Integer> getCompletedSteps() {
+        return completedSteps;
+    }
+
+    public void setCompletedSteps(List<Integer> completedSteps) {
+        this.completedSteps = completedSteps;
+    }
+
+    public boolean isStepCompleted(int step) {
+        return completedSteps != null && completedSteps.contains(step);
+    }
+
+    public long getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public void setLastUpdated(long lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
+
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    public void setResumed(boolean resumed) {
+        this.resumed = resumed;
+    }
+}
@@ -12,6 +12,9 @@ public interface WhiteSourceComponentRepository extends BaseCollectorItemReposit
     @Query(value="{ 'collectorId' : ?0, enabled: true}")
     List<WhiteSourceComponent> findEnabledComponents(ObjectId collectorId);
 
+    @Query(value="{ 'collectorId' : ?0, enabled: true, 'options.orgName' : ?1}")
+    List<WhiteSourceComponent> findEnabledComponents(ObjectId collectorId, String orgName);
+
     @Query("{'options.orgName' : ?0, 'options.projectToken' : ?1}")
     List<CollectorItem> findByOrgNameAndProjectToken(String orgName, String projectToken);
 
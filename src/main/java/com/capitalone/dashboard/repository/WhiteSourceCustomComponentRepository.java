@@ -2,19 +2,26 @@ package com.capitalone.dashboard.repository;
 
 
 import com.capitalone.dashboard.model.WhiteSourceComponent;
+import com.capitalone.dashboard.utils.Constants;
+import com.mongodb.bulk.BulkWriteResult;
 import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
 @Component
 public class WhiteSourceCustomComponentRepository {
+    private static final String OPTIONS = "options";
 
     private final MongoTemplate template;
 
@@ -35,6 +42,69 @@ public class WhiteSourceCustomComponentRepository {
         return items;
     }
 
+    /**
+     * Sets the last updated time of projects in one write
+     *
+     * @param ids         project ids
+     * @param lastUpdated last updated time
+     */
+    public void updateLastUpdated(Collection<ObjectId> ids, long lastUpdated) {
+        if (ids.isEmpty()) return;
+        template.updateMulti(new Query(Criteria.where("_id").in(ids)), new Update().set("lastUpdated", lastUpdated), WhiteSourceComponent.class);
+    }
+
+    /**
+     * Registers new projects in one bulk write, keyed on the collector and the unique options project token and org
+     * name. A project that already exists is left as it is. Inserted projects get their ids set.
+     *
+     * @param collectorId collector id
+     * @param projects    new projects
+     * @return number of projects inserted
+     */
+    public int insertNewProjects(ObjectId collectorId, List<WhiteSourceComponent> projects) {
+        if (projects.isEmpty()) return 0;
+        BulkOperations operations = template.bulkOps(BulkOperations.BulkMode.UNORDERED, WhiteSourceComponent.class);
+        for (WhiteSourceComponent project : projects) {
+            Document document = new Document();
+            template.getConverter().write(project, document);
+            document.remove("_id");
+            Update update = new Update();
+            document.forEach((key, value) -> {
+                // options are set one by one, the unique options of the query are inserted with the document
+                if (OPTIONS.equals(key) && value instanceof Document) {
+                    ((Document) value).forEach((option, optionValue) -> update.setOnInsert(OPTIONS + "." + option, optionValue));
+                } else {
+                    update.setOnInsert(key, value);
+                }
+            });
+            Query query = new Query(Criteria.where("collectorId").is(collectorId)
+                    .and(OPTIONS + "." + Constants.PROJECT_TOKEN).is(project.getProjectToken())
+                    .and(OPTIONS + "." + Constants.ORG_NAME).is(project.getOrgName()));
+            operations.upsert(query, update);
+        }
+        BulkWriteResult result = operations.execute();
+        result.getUpserts().forEach(upsert -> projects.get(upsert.getIndex()).setId(upsert.getId().asObjectId().getValue()));
+        return result.getUpserts().size();
+    }
+
+    /**
+     * Sets the product token, project name and product name options of existing projects in one bulk write
+     *
+     * @param projects existing projects
+     */
+    public void updateProjectDetails(List<WhiteSourceComponent> projects) {
+        if (projects.isEmpty()) return;
+        BulkOperations operations = template.bulkOps(BulkOperations.BulkMode.UNORDERED, WhiteSourceComponent.class);
+        for (WhiteSourceComponent project : projects) {
+            Update update = new Update()
+                    .set(OPTIONS + "." + Constants.PRODUCT_TOKEN, project.getProductToken())
+                    .set(OPTIONS + "." + Constants.PROJECT_NAME, project.getProjectName())
+                    .set(OPTIONS + "." + Constants.PRODUCT_NAME, project.getProductName());
+            operations.updateOne(new Query(Criteria.where("_id").is(project.getId())), update);
+        }
+        operations.execute();
+    }
+
     private Criteria getCriteria(Map<String, Object> options, Criteria c, Map.Entry<String, Object> e) {
         Criteria criteria = c;
         criteria = criteria.and("options." + e.getKey()).is(options.get(e.getKey()));
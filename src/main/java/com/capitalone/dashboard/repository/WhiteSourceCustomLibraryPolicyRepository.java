@@ -0,0 +1,76 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.LibraryPolicyResult;
+import com.capitalone.dashboard.utils.Constants;
+import com.google.common.collect.Iterables;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class WhiteSourceCustomLibraryPolicyRepository {
+    private static final String COLLECTOR_ITEM_ID = "collectorItemId";
+    private static final String EVALUATION_TIMESTAMP = "evaluationTimestamp";
+    // keeps the $in list of a single query reasonably small
+
+    private final MongoTemplate template;
+
+    @Autowired
+    public WhiteSourceCustomLibraryPolicyRepository(MongoTemplate template) {
+        this.template = template;
+    }
+
+    /**
+     * Latest stored evaluation timestamp per collector item
+     *
+     * @param collectorItemIds collector item ids
+     * @return map of collector item id and its latest evaluation timestamp, items without results are left out
+     */
+    public Map<ObjectId, Long> findLatestEvaluationTimestamps(Collection<ObjectId> collectorItemIds) {
+        Map<ObjectId, Long> latest = new HashMap<>();
+        for (List<ObjectId> batch : Iterables.partition(collectorItemIds, Constants.BULK_BATCH_SIZE)) {
+            Aggregation aggregation = Aggregation.newAggregation(
+                    Aggregation.match(Criteria.where(COLLECTOR_ITEM_ID).in(batch)),
+                    Aggregation.group(COLLECTOR_ITEM_ID).max(EVALUATION_TIMESTAMP).as(EVALUATION_TIMESTAMP));
+            for (Document document : template.aggregate(aggregation, LibraryPolicyResult.class, Document.class)) {
+                Number timestamp = document.get(EVALUATION_TIMESTAMP, Number.class);
+                if (timestamp != null) {
+                    latest.put(document.getObjectId("_id"), timestamp.longValue());
+                }
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Inserts or replaces library policy results in one bulk write, keyed on collector item id and evaluation
+     * timestamp. A replaced document keeps its id.
+     *
+     * @param libraryPolicyResults library policy results with collector item id and evaluation timestamp set
+     * @return number of documents inserted or replaced
+     */
+    public int upsertAll(List<LibraryPolicyResult> libraryPolicyResults) {
+        if (libraryPolicyResults.isEmpty()) return 0;
+        BulkOperations operations = template.bulkOps(BulkOperations.BulkMode.UNORDERED, LibraryPolicyResult.class);
+        for (LibraryPolicyResult libraryPolicyResult : libraryPolicyResults) {
+            Query query = new Query(Criteria.where(COLLECTOR_ITEM_ID).is(libraryPolicyResult.getCollectorItemId())
+                    .and(EVALUATION_TIMESTAMP).is(libraryPolicyResult.getEvaluationTimestamp()));
+            operations.replaceOne(query, libraryPolicyResult, FindAndReplaceOptions.options().upsert());
+        }
+        BulkWriteResult result = operations.execute();
+        return result.getUpserts().size() + result.getMatchedCount();
+    }
+}
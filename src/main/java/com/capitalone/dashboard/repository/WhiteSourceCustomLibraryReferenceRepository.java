@@ -0,0 +1,114 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.LibraryPolicyReference;
+import com.capitalone.dashboard.model.WhiteSourceComponent;
+import com.capitalone.dashboard.utils.Constants;
+import com.google.common.collect.Iterables;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+public class WhiteSourceCustomLibraryReferenceRepository {
+
+    private final MongoTemplate template;
+
+    @Autowired
+    public WhiteSourceCustomLibraryReferenceRepository(MongoTemplate template) {
+        this.template = template;
+    }
+
+    /**
+     * Finds the project references of libraries of an org, with one $in query per batch of libraries instead of one
+     * query per library. Only the library name and project references are read.
+     *
+     * @param orgName      org name
+     * @param libraryNames library names
+     * @return library references found
+     */
+    public List<LibraryPolicyReference> findByOrgNameAndLibraryNames(String orgName, Collection<String> libraryNames) {
+        List<LibraryPolicyReference> references = new ArrayList<>();
+        for (List<String> batch : Iterables.partition(libraryNames, Constants.BULK_BATCH_SIZE)) {
+            Query query = new Query(Criteria.where("orgName").is(orgName).and("libraryName").in(batch));
+            query.fields().include("libraryName").include("projectReferences");
+            references.addAll(template.find(query, LibraryPolicyReference.class));
+        }
+        return references;
+    }
+
+    /**
+     * Finds the project references of all libraries of an org. Only the library name and project references are read.
+     *
+     * @param orgName org name
+     * @return library references of the org
+     */
+    public List<LibraryPolicyReference> findByOrgName(String orgName) {
+        Query query = new Query(Criteria.where("orgName").is(orgName));
+        query.fields().include("libraryName").include("projectReferences");
+        return template.find(query, LibraryPolicyReference.class);
+    }
+
+    /**
+     * Adds projects to the references of libraries of an org, with one bulk write per batch of libraries. Each library
+     * gets a single $addToSet of all its projects, so a project that is already referenced is not added again and a
+     * library that is not referenced yet is inserted.
+     *
+     * @param orgName    org name
+     * @param references library name and the projects referencing it
+     * @return number of libraries written
+     */
+    public int addProjectReferences(String orgName, Map<String, Set<WhiteSourceComponent>> references) {
+        if (references.isEmpty()) return 0;
+        long lastUpdated = System.currentTimeMillis();
+        for (List<Map.Entry<String, Set<WhiteSourceComponent>>> batch : Iterables.partition(references.entrySet(), Constants.BULK_BATCH_SIZE)) {
+            BulkOperations operations = template.bulkOps(BulkOperations.BulkMode.UNORDERED, LibraryPolicyReference.class);
+            for (Map.Entry<String, Set<WhiteSourceComponent>> reference : batch) {
+                Query query = new Query(Criteria.where("libraryName").is(reference.getKey()).and("orgName").is(orgName));
+                Update update = new Update()
+                        .addToSet("projectReferences").each(reference.getValue().toArray())
+                        .set("lastUpdated", lastUpdated);
+                operations.upsert(query, update);
+            }
+            operations.execute();
+        }
+        return references.size();
+    }
+
+    /**
+     * Removes projects from the references of the libraries of an org they no longer use, with one bulk write per
+     * batch of projects. Each project gets a single $pull, by project id, from every library of the org referencing
+     * it that is not one of its libraries.
+     *
+     * @param orgName          org name
+     * @param projectLibraries project id and the libraries the project uses now
+     */
+    public void removeStaleProjectReferences(String orgName, Map<ObjectId, Set<String>> projectLibraries) {
+        if (projectLibraries.isEmpty()) return;
+        long lastUpdated = System.currentTimeMillis();
+        for (List<Map.Entry<ObjectId, Set<String>>> batch : Iterables.partition(projectLibraries.entrySet(), Constants.BULK_BATCH_SIZE)) {
+            BulkOperations operations = template.bulkOps(BulkOperations.BulkMode.UNORDERED, LibraryPolicyReference.class);
+            for (Map.Entry<ObjectId, Set<String>> project : batch) {
+                Query query = new Query(Criteria.where("orgName").is(orgName)
+                        .and("projectReferences._id").is(project.getKey())
+                        .and("libraryName").nin(project.getValue()));
+                Update update = new Update()
+                        .pull("projectReferences", new Document("_id", project.getKey()))
+                        .set("lastUpdated", lastUpdated);
+                operations.updateMulti(query, update);
+            }
+            operations.execute();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.WhiteSourceProductCost;
+import com.capitalone.dashboard.utils.Constants;
+import com.google.common.collect.Iterables;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+@Component
+public class WhiteSourceProductCostRepository {
+    private static final String COLLECTOR_ID = "collectorId";
+    private static final String PRODUCT_TOKEN = "productToken";
+
+    private final MongoTemplate template;
+
+    @Autowired
+    public WhiteSourceProductCostRepository(MongoTemplate template) {
+        this.template = template;
+    }
+
+    public List<WhiteSourceProductCost> findByCollectorId(ObjectId collectorId) {
+        return template.find(new Query(Criteria.where(COLLECTOR_ID).is(collectorId)), WhiteSourceProductCost.class);
+    }
+
+    /**
+     * Inserts or replaces the costs of a collector, keyed by product token
+     *
+     * @param collectorId collector id
+     * @param costs       product costs
+     */
+    public void upsert(ObjectId collectorId, Collection<WhiteSourceProductCost> costs) {
+        for (List<WhiteSourceProductCost> batch : Iterables.partition(costs, Constants.BULK_BATCH_SIZE)) {
+            BulkOperations operations = template.bulkOps(BulkOperations.BulkMode.UNORDERED, WhiteSourceProductCost.class);
+            for (WhiteSourceProductCost cost : batch) {
+                Query query = new Query(Criteria.where(COLLECTOR_ID).is(collectorId).and(PRODUCT_TOKEN).is(cost.getProductToken()));
+                Update update = new Update()
+                        .set("responseChars", cost.getResponseChars())
+                        .set("alertCount", cost.getAlertCount())
+                        .set("projectCount", cost.getProjectCount())
+                        .set("latency", cost.getLatency())
+                        .set("lastUpdated", cost.getLastUpdated());
+                operations.upsert(query, update);
+            }
+            operations.execute();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.WhiteSourceProjectLibraries;
+import com.capitalone.dashboard.utils.Constants;
+import com.google.common.collect.Iterables;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+@Component
+public class WhiteSourceProjectLibrariesRepository {
+    private static final String ORG_NAME = "orgName";
+    private static final String PROJECT_TOKEN = "projectToken";
+
+    private final MongoTemplate template;
+
+    @Autowired
+    public WhiteSourceProjectLibrariesRepository(MongoTemplate template) {
+        this.template = template;
+    }
+
+    public List<WhiteSourceProjectLibraries> findByOrgName(String orgName) {
+        return template.find(new Query(Criteria.where(ORG_NAME).is(orgName)), WhiteSourceProjectLibraries.class);
+    }
+
+    /**
+     * Inserts or replaces the library names of projects of an org, keyed by project token
+     *
+     * @param orgName          org name
+     * @param projectLibraries library names per project
+     */
+    public void upsert(String orgName, Collection<WhiteSourceProjectLibraries> projectLibraries) {
+        for (List<WhiteSourceProjectLibraries> batch : Iterables.partition(projectLibraries, Constants.BULK_BATCH_SIZE)) {
+            BulkOperations operations = template.bulkOps(BulkOperations.BulkMode.UNORDERED, WhiteSourceProjectLibraries.class);
+            for (WhiteSourceProjectLibraries libraries : batch) {
+                Query query = new Query(Criteria.where(ORG_NAME).is(orgName).and(PROJECT_TOKEN).is(libraries.getProjectToken()));
+                Update update = new Update()
+                        .set("libraryNames", libraries.getLibraryNames())
+                        .set("lastUpdated", libraries.getLastUpdated());
+                operations.upsert(query, update);
+            }
+            operations.execute();
+        }
+    }
+}
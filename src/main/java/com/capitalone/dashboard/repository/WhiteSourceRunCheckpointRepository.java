@@ -0,0 +1,61 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.WhiteSourceRunCheckpoint;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+@Component
+public class WhiteSourceRunCheckpointRepository {
+    private static final String COLLECTOR_ID = "collectorId";
+    private static final String ORG_NAME = "orgName";
+
+    private final MongoTemplate template;
+
+    @Autowired
+    public WhiteSourceRunCheckpointRepository(MongoTemplate template) {
+        this.template = template;
+    }
+
+    public WhiteSourceRunCheckpoint find(ObjectId collectorId, String orgName) {
+        return template.findOne(query(collectorId, orgName), WhiteSourceRunCheckpoint.class);
+    }
+
+    /**
+     * Inserts or replaces the checkpoint of an org
+     *
+     * @param checkpoint checkpoint
+     */
+    public void upsert(WhiteSourceRunCheckpoint checkpoint) {
+        Update update = new Update()
+                .set("runStart", checkpoint.getRunStart())
+                .set("completedSteps", checkpoint.getCompletedSteps())
+                .set("lastUpdated", checkpoint.getLastUpdated());
+        template.upsert(query(checkpoint.getCollectorId(), checkpoint.getOrgName()), update, WhiteSourceRunCheckpoint.class);
+    }
+
+    /**
+     * Adds a finished step to the checkpoint of an org
+     *
+     * @param collectorId collector id
+     * @param orgName     org name
+     * @param step        finished step
+     * @param lastUpdated time the step finished
+     */
+    public void addCompletedStep(ObjectId collectorId, String orgName, int step, long lastUpdated) {
+        Update update = new Update().addToSet("completedSteps", step).set("lastUpdated", lastUpdated);
+        template.updateFirst(query(collectorId, orgName), update, WhiteSourceRunCheckpoint.class);
+    }
+
+    public void delete(ObjectId collectorId, String orgName) {
+        template.remove(query(collectorId, orgName), WhiteSourceRunCheckpoint.class);
+    }
+
+    private static Query query(ObjectId collectorId, String orgName) {
+        return new Query(Criteria.where(COLLECTOR_ID).is(collectorId).and(ORG_NAME).is(orgName));
+    }
+}
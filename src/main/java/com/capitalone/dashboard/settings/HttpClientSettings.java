@@ -0,0 +1,96 @@
+package com.capitalone.dashboard.settings;
+
+/**
+ * Connection pool settings for the WhiteSource api transport.
+ *
+ * A max connection value of 0 means the limit is derived from {@link ThreadPoolSettings}: every collector thread
+ * holds at most one connection at a time, so each server gets maxPoolSize connections.
+ *
+ * The blocking and the non-blocking transport share the connection limits of a server and maxConnectionsTotal:
+ * the non-blocking transport gets asyncConnectionShare of them, the blocking transport the rest. Every response
+ * streaming in holds a response thread, so responseThreads bounds the non-blocking calls in flight; 0 means one per
+ * non-blocking connection of a server.
+ */
+public class HttpClientSettings {
+    private int maxConnectionsPerServer = 0;
+    private int maxConnectionsTotal = 0;
+    private long keepAlive = 60000;
+    private int validateAfterInactivity = 2000;
+    private int connectionRequestTimeout = 60000;
+    private boolean compression = true;
+    private double asyncConnectionShare = 0.5;
+    private int ioThreads = 2;
+    private int responseThreads = 0;
+
+    public int getMaxConnectionsPerServer() {
+        return maxConnectionsPerServer;
+    }
+
+    public void setMaxConnectionsPerServer(int maxConnectionsPerServer) {
+        this.maxConnectionsPerServer = maxConnectionsPerServer;
+    }
+
+    public int getMaxConnectionsTotal() {
+        return maxConnectionsTotal;
+    }
+
+    public void setMaxConnectionsTotal(int maxConnectionsTotal) {
+        this.maxConnectionsTotal = maxConnectionsTotal;
+    }
+
+    public long getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(long keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public int getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    public void setValidateAfterInactivity(int validateAfterInactivity) {
+        this.validateAfterInactivity = validateAfterInactivity;
+    }
+
+    public int getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    public void setConnectionRequestTimeout(int connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+    }
+
+    public boolean isCompression() {
+        return compression;
+    }
+
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+
+    public double getAsyncConnectionShare() {
+        return asyncConnectionShare;
+    }
+
+    public void setAsyncConnectionShare(double asyncConnectionShare) {
+        this.asyncConnectionShare = asyncConnectionShare;
+    }
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public void setIoThreads(int ioThreads) {
+        this.ioThreads = ioThreads;
+    }
+
+    public int getResponseThreads() {
+        return responseThreads;
+    }
+
+    public void setResponseThreads(int responseThreads) {
+        this.responseThreads = responseThreads;
+    }
+}
@@ -0,0 +1,58 @@
+package com.capitalone.dashboard.settings;
+
+/**
+ * Stages of a product alert refresh. Up to fetchConcurrency products are fetched at once, their alerts are parsed
+ * while they stream in on the response threads, and fetched products wait in a queue for one of the
+ * persistConcurrency workers saving them. A product is not started while queueCapacity products are being fetched or
+ * waiting to be saved, so a slow database holds back the fetches instead of filling the heap.
+ *
+ * Saved results are written in bulk, a batch is flushed once it holds persistBatchSize results or its oldest result
+ * waited persistFlushInterval milliseconds, and at the end of every save stage.
+ */
+public class PipelineSettings {
+    private int fetchConcurrency = 8;
+    private int persistConcurrency = 4;
+    private int queueCapacity = 16;
+    private int persistBatchSize = 500;
+    private long persistFlushInterval = 5000;
+
+    public int getFetchConcurrency() {
+        return fetchConcurrency;
+    }
+
+    public void setFetchConcurrency(int fetchConcurrency) {
+        this.fetchConcurrency = fetchConcurrency;
+    }
+
+    public int getPersistConcurrency() {
+        return persistConcurrency;
+    }
+
+    public void setPersistConcurrency(int persistConcurrency) {
+        this.persistConcurrency = persistConcurrency;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getPersistBatchSize() {
+        return persistBatchSize;
+    }
+
+    public void setPersistBatchSize(int persistBatchSize) {
+        this.persistBatchSize = persistBatchSize;
+    }
+
+    public long getPersistFlushInterval() {
+        return persistFlushInterval;
+    }
+
+    public void setPersistFlushInterval(long persistFlushInterval) {
+        this.persistFlushInterval = persistFlushInterval;
+    }
+}
@@ -0,0 +1,53 @@
+package com.capitalone.dashboard.settings;
+
+/**
+ * Retry policy for transient WhiteSource api failures. The delay before retry n is
+ * initialBackoff * multiplier^(n-1), capped at maxBackoff, minus a random share of up to jitter of that delay.
+ */
+public class RetrySettings {
+    private int maxAttempts = 3;
+    private long initialBackoff = 1000;
+    private long maxBackoff = 30000;
+    private double multiplier = 2.0;
+    private double jitter = 0.5;
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public long getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public void setInitialBackoff(long initialBackoff) {
+        this.initialBackoff = initialBackoff;
+    }
+
+    public long getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(long maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    public void setMultiplier(double multiplier) {
+        this.multiplier = multiplier;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+
+    public void setJitter(double jitter) {
+        this.jitter = jitter;
+    }
+}
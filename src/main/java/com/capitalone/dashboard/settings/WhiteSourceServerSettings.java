@@ -7,6 +7,7 @@ public class WhiteSourceServerSettings {
   private String orgToken;
   private String userKey;
   private String deeplink;
+  private int maxConnections;
 
     public String getInstanceUrl() {
         return instanceUrl;
@@ -47,6 +48,14 @@ public class WhiteSourceServerSettings {
     public void setDeeplink(String deeplink) {
         this.deeplink = deeplink;
     }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
 }
 
 
@@ -1,6 +1,7 @@
 package com.capitalone.dashboard.settings;
 
 import com.capitalone.dashboard.model.LicensePolicyType;
+import com.capitalone.dashboard.utils.Constants;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,6 +9,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -46,6 +48,16 @@ public class WhiteSourceSettings  {
     private long historyTimestamp;
     @Value("${whitesource.maxOrgLevelQueryTimeWindow:3600000}") // 1 hr in millis
     private long maxOrgLevelQueryTimeWindow;
+    @Value("${whitesource.projectVitalCacheTtl:600000}") // 10 min in millis
+    private long projectVitalCacheTtl;
+    @Value("${whitesource.fullProjectDiscoveryInterval:86400000}") // 1 day in millis
+    private long fullProjectDiscoveryInterval;
+    @Value("${whitesource.stringInternerMaxSize:500000}")
+    private int stringInternerMaxSize;
+    @Value("${whitesource.orgConcurrency:4}")
+    private int orgConcurrency;
+    @Value("${whitesource.checkpointMaxAge:86400000}") // 1 day in millis
+    private long checkpointMaxAge;
 
     private List<LicensePolicyType> criticalLicensePolicyTypes = new ArrayList<>();
     private List<LicensePolicyType> highLicensePolicyTypes = new ArrayList<>();
@@ -63,9 +75,16 @@ public class WhiteSourceSettings  {
     private List<String> searchPatterns = new ArrayList();
 
     private ThreadPoolSettings threadPoolSettings = new ThreadPoolSettings();
+    private HttpClientSettings httpClientSettings = new HttpClientSettings();
+    private RetrySettings retrySettings = new RetrySettings();
+    private PipelineSettings pipelineSettings = new PipelineSettings();
+    private Map<Constants.RequestType, RetrySettings> requestTypeRetrySettings = new HashMap<>();
     @Value("${whitesource.optimizeCollection:true}")
     private boolean optimizeCollection;
 
+    @Value("${whitesource.skipUnchangedProducts:false}")
+    private boolean skipUnchangedProducts;
+
     @Value("${whitesource.buildCollectorName:Hudson}")
     private String buildCollectorName;
 
@@ -323,6 +342,46 @@ public class WhiteSourceSettings  {
         this.maxOrgLevelQueryTimeWindow = maxOrgLevelQueryTimeWindow;
     }
 
+    public long getProjectVitalCacheTtl() {
+        return projectVitalCacheTtl;
+    }
+
+    public void setProjectVitalCacheTtl(long projectVitalCacheTtl) {
+        this.projectVitalCacheTtl = projectVitalCacheTtl;
+    }
+
+    public long getFullProjectDiscoveryInterval() {
+        return fullProjectDiscoveryInterval;
+    }
+
+    public void setFullProjectDiscoveryInterval(long fullProjectDiscoveryInterval) {
+        this.fullProjectDiscoveryInterval = fullProjectDiscoveryInterval;
+    }
+
+    public int getStringInternerMaxSize() {
+        return stringInternerMaxSize;
+    }
+
+    public void setStringInternerMaxSize(int stringInternerMaxSize) {
+        this.stringInternerMaxSize = stringInternerMaxSize;
+    }
+
+    public int getOrgConcurrency() {
+        return orgConcurrency;
+    }
+
+    public void setOrgConcurrency(int orgConcurrency) {
+        this.orgConcurrency = orgConcurrency;
+    }
+
+    public long getCheckpointMaxAge() {
+        return checkpointMaxAge;
+    }
+
+    public void setCheckpointMaxAge(long checkpointMaxAge) {
+        this.checkpointMaxAge = checkpointMaxAge;
+    }
+
     public ThreadPoolSettings getThreadPoolSettings() {
         return threadPoolSettings;
     }
@@ -331,6 +390,48 @@ public class WhiteSourceSettings  {
         this.threadPoolSettings = threadPoolSettings;
     }
 
+    public HttpClientSettings getHttpClientSettings() {
+        return httpClientSettings;
+    }
+
+    public void setHttpClientSettings(HttpClientSettings httpClientSettings) {
+        this.httpClientSettings = httpClientSettings;
+    }
+
+    public RetrySettings getRetrySettings() {
+        return retrySettings;
+    }
+
+    public void setRetrySettings(RetrySettings retrySettings) {
+        this.retrySettings = retrySettings;
+    }
+
+    public PipelineSettings getPipelineSettings() {
+        return pipelineSettings;
+    }
+
+    public void setPipelineSettings(PipelineSettings pipelineSettings) {
+        this.pipelineSettings = pipelineSettings;
+    }
+
+    public Map<Constants.RequestType, RetrySettings> getRequestTypeRetrySettings() {
+        return requestTypeRetrySettings;
+    }
+
+    public void setRequestTypeRetrySettings(Map<Constants.RequestType, RetrySettings> requestTypeRetrySettings) {
+        this.requestTypeRetrySettings = requestTypeRetrySettings;
+    }
+
+    /**
+     * Retry settings for a request type, falling back to the default retry settings
+     *
+     * @param requestType request type
+     * @return retry settings
+     */
+    public RetrySettings getRetrySettings(Constants.RequestType requestType) {
+        return requestTypeRetrySettings.getOrDefault(requestType, retrySettings);
+    }
+
     public boolean isOptimizeCollection() {
         return optimizeCollection;
     }
@@ -339,6 +440,14 @@ public class WhiteSourceSettings  {
         this.optimizeCollection = optimizeCollection;
     }
 
+    public boolean isSkipUnchangedProducts() {
+        return skipUnchangedProducts;
+    }
+
+    public void setSkipUnchangedProducts(boolean skipUnchangedProducts) {
+        this.skipUnchangedProducts = skipUnchangedProducts;
+    }
+
     public boolean checkIgnoreEndPoint(String endPointURI) { return !ignoreEndPoints.isEmpty() && ignoreEndPoints.contains(endPointURI); }
 
     public boolean checkIgnoreApiUser(String apiUser) {
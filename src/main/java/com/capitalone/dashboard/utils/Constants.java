@@ -64,6 +64,8 @@ public final class Constants {
     public static final String SECURITY_VULNERABILITY = "SECURITY_VULNERABILITY";
     public static final String DEFAULT_WHITESOURCE_TIMEZONE = "UTC";
     public static final String APP_NAME = "whitesource-collector";
+    // documents read or written per query or bulk write of the custom repositories
+    public static final int BULK_BATCH_SIZE = 1000;
 
 
     public enum RequestType {
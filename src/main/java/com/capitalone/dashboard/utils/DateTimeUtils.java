@@ -2,11 +2,12 @@ package com.capitalone.dashboard.utils;
 
 import com.capitalone.dashboard.misc.HygieiaException;
 import org.apache.commons.lang3.StringUtils;
-import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -32,8 +33,21 @@ import java.util.concurrent.TimeUnit;
  *     "toDate" : "2016-01-02 10:00:00"
  * }
  *
+ * Formatters and zones are cached. The fixed yyyy-MM-dd HH:mm:ss formats above are parsed and printed straight from
+ * the characters, anything outside their exact layout goes through joda.
  */
 public class DateTimeUtils {
+    private static final String FAST_PATTERN = Constants.yyyy_MM_dd_HH_mm_ss;
+    private static final String FAST_PATTERN_WITH_OFFSET = Constants.yyyy_MM_dd_HH_mm_ss_z;
+    // "2020-12-21 16:45:11", followed by " +0000" with an offset
+    private static final int LOCAL_LENGTH = 19;
+    private static final int MAX_YEAR = 9999;
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    private static final int SECONDS_PER_DAY = 86400;
+
+    // patterns and zones come from the settings and the code, there are only a handful of them
+    private static final Map<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+    private static final Map<String, DateTimeZone> ZONES = new ConcurrentHashMap<>();
 
     /**
      * Calculates timestamp in milliseconds for a String Date time with specified format and timezone
@@ -45,7 +59,10 @@ public class DateTimeUtils {
      */
     public static long timeFromStringToMillis (String fromDateTime, String fromTimeZone, String fromPattern) throws HygieiaException {
         if (StringUtils.isNotEmpty(fromDateTime)) {
-            return DateTimeFormat.forPattern(fromPattern).withZone(DateTimeZone.forID(fromTimeZone)).parseMillis(fromDateTime);
+            long millis = FAST_PATTERN.equals(fromPattern) || FAST_PATTERN_WITH_OFFSET.equals(fromPattern)
+                    ? parseFast(fromDateTime, fromTimeZone, FAST_PATTERN_WITH_OFFSET.equals(fromPattern))
+                    : Long.MIN_VALUE;
+            return millis != Long.MIN_VALUE ? millis : getFormatter(fromPattern, fromTimeZone).parseMillis(fromDateTime);
         } else {
             throw new HygieiaException("Date Time value cannot be empty", HygieiaException.BAD_DATA);
         }
@@ -60,9 +77,144 @@ public class DateTimeUtils {
      * @return String formatted date time
      */
     public static String timeFromLongToString (long fromTimeStamp, String toTimeZone, String toPattern) {
-        DateTime dateTime = new DateTime(fromTimeStamp, DateTimeZone.forID(toTimeZone));
-        DateTimeFormatter formatter = DateTimeFormat.forPattern(toPattern);
-        return dateTime.toString(formatter);
+        if (FAST_PATTERN.equals(toPattern)) {
+            String formatted = formatFast(fromTimeStamp, getZone(toTimeZone));
+            if (formatted != null) {
+                return formatted;
+            }
+        }
+        return getFormatter(toPattern, toTimeZone).print(fromTimeStamp);
+    }
+
+    private static DateTimeZone getZone(String timeZone) {
+        // forID(null) is the default zone, which can not be a map key
+        return timeZone == null ? DateTimeZone.getDefault() : ZONES.computeIfAbsent(timeZone, DateTimeZone::forID);
+    }
+
+    private static DateTimeFormatter getFormatter(String pattern, String timeZone) {
+        DateTimeZone zone = getZone(timeZone);
+        return FORMATTERS.computeIfAbsent(pattern + '|' + zone.getID(), k -> DateTimeFormat.forPattern(pattern).withZone(zone));
+    }
+
+    /**
+     * Parses the fixed WhiteSource formats straight from the characters.
+     *
+     * @return milliseconds, or Long.MIN_VALUE when the value is not in the exact fixed layout or not a valid date, so
+     * the caller falls back to joda for its parsing rules and error messages
+     */
+    private static long parseFast(String value, String timeZone, boolean withOffset) {
+        int length = value.length();
+        if (length != (withOffset ? LOCAL_LENGTH + 6 : LOCAL_LENGTH)) {
+            return Long.MIN_VALUE;
+        }
+        if (value.charAt(4) != '-' || value.charAt(7) != '-' || value.charAt(10) != ' ' || value.charAt(13) != ':' || value.charAt(16) != ':') {
+            return Long.MIN_VALUE;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 2);
+        int day = digits(value, 8, 2);
+        int hour = digits(value, 11, 2);
+        int minute = digits(value, 14, 2);
+        int second = digits(value, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return Long.MIN_VALUE;
+        }
+        long local = (daysFromCivil(year, month, day) * SECONDS_PER_DAY + hour * 3600L + minute * 60L + second) * 1000L;
+        if (withOffset) {
+            int offset = parseOffset(value);
+            return offset == Integer.MIN_VALUE ? Long.MIN_VALUE : local - offset;
+        }
+        DateTimeZone zone = getZone(timeZone);
+        int offset = zone.getOffsetFromLocal(local);
+        long millis = local - offset;
+        // a local time in a daylight saving gap, let joda report it
+        return offset == zone.getOffset(millis) ? millis : Long.MIN_VALUE;
+    }
+
+    // " +0000" after the local date time, in milliseconds
+    private static int parseOffset(String value) {
+        char sign = value.charAt(LOCAL_LENGTH + 1);
+        if (value.charAt(LOCAL_LENGTH) != ' ' || (sign != '+' && sign != '-')) {
+            return Integer.MIN_VALUE;
+        }
+        int hours = digits(value, LOCAL_LENGTH + 2, 2);
+        int minutes = digits(value, LOCAL_LENGTH + 4, 2);
+        if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59) {
+            return Integer.MIN_VALUE;
+        }
+        int offset = (hours * 60 + minutes) * 60000;
+        return sign == '-' ? -offset : offset;
+    }
+
+    // formats yyyy-MM-dd HH:mm:ss, null for years joda prints differently
+    private static String formatFast(long millis, DateTimeZone zone) {
+        long local = millis + zone.getOffset(millis);
+        long days = Math.floorDiv(local, SECONDS_PER_DAY * 1000L);
+        int secondOfDay = (int) (Math.floorMod(local, SECONDS_PER_DAY * 1000L) / 1000);
+
+        // civil from days, see daysFromCivil
+        long z = days + 719468;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        if (year < 0 || year > MAX_YEAR) {
+            return null;
+        }
+
+        char[] chars = new char[LOCAL_LENGTH];
+        putDigits(chars, 0, (int) year, 4);
+        chars[4] = '-';
+        putDigits(chars, 5, month, 2);
+        chars[7] = '-';
+        putDigits(chars, 8, day, 2);
+        chars[10] = ' ';
+        putDigits(chars, 11, secondOfDay / 3600, 2);
+        chars[13] = ':';
+        putDigits(chars, 14, secondOfDay / 60 % 60, 2);
+        chars[16] = ':';
+        putDigits(chars, 17, secondOfDay % 60, 2);
+        return new String(chars);
+    }
+
+    // days since 1970-01-01 of a proleptic gregorian date, as joda's ISO chronology
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        return month == 2 && leap ? 29 : DAYS_IN_MONTH[month - 1];
+    }
+
+    // -1 when not all characters are digits
+    private static int digits(String value, int start, int count) {
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    private static void putDigits(char[] chars, int start, int value, int count) {
+        for (int i = start + count - 1; i >= start; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
     }
 
 
@@ -0,0 +1,103 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.DataRefresh;
+import com.capitalone.dashboard.model.LibraryPolicyResult;
+import com.capitalone.dashboard.model.WhiteSourceComponent;
+import com.capitalone.dashboard.settings.PipelineSettings;
+import com.capitalone.dashboard.settings.WhiteSourceServerSettings;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AsyncServiceTest {
+    private final WhiteSourceScanDataWriter scanDataWriter = mock(WhiteSourceScanDataWriter.class);
+    private final WhiteSourceClient whiteSourceClient = mock(WhiteSourceClient.class);
+    private final WhiteSourceCircuitBreaker circuitBreaker = mock(WhiteSourceCircuitBreaker.class);
+    private final WhiteSourceServerSettings serverSettings = new WhiteSourceServerSettings();
+    private final PipelineSettings pipelineSettings = new PipelineSettings();
+    private final Map<String, CompletableFuture<LibraryPolicyResult>> calls = new LinkedHashMap<>();
+    private AsyncService asyncService;
+
+    @BeforeEach
+    public void setup() {
+        asyncService = new AsyncService(scanDataWriter, whiteSourceClient, circuitBreaker, Runnable::run);
+        pipelineSettings.setFetchConcurrency(2);
+        when(whiteSourceClient.getProjectAlertsAsync(any(), any(), eq(serverSettings))).thenAnswer(invocation -> {
+            CompletableFuture<LibraryPolicyResult> call = new CompletableFuture<>();
+            calls.put(((WhiteSourceComponent) invocation.getArgument(0)).getProjectToken(), call);
+            return call;
+        });
+    }
+
+    @Test
+    public void callsAtMostFetchConcurrencyProjects() {
+        List<WhiteSourceComponent> projects = projects(3);
+        CompletableFuture<DataRefresh> dataRefresh = asyncService.getAndUpdateDataByProjectAsync(projects, Collections.emptyMap(), serverSettings, pipelineSettings);
+        assertEquals(2, calls.size());
+
+        calls.get("p1").complete(new LibraryPolicyResult());
+        assertEquals(3, calls.size());
+        assertFalse(dataRefresh.isDone());
+
+        calls.get("p0").complete(new LibraryPolicyResult());
+        calls.get("p2").complete(new LibraryPolicyResult());
+        assertEquals(3, dataRefresh.join().getCollectedProjects().size());
+        verify(scanDataWriter).flush();
+    }
+
+    @Test
+    public void doesNotSaveFailedProjects() {
+        List<WhiteSourceComponent> projects = projects(2);
+        CompletableFuture<DataRefresh> dataRefresh = asyncService.getAndUpdateDataByProjectAsync(projects, Collections.emptyMap(), serverSettings, pipelineSettings);
+
+        calls.get("p0").completeExceptionally(new IllegalStateException("failed"));
+        calls.get("p1").complete(new LibraryPolicyResult());
+
+        assertEquals(Collections.singleton(projects.get(1)), dataRefresh.join().getCollectedProjects());
+        verify(scanDataWriter, never()).write(eq(projects.get(0)), any());
+        verify(scanDataWriter).write(eq(projects.get(1)), any());
+    }
+
+    @Test
+    public void stopsCallingOnceTheCircuitOpens() {
+        List<WhiteSourceComponent> projects = projects(4);
+        CompletableFuture<DataRefresh> dataRefresh = asyncService.getAndUpdateDataByProjectAsync(projects, Collections.emptyMap(), serverSettings, pipelineSettings);
+
+        when(circuitBreaker.isOpen(serverSettings)).thenReturn(true);
+        calls.get("p0").completeExceptionally(new IllegalStateException("failed"));
+        assertFalse(dataRefresh.isDone());
+        calls.get("p1").complete(new LibraryPolicyResult());
+
+        assertTrue(dataRefresh.isDone());
+        assertEquals(2, calls.size());
+        assertEquals(1, dataRefresh.join().getCollectedProjects().size());
+    }
+
+    private static List<WhiteSourceComponent> projects(int count) {
+        List<WhiteSourceComponent> projects = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            WhiteSourceComponent project = new WhiteSourceComponent();
+            project.setId(ObjectId.get());
+            project.setProjectToken("p" + i);
+            projects.add(project);
+        }
+        return projects;
+    }
+}
@@ -0,0 +1,120 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.misc.HygieiaException;
+import com.capitalone.dashboard.model.CollectorItem;
+import com.capitalone.dashboard.model.LibraryPolicyResult;
+import com.capitalone.dashboard.model.WhiteSourceRequest;
+import com.capitalone.dashboard.repository.BuildRepository;
+import com.capitalone.dashboard.repository.CollectorItemRepository;
+import com.capitalone.dashboard.repository.CollectorRepository;
+import com.capitalone.dashboard.repository.LibraryPolicyResultsRepository;
+import com.capitalone.dashboard.repository.WhiteSourceComponentRepository;
+import com.capitalone.dashboard.settings.WhiteSourceServerSettings;
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DefaultWhiteSourceClientProcessTest {
+    private static final String VITALS = "{\"id\":42,\"token\":\"p1\",\"lastUpdatedDate\":\"2021-01-01 10:00:00 +0000\"}";
+    // non ascii library name, decoded as utf-8 whatever the platform charset
+    private static final String ALERTS = "[{\"type\":\"REJECTED_BY_POLICY_RESOURCE\",\"description\":\"Rejected \u2013 license\","
+            + "\"time\":1607565314000,\"library\":{\"filename\":\"na\u00efve-lib-1.0.jar\"}}]";
+
+    private LibraryPolicyResultsRepository libraryPolicyResultsRepository;
+    private DefaultWhiteSourceClient client;
+
+    @BeforeEach
+    public void setUp() {
+        WhiteSourceSettings settings = new WhiteSourceSettings();
+        WhiteSourceServerSettings serverSettings = new WhiteSourceServerSettings();
+        serverSettings.setDeeplink("https://whitesource.test/Wss/WSS.html#!project;id=%d");
+        settings.setWhiteSourceServerSettings(Collections.singletonList(serverSettings));
+
+        CollectorItem project = new CollectorItem();
+        project.setId(ObjectId.get());
+        project.setEnabled(true);
+        WhiteSourceComponentRepository componentRepository = mock(WhiteSourceComponentRepository.class);
+        when(componentRepository.findByProjectToken("p1")).thenReturn(Collections.singletonList(project));
+        libraryPolicyResultsRepository = mock(LibraryPolicyResultsRepository.class);
+        when(libraryPolicyResultsRepository.save(any(LibraryPolicyResult.class))).thenAnswer(invocation -> {
+            LibraryPolicyResult libraryPolicyResult = invocation.getArgument(0);
+            libraryPolicyResult.setId(ObjectId.get());
+            return libraryPolicyResult;
+        });
+
+        client = new DefaultWhiteSourceClient(mock(WhiteSourceHttpTransport.class), mock(WhiteSourceAsyncHttpTransport.class),
+                mock(WhiteSourceRateLimiter.class), mock(WhiteSourceRetryPolicy.class), mock(WhiteSourceCircuitBreaker.class),
+                mock(WhiteSourceProjectVitalCache.class), new WhiteSourceStringInterner(settings), mock(WhiteSourceProductCosts.class),
+                settings, componentRepository, mock(CollectorItemRepository.class), libraryPolicyResultsRepository,
+                mock(CollectorRepository.class), mock(BuildRepository.class));
+    }
+
+    @Test
+    public void decodesBase64AlertsAsUtf8() throws HygieiaException {
+        client.process(request(encode(VITALS), encode(ALERTS)));
+
+        ArgumentCaptor<LibraryPolicyResult> saved = ArgumentCaptor.forClass(LibraryPolicyResult.class);
+        verify(libraryPolicyResultsRepository).save(saved.capture());
+        LibraryPolicyResult libraryPolicyResult = saved.getValue();
+        assertEquals("https://whitesource.test/Wss/WSS.html#!project;id=42", libraryPolicyResult.getReportUrl());
+        assertTrue(libraryPolicyResult.getThreats().values().stream()
+                .flatMap(Collection::stream)
+                .map(LibraryPolicyResult.Threat::getComponents)
+                .filter(Objects::nonNull)
+                .flatMap(Collection::stream)
+                .anyMatch(component -> component.startsWith("na\u00efve-lib-1.0.jar")));
+    }
+
+    @Test
+    public void rejectsAlertsThatAreNotBase64() {
+        HygieiaException e = assertThrows(HygieiaException.class, () -> client.process(request(encode(VITALS), "not base64 !")));
+
+        assertEquals(HygieiaException.JSON_FORMAT_ERROR, e.getErrorCode());
+        verify(libraryPolicyResultsRepository, never()).save(any(LibraryPolicyResult.class));
+    }
+
+    @Test
+    public void rejectsBase64AlertsThatAreNotJson() {
+        HygieiaException e = assertThrows(HygieiaException.class, () -> client.process(request(encode(VITALS), encode("[{\"type\":"))));
+
+        assertEquals(HygieiaException.JSON_FORMAT_ERROR, e.getErrorCode());
+        verify(libraryPolicyResultsRepository, never()).save(any(LibraryPolicyResult.class));
+    }
+
+    @Test
+    public void rejectsProjectVitalsThatAreNotBase64() {
+        HygieiaException e = assertThrows(HygieiaException.class, () -> client.process(request("not base64 !", encode(ALERTS))));
+
+        assertEquals(HygieiaException.JSON_FORMAT_ERROR, e.getErrorCode());
+    }
+
+    private static WhiteSourceRequest request(String projectVitals, String alerts) {
+        WhiteSourceRequest request = new WhiteSourceRequest();
+        request.setProjectVitals(projectVitals);
+        request.setAlerts(alerts);
+        request.setOrgName("org");
+        request.setClientReference("correlation");
+        return request;
+    }
+
+    private static String encode(String json) {
+        return Base64.getEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,124 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.LibraryPolicyThreatLevel;
+import com.capitalone.dashboard.model.LicensePolicyType;
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link LicensePolicyClassifier} with the linear scan of the license policy settings it replaced.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.capitalone.dashboard.collector.LicensePolicyClassifierBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LicensePolicyClassifierBenchmark {
+    private static final String[] ALERT_TYPES = {"REJECTED_BY_POLICY_RESOURCE", "POLICY_VIOLATION", "MULTIPLE_LIBRARY_VERSIONS"};
+
+    @Param({"4", "40"})
+    public int policiesPerLevel;
+
+    private WhiteSourceSettings settings;
+    private LicensePolicyClassifier classifier;
+    private String[] alertTypes;
+    private String[] descriptions;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        settings = new WhiteSourceSettings();
+        settings.setCriticalLicensePolicyTypes(policyTypes("critical", random));
+        settings.setHighLicensePolicyTypes(policyTypes("high", random));
+        settings.setMediumLicensePolicyTypes(policyTypes("medium", random));
+        settings.setLowLicensePolicyTypes(policyTypes("low", random));
+        classifier = LicensePolicyClassifier.build(settings);
+
+        alertTypes = new String[1024];
+        descriptions = new String[1024];
+        for (int i = 0; i < descriptions.length; i++) {
+            alertTypes[i] = ALERT_TYPES[random.nextInt(ALERT_TYPES.length)];
+            // most alerts match nothing or a low level policy, which is the worst case for the linear scan
+            String level = random.nextInt(4) == 0 ? "low" : "none";
+            descriptions[i] = "Library is licensed under " + level + " license " + random.nextInt(policiesPerLevel * 2)
+                    + " which was rejected by the organization policy of the product";
+        }
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole blackhole) {
+        for (int i = 0; i < descriptions.length; i++) {
+            blackhole.consume(getLicenseThreatLevel(settings, alertTypes[i], descriptions[i]));
+        }
+    }
+
+    @Benchmark
+    public void classifier(Blackhole blackhole) {
+        for (int i = 0; i < descriptions.length; i++) {
+            blackhole.consume(classifier.classify(alertTypes[i], descriptions[i]));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LicensePolicyClassifierBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private List<LicensePolicyType> policyTypes(String level, Random random) {
+        List<LicensePolicyType> policyTypes = new ArrayList<>();
+        for (String alertType : ALERT_TYPES) {
+            LicensePolicyType policyType = new LicensePolicyType();
+            policyType.setPolicyName(alertType);
+            List<String> descriptions = new ArrayList<>();
+            for (int i = 0; i < policiesPerLevel; i++) {
+                descriptions.add(level + " license " + random.nextInt(policiesPerLevel * 2) + " which");
+            }
+            policyType.setDescriptions(descriptions);
+            policyTypes.add(policyType);
+        }
+        return policyTypes;
+    }
+
+    // the lookup LicensePolicyClassifier replaced in DefaultWhiteSourceClient
+    private static LibraryPolicyThreatLevel getLicenseThreatLevel(WhiteSourceSettings settings, String alertType, String description) {
+        if (getLicenseSeverity(settings.getCriticalLicensePolicyTypes(), alertType, description)) {
+            return LibraryPolicyThreatLevel.Critical;
+        }
+        if (getLicenseSeverity(settings.getHighLicensePolicyTypes(), alertType, description)) {
+            return LibraryPolicyThreatLevel.High;
+        }
+        if (getLicenseSeverity(settings.getMediumLicensePolicyTypes(), alertType, description)) {
+            return LibraryPolicyThreatLevel.Medium;
+        }
+        if (getLicenseSeverity(settings.getLowLicensePolicyTypes(), alertType, description)) {
+            return LibraryPolicyThreatLevel.Low;
+        }
+        return LibraryPolicyThreatLevel.None;
+    }
+
+    private static boolean getLicenseSeverity(List<LicensePolicyType> licensePolicyTypes, String alertType, String description) {
+        return licensePolicyTypes.stream().anyMatch(licensePolicyType -> licensePolicyType.getPolicyName().equalsIgnoreCase(alertType)
+                && licensePolicyType.getDescriptions().stream().anyMatch(description::contains));
+    }
+}
@@ -0,0 +1,83 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.LibraryPolicyThreatLevel;
+import com.capitalone.dashboard.model.LicensePolicyType;
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LicensePolicyClassifierTest {
+    private static final String POLICY = "REJECTED_BY_POLICY_RESOURCE";
+
+    private WhiteSourceSettings settings;
+
+    @BeforeEach
+    public void setUp() {
+        settings = new WhiteSourceSettings();
+        settings.setCriticalLicensePolicyTypes(policyTypes(POLICY, "GPL 3.0"));
+        settings.setHighLicensePolicyTypes(policyTypes(POLICY, "GPL", "Affero"));
+        settings.setMediumLicensePolicyTypes(policyTypes(POLICY, "LGPL 2.1"));
+        settings.setLowLicensePolicyTypes(policyTypes("MULTIPLE_LIBRARY_VERSIONS", "versions"));
+    }
+
+    @Test
+    public void strictestMatchingLevelWins() {
+        LicensePolicyClassifier classifier = LicensePolicyClassifier.build(settings);
+
+        assertEquals(LibraryPolicyThreatLevel.Critical, classifier.classify(POLICY, "Licensed under GPL 3.0 only"));
+        // GPL is contained in LGPL 2.1, the high policy is stricter than the medium one
+        assertEquals(LibraryPolicyThreatLevel.High, classifier.classify(POLICY, "Licensed under LGPL 2.1"));
+        assertEquals(LibraryPolicyThreatLevel.High, classifier.classify(POLICY, "Licensed under Affero"));
+        assertEquals(LibraryPolicyThreatLevel.None, classifier.classify(POLICY, "Licensed under Apache 2.0"));
+    }
+
+    @Test
+    public void alertTypeIsMatchedIgnoringCase() {
+        LicensePolicyClassifier classifier = LicensePolicyClassifier.build(settings);
+
+        assertEquals(LibraryPolicyThreatLevel.Low, classifier.classify("multiple_library_versions", "2 versions found"));
+        assertEquals(LibraryPolicyThreatLevel.None, classifier.classify("MULTIPLE_LIBRARY_VERSIONS", "Licensed under GPL 3.0"));
+        assertEquals(LibraryPolicyThreatLevel.None, classifier.classify(null, "Licensed under GPL 3.0"));
+    }
+
+    @Test
+    public void overlappingDescriptionsAreFoundThroughFailureLinks() {
+        settings.setCriticalLicensePolicyTypes(policyTypes(POLICY, "abcd", "bce"));
+        settings.setHighLicensePolicyTypes(policyTypes(POLICY, "bc"));
+        LicensePolicyClassifier classifier = LicensePolicyClassifier.build(settings);
+
+        assertEquals(LibraryPolicyThreatLevel.Critical, classifier.classify(POLICY, "xabcex"));
+        assertEquals(LibraryPolicyThreatLevel.High, classifier.classify(POLICY, "xabcx"));
+        assertEquals(LibraryPolicyThreatLevel.Critical, classifier.classify(POLICY, "abcabcd"));
+    }
+
+    @Test
+    public void detectsChangedSettings() {
+        LicensePolicyClassifier classifier = LicensePolicyClassifier.build(settings);
+        assertTrue(classifier.isBuiltFrom(settings));
+
+        settings.getLowLicensePolicyTypes().addAll(policyTypes(POLICY, "MIT"));
+        assertFalse(classifier.isBuiltFrom(settings));
+
+        classifier = LicensePolicyClassifier.build(settings);
+        settings.setHighLicensePolicyTypes(policyTypes(POLICY, "GPL"));
+        assertFalse(classifier.isBuiltFrom(settings));
+    }
+
+    private static List<LicensePolicyType> policyTypes(String policyName, String... descriptions) {
+        LicensePolicyType policyType = new LicensePolicyType();
+        policyType.setPolicyName(policyName);
+        policyType.setDescriptions(Arrays.asList(descriptions));
+        List<LicensePolicyType> policyTypes = new ArrayList<>();
+        policyTypes.add(policyType);
+        return policyTypes;
+    }
+}
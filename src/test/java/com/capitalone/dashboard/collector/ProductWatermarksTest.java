@@ -0,0 +1,77 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.WhiteSourceComponent;
+import com.capitalone.dashboard.model.WhiteSourceProjectVital;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProductWatermarksTest {
+    private final Map<String, WhiteSourceProjectVital> projectVitalMap = new HashMap<>();
+    private final Map<ObjectId, Long> storedEvaluations = new HashMap<>();
+
+    @Test
+    public void productIsUnchangedWhenAllResultsAreCurrent() {
+        WhiteSourceComponent first = project("product1", "project1", 100L, 100L);
+        WhiteSourceComponent second = project("product1", "project2", 100L, 200L);
+        List<WhiteSourceComponent> projects = Arrays.asList(first, second);
+
+        ProductWatermarks watermarks = new ProductWatermarks(projects, projectVitalMap, storedEvaluations);
+
+        assertFalse(watermarks.isChanged("product1"));
+        assertEquals(1, watermarks.getUnchangedProductCount());
+        Set<WhiteSourceComponent> unchanged = watermarks.getUnchangedProjects(projects);
+        assertEquals(2, unchanged.size());
+    }
+
+    @Test
+    public void newerVitalMarksTheWholeProductChanged() {
+        WhiteSourceComponent current = project("product1", "project1", 100L, 100L);
+        WhiteSourceComponent rescanned = project("product1", "project2", 300L, 200L);
+
+        ProductWatermarks watermarks = new ProductWatermarks(Arrays.asList(current, rescanned), projectVitalMap, storedEvaluations);
+
+        assertTrue(watermarks.isChanged("product1"));
+        assertTrue(watermarks.getUnchangedProjects(Arrays.asList(current, rescanned)).isEmpty());
+    }
+
+    @Test
+    public void missingVitalOrStoredResultMarksProductChanged() {
+        WhiteSourceComponent noVital = project("product1", "project1", null, 100L);
+        WhiteSourceComponent neverCollected = project("product2", "project2", 100L, null);
+        WhiteSourceComponent current = project("product3", "project3", 100L, 100L);
+
+        ProductWatermarks watermarks = new ProductWatermarks(Arrays.asList(noVital, neverCollected, current), projectVitalMap, storedEvaluations);
+
+        assertTrue(watermarks.isChanged("product1"));
+        assertTrue(watermarks.isChanged("product2"));
+        assertFalse(watermarks.isChanged("product3"));
+        assertTrue(watermarks.isChanged("unknown"));
+    }
+
+    private WhiteSourceComponent project(String productToken, String projectToken, Long lastUpdateDate, Long evaluationTimestamp) {
+        WhiteSourceComponent project = new WhiteSourceComponent();
+        project.setId(ObjectId.get());
+        project.setProductToken(productToken);
+        project.setProjectToken(projectToken);
+        if (lastUpdateDate != null) {
+            WhiteSourceProjectVital vital = new WhiteSourceProjectVital();
+            vital.setToken(projectToken);
+            vital.setLastUpdateDate(lastUpdateDate);
+            projectVitalMap.put(projectToken, vital);
+        }
+        if (evaluationTimestamp != null) {
+            storedEvaluations.put(project.getId(), evaluationTimestamp);
+        }
+        return project;
+    }
+}
@@ -0,0 +1,70 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.LibraryPolicyResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProductWorkQueueTest {
+    private final Map<String, CompletableFuture<Map<String, LibraryPolicyResult>>> fetches = new LinkedHashMap<>();
+
+    @Test
+    public void fetchesAtMostFetchConcurrencyProductsInOrder() throws InterruptedException {
+        ProductWorkQueue queue = new ProductWorkQueue(Arrays.asList("p1", "p2", "p3"), 2, 10, this::fetch).start();
+        assertEquals(Arrays.asList("p1", "p2"), new ArrayList<>(fetches.keySet()));
+
+        fetches.get("p2").complete(Collections.singletonMap("project", new LibraryPolicyResult()));
+        assertEquals(Arrays.asList("p1", "p2", "p3"), new ArrayList<>(fetches.keySet()));
+
+        ProductWorkQueue.ProductAlerts alerts = queue.take();
+        assertEquals("p2", alerts.getProductToken());
+        assertTrue(alerts.getResults().containsKey("project"));
+    }
+
+    @Test
+    public void holdsBackFetchesWhileTheQueueIsFull() throws InterruptedException {
+        ProductWorkQueue queue = new ProductWorkQueue(Arrays.asList("p1", "p2", "p3"), 2, 2, this::fetch).start();
+        fetches.get("p1").complete(null);
+        fetches.get("p2").complete(null);
+        // both fetched products wait for a worker, no room for p3
+        assertEquals(2, fetches.size());
+
+        queue.take();
+        assertEquals(3, fetches.size());
+    }
+
+    @Test
+    public void failedAndSynchronousFetchesCompleteEveryProduct() throws InterruptedException {
+        List<String> products = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            products.add("p" + i);
+        }
+        CompletableFuture<Map<String, LibraryPolicyResult>> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("failed"));
+        ProductWorkQueue queue = new ProductWorkQueue(products, 4, 8, productToken -> failed).start();
+
+        int taken = 0;
+        for (ProductWorkQueue.ProductAlerts alerts = queue.take(); alerts != null; alerts = queue.take()) {
+            assertTrue(alerts.getResults().isEmpty());
+            taken++;
+        }
+        assertEquals(products.size(), taken);
+        assertNull(queue.take());
+    }
+
+    private CompletableFuture<Map<String, LibraryPolicyResult>> fetch(String productToken) {
+        CompletableFuture<Map<String, LibraryPolicyResult>> future = new CompletableFuture<>();
+        fetches.put(productToken, future);
+        return future;
+    }
+}
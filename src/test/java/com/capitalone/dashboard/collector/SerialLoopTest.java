@@ -0,0 +1,49 @@
+package com.capitalone.dashboard.collector;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SerialLoopTest {
+
+    @Test
+    public void servesRunsRequestedByTheActionWithoutRecursing() {
+        AtomicInteger runs = new AtomicInteger();
+        AtomicInteger depth = new AtomicInteger();
+        AtomicInteger maxDepth = new AtomicInteger();
+        SerialLoop[] loop = new SerialLoop[1];
+        loop[0] = new SerialLoop(() -> {
+            maxDepth.accumulateAndGet(depth.incrementAndGet(), Math::max);
+            // like a call completing right away and asking for the next one
+            if (runs.incrementAndGet() < 100000) {
+                loop[0].run();
+            }
+            depth.decrementAndGet();
+        });
+
+        loop[0].run();
+
+        assertEquals(100000, runs.get());
+        assertEquals(1, maxDepth.get());
+    }
+
+    @Test
+    public void runsAgainForEveryRequest() {
+        AtomicInteger runs = new AtomicInteger();
+        SerialLoop[] loop = new SerialLoop[1];
+        loop[0] = new SerialLoop(() -> {
+            if (runs.incrementAndGet() == 1) {
+                loop[0].run();
+                loop[0].run();
+            }
+        });
+
+        loop[0].run();
+        assertEquals(3, runs.get());
+
+        loop[0].run();
+        assertEquals(4, runs.get());
+    }
+}
@@ -1,14 +1,18 @@
 package com.capitalone.dashboard.collector;
 
-import com.capitalone.dashboard.repository.LibraryReferenceRepository;
 import com.capitalone.dashboard.repository.WhiteSourceCollectorRepository;
 import com.capitalone.dashboard.repository.WhiteSourceComponentRepository;
+import com.capitalone.dashboard.repository.WhiteSourceCustomComponentRepository;
+import com.capitalone.dashboard.repository.WhiteSourceCustomLibraryPolicyRepository;
+import com.capitalone.dashboard.repository.WhiteSourceCustomLibraryReferenceRepository;
 import com.capitalone.dashboard.settings.WhiteSourceSettings;
 import org.springframework.scheduling.TaskScheduler;
 
 public class TestCollector extends WhiteSourceCollectorTask{
-    public TestCollector(TaskScheduler taskScheduler, WhiteSourceCollectorRepository whiteSourceCollectorRepository, WhiteSourceComponentRepository whiteSourceComponentRepository, WhiteSourceClient whiteSourceClient, WhiteSourceSettings whiteSourceSettings, LibraryReferenceRepository libraryReferenceRepository, AsyncService dataRefreshService) {
-        super(taskScheduler, whiteSourceCollectorRepository, whiteSourceComponentRepository, whiteSourceClient, new WhiteSourceSettings(), libraryReferenceRepository, dataRefreshService);
+    public TestCollector(TaskScheduler taskScheduler, WhiteSourceCollectorRepository whiteSourceCollectorRepository, WhiteSourceComponentRepository whiteSourceComponentRepository, WhiteSourceClient whiteSourceClient, WhiteSourceSettings whiteSourceSettings, AsyncService dataRefreshService,
+                         WhiteSourceHttpTransport transport, WhiteSourceRateLimiter rateLimiter, WhiteSourceRetryPolicy retryPolicy, WhiteSourceCircuitBreaker circuitBreaker, WhiteSourceProjectVitalCache projectVitalCache, WhiteSourceAsyncHttpTransport asyncTransport, WhiteSourceCustomLibraryPolicyRepository libraryPolicyRepository, WhiteSourceStringInterner stringInterner, WhiteSourceProductCosts productCosts, WhiteSourceScanDataWriter scanDataWriter, WhiteSourceCustomComponentRepository customComponentRepository, WhiteSourceCustomLibraryReferenceRepository customLibraryReferenceRepository, WhiteSourceLibraryIndex libraryIndex, WhiteSourceRunCheckpoints runCheckpoints) {
+        super(taskScheduler, whiteSourceCollectorRepository, whiteSourceComponentRepository, whiteSourceClient, new WhiteSourceSettings(), dataRefreshService,
+                transport, rateLimiter, retryPolicy, circuitBreaker, projectVitalCache, asyncTransport, libraryPolicyRepository, stringInterner, productCosts, scanDataWriter, customComponentRepository, customLibraryReferenceRepository, libraryIndex, runCheckpoints);
     }
 
     @Override
@@ -0,0 +1,70 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.config.TestConstants;
+import com.capitalone.dashboard.model.WhiteSourceAlert;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WhiteSourceAlertReaderTest {
+
+    @Test
+    public void readsProductAlertsResponse() throws IOException {
+        List<WhiteSourceAlert> alerts = new ArrayList<>();
+        try (Reader reader = getReader("product-alert-" + TestConstants.PRODUCT_TOKEN_Test3Product + ".json")) {
+            assertEquals(329, WhiteSourceAlertReader.readAlerts(reader, alerts::add));
+        }
+        assertEquals(329, alerts.size());
+        assertEquals(113, alerts.stream().filter(a -> TestConstants.PROJECT_TOKEN_Test6Project.equals(a.getProjectToken())).count());
+        assertEquals(199, alerts.stream().filter(WhiteSourceAlert::hasVulnerability).count());
+
+        WhiteSourceAlert policyAlert = alerts.get(0);
+        assertEquals("REJECTED_BY_POLICY_RESOURCE", policyAlert.getType());
+        assertEquals("json-20140107.jar", policyAlert.getLibraryFilename());
+        assertEquals(1607565314000L, policyAlert.getTime());
+        assertFalse(policyAlert.hasVulnerability());
+
+        WhiteSourceAlert vulnerabilityAlert = alerts.stream().filter(WhiteSourceAlert::hasVulnerability).findFirst().orElseThrow();
+        assertEquals("hibernate-core-4.2.5.Final.jar", vulnerabilityAlert.getLibraryFilename());
+        assertEquals("High:1,Medium:1,", vulnerabilityAlert.getDescription());
+        assertEquals("medium", vulnerabilityAlert.getSeverity());
+        assertEquals(4.0, vulnerabilityAlert.getScore());
+        assertEquals("medium", vulnerabilityAlert.getCvss3Severity());
+        assertEquals(6.5, vulnerabilityAlert.getCvss3Score());
+    }
+
+    @Test
+    public void readsPushedAlertArray() throws IOException {
+        String payload = "[{\"type\":\"SECURITY_VULNERABILITY\",\"description\":null,\"time\":1609245843000,"
+                + "\"library\":{\"filename\":\"a.jar\",\"description\":\"library description\"},"
+                + "\"vulnerability\":{\"severity\":\"high\",\"score\":7}}]";
+        List<WhiteSourceAlert> alerts = new ArrayList<>();
+        assertEquals(1, WhiteSourceAlertReader.readAlerts(new StringReader(payload), alerts::add));
+        WhiteSourceAlert alert = alerts.get(0);
+        assertEquals("", alert.getDescription());
+        assertEquals("a.jar", alert.getLibraryFilename());
+        assertTrue(alert.hasVulnerability());
+        assertEquals(7.0, alert.getScore());
+    }
+
+    @Test
+    public void readsEmptyAndErrorResponses() throws IOException {
+        assertEquals(0, WhiteSourceAlertReader.readAlerts(new StringReader(""), a -> { }));
+        assertEquals(0, WhiteSourceAlertReader.readAlerts(new StringReader("{\"alerts\":[]}"), a -> { }));
+        assertEquals(0, WhiteSourceAlertReader.readAlerts(new StringReader("{\"errorCode\":2015,\"errorMessage\":\"error\"}"), a -> { }));
+    }
+
+    private static Reader getReader(String fileName) {
+        return new InputStreamReader(WhiteSourceAlertReaderTest.class.getResourceAsStream(fileName), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,126 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.settings.WhiteSourceServerSettings;
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+import com.capitalone.dashboard.utils.Constants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WhiteSourceCircuitBreakerTest {
+    private static final Constants.RequestType REQUEST_TYPE = Constants.RequestType.getProjectAlerts;
+    private WhiteSourceSettings settings;
+    private WhiteSourceServerSettings serverSettings;
+    private WhiteSourceCircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    public void setUp() {
+        settings = new WhiteSourceSettings();
+        settings.setErrorThreshold(2);
+        settings.setErrorResetWindow(3600000);
+        serverSettings = new WhiteSourceServerSettings();
+        serverSettings.setInstanceUrl("https://whitesource.test");
+        serverSettings.setOrgToken("orgToken");
+        circuitBreaker = new WhiteSourceCircuitBreaker(settings);
+    }
+
+    @Test
+    public void staysClosedBelowTheThreshold() {
+        failCall();
+        circuitBreaker.onSuccess(serverSettings);
+        failCall();
+
+        assertFalse(circuitBreaker.isOpen(serverSettings));
+        assertDoesNotThrow(() -> circuitBreaker.acquirePermission(REQUEST_TYPE, serverSettings));
+    }
+
+    @Test
+    public void opensAfterConsecutiveServerFailures() {
+        failCall();
+        failCall();
+
+        assertTrue(circuitBreaker.isOpen(serverSettings));
+        assertThrows(WhiteSourceCircuitOpenException.class, () -> circuitBreaker.acquirePermission(REQUEST_TYPE, serverSettings));
+        assertThrows(WhiteSourceCircuitOpenException.class, () -> circuitBreaker.checkClosed(serverSettings));
+    }
+
+    @Test
+    public void ignoresClientErrorsAndThrottling() {
+        circuitBreaker.acquirePermission(REQUEST_TYPE, serverSettings);
+        circuitBreaker.onFailure(serverSettings, new WhiteSourceApiException(REQUEST_TYPE, 400, "bad request"));
+        circuitBreaker.acquirePermission(REQUEST_TYPE, serverSettings);
+        circuitBreaker.onFailure(serverSettings, new WhiteSourceApiException(REQUEST_TYPE, 429, "too many requests"));
+
+        assertFalse(circuitBreaker.isOpen(serverSettings));
+    }
+
+    @Test
+    public void halfOpenLetsOneProbeThroughAndClosesWhenItSucceeds() {
+        openCircuit();
+        settings.setErrorResetWindow(0);
+
+        circuitBreaker.acquirePermission(REQUEST_TYPE, serverSettings);
+        // a second call waits for the probe
+        assertThrows(WhiteSourceCircuitOpenException.class, () -> circuitBreaker.acquirePermission(REQUEST_TYPE, serverSettings));
+
+        circuitBreaker.onSuccess(serverSettings);
+        settings.setErrorResetWindow(3600000);
+
+        assertFalse(circuitBreaker.isOpen(serverSettings));
+        assertDoesNotThrow(() -> circuitBreaker.acquirePermission(REQUEST_TYPE, serverSettings));
+        // one failure after closing is below the threshold again
+        failCall();
+        assertFalse(circuitBreaker.isOpen(serverSettings));
+    }
+
+    @Test
+    public void halfOpenReopensWhenTheProbeFails() {
+        openCircuit();
+        settings.setErrorResetWindow(0);
+
+        circuitBreaker.acquirePermission(REQUEST_TYPE, serverSettings);
+        settings.setErrorResetWindow(3600000);
+        circuitBreaker.onFailure(serverSettings, new SocketTimeoutException("Read timed out"));
+
+        assertTrue(circuitBreaker.isOpen(serverSettings));
+        assertThrows(WhiteSourceCircuitOpenException.class, () -> circuitBreaker.acquirePermission(REQUEST_TYPE, serverSettings));
+    }
+
+    @Test
+    public void interruptedProbeLetsTheNextProbeThrough() {
+        openCircuit();
+        settings.setErrorResetWindow(0);
+
+        circuitBreaker.acquirePermission(REQUEST_TYPE, serverSettings);
+        circuitBreaker.onFailure(serverSettings, new InterruptedIOException("interrupted"));
+
+        assertDoesNotThrow(() -> circuitBreaker.acquirePermission(REQUEST_TYPE, serverSettings));
+    }
+
+    @Test
+    public void isOffWithoutThreshold() {
+        settings.setErrorThreshold(0);
+        openCircuit();
+
+        assertFalse(circuitBreaker.isOpen(serverSettings));
+        assertDoesNotThrow(() -> circuitBreaker.acquirePermission(REQUEST_TYPE, serverSettings));
+    }
+
+    private void openCircuit() {
+        failCall();
+        failCall();
+    }
+
+    private void failCall() {
+        circuitBreaker.acquirePermission(REQUEST_TYPE, serverSettings);
+        circuitBreaker.onFailure(serverSettings, new WhiteSourceApiException(REQUEST_TYPE, "connection reset", new IOException("Connection reset")));
+    }
+}
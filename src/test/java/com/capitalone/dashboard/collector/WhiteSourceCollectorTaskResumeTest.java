@@ -0,0 +1,123 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.DataRefresh;
+import com.capitalone.dashboard.model.WhiteSourceCollector;
+import com.capitalone.dashboard.model.WhiteSourceComponent;
+import com.capitalone.dashboard.model.WhiteSourceRunCheckpoint;
+import com.capitalone.dashboard.model.WhitesourceOrg;
+import com.capitalone.dashboard.repository.WhiteSourceCollectorRepository;
+import com.capitalone.dashboard.repository.WhiteSourceComponentRepository;
+import com.capitalone.dashboard.repository.WhiteSourceCustomComponentRepository;
+import com.capitalone.dashboard.repository.WhiteSourceCustomLibraryPolicyRepository;
+import com.capitalone.dashboard.repository.WhiteSourceCustomLibraryReferenceRepository;
+import com.capitalone.dashboard.settings.WhiteSourceServerSettings;
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WhiteSourceCollectorTaskResumeTest {
+    private static final String ORG = "org";
+    private final ObjectId collectorId = ObjectId.get();
+    private WhiteSourceClient whiteSourceClient;
+    private AsyncService asyncService;
+    private WhiteSourceRunCheckpoints runCheckpoints;
+    private WhiteSourceCollector collector;
+    private WhiteSourceCollectorTask task;
+    private WhitesourceOrg whitesourceOrg;
+    private WhiteSourceComponent savedProject;
+    private WhiteSourceComponent interruptedProject;
+    private WhiteSourceRunCheckpoint checkpoint;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        WhiteSourceSettings settings = new WhiteSourceSettings();
+        settings.setOptimizeCollection(true);
+        WhiteSourceServerSettings serverSettings = new WhiteSourceServerSettings();
+        serverSettings.setInstanceUrl("https://whitesource.test");
+        serverSettings.setOrgToken("orgToken");
+        settings.setWhiteSourceServerSettings(Collections.singletonList(serverSettings));
+
+        collector = WhiteSourceCollector.prototype(Collections.singletonList(serverSettings.getInstanceUrl()));
+        collector.setId(collectorId);
+        collector.setLastExecuted(System.currentTimeMillis() - 3600000);
+
+        checkpoint = new WhiteSourceRunCheckpoint(collectorId, ORG, System.currentTimeMillis() - 60000);
+        checkpoint.setResumed(true);
+        savedProject = project("p1", "product1", checkpoint.getRunStart() + 1000);
+        interruptedProject = project("p2", "product2", checkpoint.getRunStart() - 1000);
+
+        WhiteSourceComponentRepository componentRepository = mock(WhiteSourceComponentRepository.class);
+        when(componentRepository.findEnabledComponents(collectorId, ORG)).thenReturn(Arrays.asList(savedProject, interruptedProject));
+        whitesourceOrg = new WhitesourceOrg(ORG, "orgToken");
+        whiteSourceClient = mock(WhiteSourceClient.class);
+        when(whiteSourceClient.getOrgDetails(serverSettings)).thenReturn(whitesourceOrg);
+        when(whiteSourceClient.getChangeRequestLog(eq(whitesourceOrg), anyLong(), eq(serverSettings))).thenReturn(Collections.emptyList());
+        when(whiteSourceClient.getProducts(whitesourceOrg, serverSettings)).thenReturn(Collections.emptyList());
+        when(whiteSourceClient.getOrgProjectVitals(whitesourceOrg, serverSettings)).thenReturn(Collections.emptyMap());
+        when(whiteSourceClient.getAffectedProjectsForOrganization(eq(whitesourceOrg), anyLong(), eq(serverSettings))).thenReturn(Collections.emptySet());
+        asyncService = mock(AsyncService.class);
+        when(asyncService.fetchProductAlerts(anyCollection(), any(), any(), any(), any())).thenReturn(mock(ProductWorkQueue.class));
+        when(asyncService.saveProductAlertsAsync(any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new DataRefresh(new HashSet<>(Collections.singleton(interruptedProject)))));
+        runCheckpoints = mock(WhiteSourceRunCheckpoints.class);
+        when(runCheckpoints.start(collectorId, ORG)).thenReturn(checkpoint);
+        WhiteSourceProductCosts productCosts = mock(WhiteSourceProductCosts.class);
+        when(productCosts.longestFirst(anyCollection(), any())).thenAnswer(invocation -> new ArrayList<>((Collection<Object>) invocation.getArgument(0)));
+
+        task = new WhiteSourceCollectorTask(mock(TaskScheduler.class), mock(WhiteSourceCollectorRepository.class), componentRepository,
+                whiteSourceClient, settings, asyncService, mock(WhiteSourceHttpTransport.class), mock(WhiteSourceRateLimiter.class),
+                mock(WhiteSourceRetryPolicy.class), mock(WhiteSourceCircuitBreaker.class), mock(WhiteSourceProjectVitalCache.class),
+                mock(WhiteSourceAsyncHttpTransport.class), mock(WhiteSourceCustomLibraryPolicyRepository.class), mock(WhiteSourceStringInterner.class),
+                productCosts, mock(WhiteSourceScanDataWriter.class), mock(WhiteSourceCustomComponentRepository.class),
+                mock(WhiteSourceCustomLibraryReferenceRepository.class), mock(WhiteSourceLibraryIndex.class), runCheckpoints, Runnable::run);
+    }
+
+    @Test
+    public void resumedRefreshSkipsProjectsSavedByTheInterruptedOne() {
+        task.collect(collector);
+
+        // p1 was saved, with its libraries, after the interrupted refresh started
+        verify(asyncService).fetchProductAlerts(eq(Collections.singletonList("product2")), any(), any(), any(), any());
+        verify(asyncService, never()).getAndUpdateDataByProjectAsync(any(), any(), any(), any());
+        verify(runCheckpoints).finish(checkpoint);
+    }
+
+    @Test
+    public void failedRefreshAbandonsItsCheckpoint() throws Exception {
+        when(whiteSourceClient.getAffectedProjectsForOrganization(eq(whitesourceOrg), anyLong(), any())).thenThrow(new IllegalStateException("failed"));
+
+        task.collect(collector);
+
+        verify(runCheckpoints).abandon(checkpoint);
+        verify(runCheckpoints, never()).finish(any());
+    }
+
+    private static WhiteSourceComponent project(String projectToken, String productToken, long lastUpdated) {
+        WhiteSourceComponent project = new WhiteSourceComponent();
+        project.setId(ObjectId.get());
+        project.setOrgName(ORG);
+        project.setProjectToken(projectToken);
+        project.setProductToken(productToken);
+        project.setLastUpdated(lastUpdated);
+        return project;
+    }
+}
@@ -0,0 +1,76 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.settings.WhiteSourceServerSettings;
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+import org.apache.http.conn.routing.HttpRoute;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class WhiteSourceConnectionLimitsTest {
+    private static final String SERVER = "https://whitesource.test";
+    private static final String OTHER_SERVER = "https://other.whitesource.test";
+
+    @Test
+    public void bothPoolsTogetherStayWithinTheServerLimits() {
+        WhiteSourceSettings settings = settings(server(SERVER, 8), server(OTHER_SERVER, 0));
+        settings.getHttpClientSettings().setMaxConnectionsPerServer(5);
+
+        WhiteSourceConnectionLimits blocking = WhiteSourceConnectionLimits.blocking(settings);
+        WhiteSourceConnectionLimits async = WhiteSourceConnectionLimits.async(settings);
+
+        HttpRoute server = WhiteSourceHttpTransport.getRoute(SERVER);
+        HttpRoute otherServer = WhiteSourceHttpTransport.getRoute(OTHER_SERVER);
+        assertEquals(4, async.getMaxPerServer().get(server).intValue());
+        assertEquals(4, blocking.getMaxPerServer().get(server).intValue());
+        assertEquals(5, async.getMaxPerServer().get(otherServer) + blocking.getMaxPerServer().get(otherServer));
+        assertEquals(5, async.getDefaultMaxPerServer() + blocking.getDefaultMaxPerServer());
+        // no total configured, the sum of the servers
+        assertEquals(13, async.getMaxTotal() + blocking.getMaxTotal());
+    }
+
+    @Test
+    public void bothPoolsTogetherStayWithinTheTotalLimit() {
+        WhiteSourceSettings settings = settings(server(SERVER, 8), server(OTHER_SERVER, 8));
+        settings.getHttpClientSettings().setMaxConnectionsTotal(10);
+        settings.getHttpClientSettings().setAsyncConnectionShare(0.8);
+
+        assertEquals(8, WhiteSourceConnectionLimits.async(settings).getMaxTotal());
+        assertEquals(2, WhiteSourceConnectionLimits.blocking(settings).getMaxTotal());
+    }
+
+    @Test
+    public void everyPoolKeepsAConnection() {
+        assertEquals(1, WhiteSourceConnectionLimits.split(10, 0, true));
+        assertEquals(9, WhiteSourceConnectionLimits.split(10, 0, false));
+        assertEquals(9, WhiteSourceConnectionLimits.split(10, 1, true));
+        assertEquals(1, WhiteSourceConnectionLimits.split(10, 1, false));
+        assertEquals(1, WhiteSourceConnectionLimits.split(1, 0.5, true));
+        assertEquals(1, WhiteSourceConnectionLimits.split(1, 0.5, false));
+    }
+
+    @Test
+    public void orgsOfOneServerShareItsConnections() {
+        WhiteSourceSettings settings = settings(server(SERVER, 4), server(SERVER + "/", 6));
+
+        WhiteSourceConnectionLimits async = WhiteSourceConnectionLimits.async(settings);
+
+        assertEquals(1, async.getMaxPerServer().size());
+        assertEquals(3, async.getMaxPerServer().get(WhiteSourceHttpTransport.getRoute(SERVER)).intValue());
+    }
+
+    private static WhiteSourceSettings settings(WhiteSourceServerSettings... servers) {
+        WhiteSourceSettings settings = new WhiteSourceSettings();
+        settings.setWhiteSourceServerSettings(Arrays.asList(servers));
+        return settings;
+    }
+
+    private static WhiteSourceServerSettings server(String instanceUrl, int maxConnections) {
+        WhiteSourceServerSettings serverSettings = new WhiteSourceServerSettings();
+        serverSettings.setInstanceUrl(instanceUrl);
+        serverSettings.setMaxConnections(maxConnections);
+        return serverSettings;
+    }
+}
@@ -0,0 +1,85 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.utils.Constants;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.entity.BasicHttpEntity;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WhiteSourceHttpTransportTest {
+    private static final String BODY = "{\"alerts\":[{\"type\":\"SECURITY_VULNERABILITY\"},{\"type\":\"SECURITY_VULNERABILITY\"}]}";
+
+    @Test
+    public void decodesGzipResponse() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(BODY.getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(BODY, decode(out.toByteArray(), "gzip"));
+    }
+
+    @Test
+    public void decodesDeflateResponse() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(out)) {
+            deflate.write(BODY.getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(BODY, decode(out.toByteArray(), "deflate"));
+    }
+
+    @Test
+    public void passesThroughUnencodedResponse() throws IOException {
+        InputStream in = new ByteArrayInputStream(BODY.getBytes(StandardCharsets.UTF_8));
+        assertSame(in, WhiteSourceHttpTransport.decode(Constants.RequestType.getProductAlerts, in, entity(in, null)));
+        assertEquals(BODY, decode(BODY.getBytes(StandardCharsets.UTF_8), "identity"));
+    }
+
+    @Test
+    public void rejectsUnknownEncoding() {
+        InputStream in = new ByteArrayInputStream(BODY.getBytes(StandardCharsets.UTF_8));
+        assertThrows(WhiteSourceApiException.class,
+                () -> WhiteSourceHttpTransport.decode(Constants.RequestType.getProductAlerts, in, entity(in, "br")));
+    }
+
+    @Test
+    public void routesByServer() {
+        HttpRoute https = WhiteSourceHttpTransport.getRoute("https://saas.whitesourcesoftware.com/api/v1.3");
+        assertTrue(https.isSecure());
+        assertEquals(443, https.getTargetHost().getPort());
+        assertEquals(https, WhiteSourceHttpTransport.getRoute("https://SAAS.whitesourcesoftware.com:443"));
+
+        HttpRoute http = WhiteSourceHttpTransport.getRoute("http://whitesource.company.com:8080/api/v1.3");
+        assertFalse(http.isSecure());
+        assertEquals(8080, http.getTargetHost().getPort());
+    }
+
+    private static String decode(byte[] body, String encoding) throws IOException {
+        InputStream in = new ByteArrayInputStream(body);
+        InputStream decoded = WhiteSourceHttpTransport.decode(Constants.RequestType.getProductAlerts, in, entity(in, encoding));
+        return IOUtils.toString(decoded, StandardCharsets.UTF_8);
+    }
+
+    private static BasicHttpEntity entity(InputStream in, String encoding) {
+        BasicHttpEntity entity = new BasicHttpEntity();
+        entity.setContent(in);
+        entity.setContentLength(-1);
+        if (encoding != null) {
+            entity.setContentEncoding(encoding);
+        }
+        return entity;
+    }
+}
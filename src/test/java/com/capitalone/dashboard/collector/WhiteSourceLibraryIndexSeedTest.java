@@ -0,0 +1,86 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.config.EmbeddedMongoTest;
+import com.capitalone.dashboard.model.LibraryPolicyReference;
+import com.capitalone.dashboard.model.WhiteSourceComponent;
+import com.capitalone.dashboard.repository.WhiteSourceCustomLibraryReferenceRepository;
+import com.capitalone.dashboard.repository.WhiteSourceProjectLibrariesRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WhiteSourceLibraryIndexSeedTest extends EmbeddedMongoTest {
+    private static final String ORG = "org";
+    private WhiteSourceProjectLibrariesRepository projectLibrariesRepository;
+    private WhiteSourceCustomLibraryReferenceRepository libraryReferenceRepository;
+
+    @BeforeEach
+    public void setUp() {
+        projectLibrariesRepository = new WhiteSourceProjectLibrariesRepository(template);
+        libraryReferenceRepository = new WhiteSourceCustomLibraryReferenceRepository(template);
+        // library references of projects collected before the upgrade, no stored index yet
+        Map<String, Set<WhiteSourceComponent>> references = new HashMap<>();
+        references.put("guava", references(project("p1"), project("p2")));
+        references.put("gson", references(project("p2")));
+        libraryReferenceRepository.addProjectReferences(ORG, references);
+    }
+
+    @Test
+    public void findsProjectsCollectedBeforeTheUpgradeOnceOthersAreUpdated() {
+        WhiteSourceLibraryIndex libraryIndex = new WhiteSourceLibraryIndex(projectLibrariesRepository, libraryReferenceRepository);
+        libraryIndex.load(ORG);
+
+        // step (1) collects p2 and p3 before the change log is resolved in step (3)
+        libraryIndex.update(ORG, "p2", Collections.singletonList("gson"));
+        libraryIndex.update(ORG, "p3", Collections.singletonList("guava"));
+
+        assertEquals(new HashSet<>(Arrays.asList("p1", "p3")), libraryIndex.getProjectTokens(ORG, Collections.singletonList("guava")));
+        assertEquals(Collections.singleton("p2"), libraryIndex.getProjectTokens(ORG, Collections.singletonList("gson")));
+    }
+
+    @Test
+    public void storesTheSeededIndexForTheNextRestart() {
+        new WhiteSourceLibraryIndex(projectLibrariesRepository, libraryReferenceRepository).load(ORG);
+        template.remove(new Query(), LibraryPolicyReference.class);
+
+        WhiteSourceLibraryIndex restarted = new WhiteSourceLibraryIndex(projectLibrariesRepository, libraryReferenceRepository);
+        restarted.load(ORG);
+
+        assertEquals(new HashSet<>(Arrays.asList("p1", "p2")), restarted.getProjectTokens(ORG, Collections.singletonList("guava")));
+        assertEquals(Collections.singleton("p2"), restarted.getProjectTokens(ORG, Collections.singletonList("gson")));
+    }
+
+    @Test
+    public void staysEmptyWithoutReferences() {
+        WhiteSourceLibraryIndex libraryIndex = new WhiteSourceLibraryIndex(projectLibrariesRepository, libraryReferenceRepository);
+        libraryIndex.load("other");
+
+        assertTrue(libraryIndex.isEmpty("other"));
+        assertTrue(projectLibrariesRepository.findByOrgName("other").isEmpty());
+    }
+
+    private static WhiteSourceComponent project(String projectToken) {
+        WhiteSourceComponent project = new WhiteSourceComponent();
+        project.setId(ObjectId.get());
+        project.setOrgName(ORG);
+        project.setProjectToken(projectToken);
+        return project;
+    }
+
+    private static Set<WhiteSourceComponent> references(WhiteSourceComponent... projects) {
+        Set<WhiteSourceComponent> references = new HashSet<>();
+        Arrays.stream(projects).map(WhiteSourceScanDataWriter::toReference).forEach(references::add);
+        return references;
+    }
+}
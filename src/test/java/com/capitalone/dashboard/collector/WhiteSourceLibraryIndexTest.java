@@ -0,0 +1,93 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.WhiteSourceProjectLibraries;
+import com.capitalone.dashboard.repository.WhiteSourceCustomLibraryReferenceRepository;
+import com.capitalone.dashboard.repository.WhiteSourceProjectLibrariesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WhiteSourceLibraryIndexTest {
+    private static final String ORG = "org";
+    private WhiteSourceProjectLibrariesRepository repository;
+    private WhiteSourceLibraryIndex libraryIndex;
+
+    @BeforeEach
+    public void setUp() {
+        repository = mock(WhiteSourceProjectLibrariesRepository.class);
+        when(repository.findByOrgName(ORG)).thenReturn(Arrays.asList(
+                new WhiteSourceProjectLibraries(ORG, "p1", Arrays.asList("guava", "gson")),
+                new WhiteSourceProjectLibraries(ORG, "p2", Collections.singletonList("gson"))));
+        libraryIndex = new WhiteSourceLibraryIndex(repository, mock(WhiteSourceCustomLibraryReferenceRepository.class));
+        libraryIndex.load(ORG);
+    }
+
+    @Test
+    public void findsProjectsOfLoadedLibraries() {
+        assertFalse(libraryIndex.isEmpty(ORG));
+        assertEquals(new HashSet<>(Arrays.asList("p1", "p2")), libraryIndex.getProjectTokens(ORG, Arrays.asList("gson", "unknown")));
+        assertEquals(Collections.singleton("p1"), libraryIndex.getProjectTokens(ORG, Collections.singletonList("guava")));
+        assertTrue(libraryIndex.getProjectTokens("other", Collections.singletonList("gson")).isEmpty());
+    }
+
+    @Test
+    public void updateReplacesTheLibrariesOfAProject() {
+        libraryIndex.update(ORG, "p1", Collections.singletonList("jackson"));
+
+        assertTrue(libraryIndex.getProjectTokens(ORG, Collections.singletonList("guava")).isEmpty());
+        assertEquals(Collections.singleton("p2"), libraryIndex.getProjectTokens(ORG, Collections.singletonList("gson")));
+        assertEquals(Collections.singleton("p1"), libraryIndex.getProjectTokens(ORG, Collections.singletonList("jackson")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void savesOnlyGivenProjectsChangedSinceLoad() {
+        libraryIndex.save(ORG, Arrays.asList("p1", "p2"));
+        verify(repository, never()).upsert(any(), anyCollection());
+
+        libraryIndex.update(ORG, "p2", Collections.singletonList("gson"));
+        libraryIndex.update(ORG, "p3", Collections.singletonList("gson"));
+        libraryIndex.update(ORG, "p4", Collections.singletonList("guava"));
+        libraryIndex.save(ORG, Arrays.asList("p2", "p3"));
+
+        ArgumentCaptor<Collection<WhiteSourceProjectLibraries>> saved = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).upsert(eq(ORG), saved.capture());
+        assertEquals(1, saved.getValue().size());
+        WhiteSourceProjectLibraries projectLibraries = saved.getValue().iterator().next();
+        assertEquals("p3", projectLibraries.getProjectToken());
+        assertEquals(Collections.singletonList("gson"), projectLibraries.getLibraryNames());
+
+        libraryIndex.save(ORG, Arrays.asList("p2", "p3"));
+        verify(repository, times(1)).upsert(any(), anyCollection());
+
+        // p4 waits for the batch it is written with
+        libraryIndex.save(ORG, Collections.singletonList("p4"));
+        verify(repository, times(2)).upsert(any(), anyCollection());
+    }
+
+    @Test
+    public void loadKeepsTheIndexInMemory() {
+        libraryIndex.update(ORG, "p3", Collections.singletonList("guava"));
+        libraryIndex.load(ORG);
+
+        verify(repository, times(1)).findByOrgName(ORG);
+        assertEquals(new HashSet<>(Arrays.asList("p1", "p3")), libraryIndex.getProjectTokens(ORG, Collections.singletonList("guava")));
+    }
+}
@@ -0,0 +1,77 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.WhiteSourceProductCost;
+import com.capitalone.dashboard.repository.WhiteSourceProductCostRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WhiteSourceProductCostsTest {
+    private final ObjectId collectorId = ObjectId.get();
+    private WhiteSourceProductCostRepository repository;
+    private WhiteSourceProductCosts productCosts;
+
+    @BeforeEach
+    public void setUp() {
+        repository = mock(WhiteSourceProductCostRepository.class);
+        when(repository.findByCollectorId(collectorId)).thenReturn(Arrays.asList(
+                cost("small", 100, 10, 5000), cost("big", 10000, 10, 10), cost("tie", 100, 20, 10)));
+        productCosts = new WhiteSourceProductCosts(repository);
+        productCosts.load(collectorId);
+    }
+
+    @Test
+    public void ordersLongestFirstWithUnknownProductsAhead() {
+        assertEquals(Arrays.asList("new", "big", "tie", "small"),
+                productCosts.longestFirst(Arrays.asList("small", "new", "tie", "big"), Function.identity()));
+    }
+
+    @Test
+    public void recordedCostReplacesLoadedCost() {
+        productCosts.record(cost("big", 1, 1, 1));
+
+        assertEquals(Arrays.asList("small", "big"), productCosts.longestFirst(Arrays.asList("big", "small"), Function.identity()));
+    }
+
+    @Test
+    public void savesOnlyCostsRecordedSinceLoad() {
+        productCosts.save(collectorId);
+        verify(repository, never()).upsert(any(), anyCollection());
+
+        productCosts.record(cost("new", 1, 1, 1));
+        productCosts.save(collectorId);
+
+        verify(repository).upsert(eq(collectorId), eq(Collections.singletonList(productCosts.get("new"))));
+        assertEquals(collectorId, productCosts.get("new").getCollectorId());
+    }
+
+    @Test
+    public void loadReplacesCostsInMemory() {
+        when(repository.findByCollectorId(collectorId)).thenReturn(Collections.emptyList());
+        productCosts.load(collectorId);
+
+        assertNull(productCosts.get("big"));
+    }
+
+    private static WhiteSourceProductCost cost(String productToken, long responseChars, int alertCount, long latency) {
+        WhiteSourceProductCost cost = new WhiteSourceProductCost(productToken);
+        cost.setResponseChars(responseChars);
+        cost.setAlertCount(alertCount);
+        cost.setLatency(latency);
+        return cost;
+    }
+}
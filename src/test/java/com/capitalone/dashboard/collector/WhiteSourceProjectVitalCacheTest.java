@@ -0,0 +1,118 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.config.TestConstants;
+import com.capitalone.dashboard.model.WhiteSourceProjectVital;
+import com.capitalone.dashboard.settings.WhiteSourceServerSettings;
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class WhiteSourceProjectVitalCacheTest {
+    private WhiteSourceSettings settings;
+    private WhiteSourceServerSettings serverSettings;
+    private WhiteSourceProjectVitalCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        settings = new WhiteSourceSettings();
+        settings.setProjectVitalCacheTtl(60000);
+        serverSettings = new WhiteSourceServerSettings();
+        serverSettings.setInstanceUrl("https://myserver.com");
+        cache = new WhiteSourceProjectVitalCache(settings);
+    }
+
+    @Test
+    public void concurrentLookupsShareOneLoad() throws Exception {
+        WhiteSourceProjectVital vital = vital();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<WhiteSourceProjectVital>> lookups = new ArrayList<>();
+            lookups.add(executor.submit(() -> cache.get(serverSettings, TestConstants.PROJECT_TOKEN_Test6Project, () -> {
+                calls.incrementAndGet();
+                loading.countDown();
+                release.await();
+                return vital;
+            })));
+            loading.await(5, TimeUnit.SECONDS);
+            for (int i = 0; i < 7; i++) {
+                lookups.add(executor.submit(() -> cache.get(serverSettings, TestConstants.PROJECT_TOKEN_Test6Project, () -> {
+                    calls.incrementAndGet();
+                    return vital;
+                })));
+            }
+            release.countDown();
+            for (Future<WhiteSourceProjectVital> lookup : lookups) {
+                assertSame(vital, lookup.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.getLoads());
+    }
+
+    @Test
+    public void cachesProjectsWithoutVital() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            assertNull(cache.get(serverSettings, TestConstants.PROJECT_TOKEN_Test6Project, () -> {
+                calls.incrementAndGet();
+                return null;
+            }));
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void failedLoadIsRetried() throws Exception {
+        assertThrows(ExecutionException.class, () -> cache.get(serverSettings, TestConstants.PROJECT_TOKEN_Test6Project, () -> {
+            throw new WhiteSourceApiException(null, 500, "server error");
+        }));
+        WhiteSourceProjectVital vital = vital();
+        assertSame(vital, cache.get(serverSettings, TestConstants.PROJECT_TOKEN_Test6Project, () -> vital));
+    }
+
+    @Test
+    public void expiresAfterTtlAndAtEndOfRun() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        WhiteSourceProjectVitalCache.Loader loader = () -> {
+            calls.incrementAndGet();
+            return vital();
+        };
+        settings.setProjectVitalCacheTtl(-1);
+        cache.get(serverSettings, TestConstants.PROJECT_TOKEN_Test6Project, loader);
+        cache.get(serverSettings, TestConstants.PROJECT_TOKEN_Test6Project, loader);
+        assertEquals(2, calls.get());
+
+        settings.setProjectVitalCacheTtl(60000);
+        cache.logMetrics();
+        cache.get(serverSettings, TestConstants.PROJECT_TOKEN_Test6Project, loader);
+        cache.get(serverSettings, TestConstants.PROJECT_TOKEN_Test6Project, loader);
+        assertEquals(3, calls.get());
+    }
+
+    private static WhiteSourceProjectVital vital() {
+        WhiteSourceProjectVital vital = new WhiteSourceProjectVital();
+        vital.setToken(TestConstants.PROJECT_TOKEN_Test6Project);
+        vital.setId(1L);
+        return vital;
+    }
+}
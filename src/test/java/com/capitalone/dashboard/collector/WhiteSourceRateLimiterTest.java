@@ -0,0 +1,121 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.settings.WhiteSourceServerSettings;
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WhiteSourceRateLimiterTest {
+    // 10 requests per 10 seconds, one token per second
+    private static final int LIMIT = 10;
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    // rounding of the wait times
+    private static final double NANOS_DELTA = 1000;
+    private static final double RATE_DELTA = 1e-9;
+
+    private WhiteSourceRateLimiter.TokenBucket bucket;
+    private long now;
+
+    @BeforeEach
+    public void setUp() {
+        bucket = new WhiteSourceRateLimiter.TokenBucket(LIMIT, WINDOW_NANOS);
+        now = System.nanoTime();
+    }
+
+    @Test
+    public void spacesCallersByTheirDebtOnceTheBurstIsUsed() {
+        for (int i = 0; i < LIMIT; i++) {
+            assertEquals(0, bucket.reserve(now));
+        }
+
+        assertEquals(SECOND, bucket.reserve(now), NANOS_DELTA);
+        assertEquals(2 * SECOND, bucket.reserve(now), NANOS_DELTA);
+        assertEquals(3 * SECOND, bucket.reserve(now), NANOS_DELTA);
+
+        // a second later one token of the debt is paid back
+        assertEquals(3 * SECOND, bucket.reserve(now + SECOND), NANOS_DELTA);
+    }
+
+    @Test
+    public void refillsUpToCapacity() {
+        for (int i = 0; i < LIMIT; i++) {
+            bucket.reserve(now);
+        }
+        long later = now + 100 * SECOND;
+
+        for (int i = 0; i < LIMIT; i++) {
+            assertEquals(0, bucket.reserve(later));
+        }
+        assertEquals(SECOND, bucket.reserve(later), NANOS_DELTA);
+    }
+
+    @Test
+    public void throttleHalvesTheRateAndDropsTheBurst() {
+        bucket.throttle(now);
+
+        assertEquals(0.5, bucket.getRatePerSecond(), RATE_DELTA);
+        // the tokens left are gone, the next caller waits for a token at the halved rate
+        assertEquals(2 * SECOND, bucket.reserve(now), NANOS_DELTA);
+        assertEquals(4 * SECOND, bucket.reserve(now), NANOS_DELTA);
+    }
+
+    @Test
+    public void throttleStopsAtOneSixteenthOfTheRate() {
+        double[] expected = {0.5, 0.25, 0.125, 0.0625, 0.0625, 0.0625};
+        for (double ratePerSecond : expected) {
+            bucket.throttle(now);
+            assertEquals(ratePerSecond, bucket.getRatePerSecond(), RATE_DELTA);
+        }
+    }
+
+    @Test
+    public void recoversFivePercentOfTheRatePerCallUpToTheConfiguredRate() {
+        for (int i = 0; i < 4; i++) {
+            bucket.throttle(now);
+        }
+
+        bucket.recover();
+        assertEquals(0.1125, bucket.getRatePerSecond(), RATE_DELTA);
+        bucket.recover();
+        assertEquals(0.1625, bucket.getRatePerSecond(), RATE_DELTA);
+
+        for (int i = 0; i < 100; i++) {
+            bucket.recover();
+        }
+        assertEquals(1.0, bucket.getRatePerSecond(), RATE_DELTA);
+    }
+
+    @Test
+    public void keepsOneBucketPerServerAndOrg() {
+        WhiteSourceSettings settings = new WhiteSourceSettings();
+        settings.setRequestRateLimit(1);
+        settings.setRequestRateLimitTimeWindow(60000);
+        WhiteSourceRateLimiter rateLimiter = new WhiteSourceRateLimiter(settings);
+
+        assertEquals(0, rateLimiter.reserve(serverSettings("org1")));
+        assertEquals(0, rateLimiter.reserve(serverSettings("org2")));
+        assertTrue(rateLimiter.reserve(serverSettings("org1")) > 0);
+    }
+
+    @Test
+    public void isOffWithoutLimit() {
+        WhiteSourceRateLimiter rateLimiter = new WhiteSourceRateLimiter(new WhiteSourceSettings());
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, rateLimiter.reserve(serverSettings("org1")));
+        }
+    }
+
+    private static WhiteSourceServerSettings serverSettings(String orgToken) {
+        WhiteSourceServerSettings serverSettings = new WhiteSourceServerSettings();
+        serverSettings.setInstanceUrl("https://whitesource.test");
+        serverSettings.setOrgToken(orgToken);
+        return serverSettings;
+    }
+}
@@ -0,0 +1,184 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.settings.RetrySettings;
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+import com.capitalone.dashboard.utils.Constants;
+import com.google.gson.stream.MalformedJsonException;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WhiteSourceRetryPolicyTest {
+    private static final Constants.RequestType REQUEST_TYPE = Constants.RequestType.getProjectAlerts;
+
+    @Test
+    public void retriesTimeoutsThrottlingAndServerErrors() {
+        assertTrue(WhiteSourceRetryPolicy.isRetryable(status(408)));
+        assertTrue(WhiteSourceRetryPolicy.isRetryable(status(429)));
+        assertTrue(WhiteSourceRetryPolicy.isRetryable(status(500)));
+        assertTrue(WhiteSourceRetryPolicy.isRetryable(status(503)));
+        assertTrue(WhiteSourceRetryPolicy.isRetryable(status(504)));
+    }
+
+    @Test
+    public void doesNotRetryClientErrors() {
+        assertFalse(WhiteSourceRetryPolicy.isRetryable(status(400)));
+        assertFalse(WhiteSourceRetryPolicy.isRetryable(status(401)));
+        assertFalse(WhiteSourceRetryPolicy.isRetryable(status(404)));
+    }
+
+    @Test
+    public void retriesFailuresWithoutStatusOnlyWhenCausedByIo() {
+        assertTrue(WhiteSourceRetryPolicy.isRetryable(new WhiteSourceApiException(REQUEST_TYPE, "refused", new ConnectException("Connection refused"))));
+        assertFalse(WhiteSourceRetryPolicy.isRetryable(new WhiteSourceApiException(REQUEST_TYPE, "encoding", new IllegalArgumentException("bad request body"))));
+        assertFalse(WhiteSourceRetryPolicy.isRetryable(new WhiteSourceApiException(REQUEST_TYPE, "no cause", null)));
+    }
+
+    @Test
+    public void doesNotRetryMalformedResponses() {
+        assertFalse(WhiteSourceRetryPolicy.isRetryable(new MalformedJsonException("Unterminated object")));
+        assertFalse(WhiteSourceRetryPolicy.isRetryable(new IOException(new ParseException(ParseException.ERROR_UNEXPECTED_TOKEN))));
+    }
+
+    @Test
+    public void retriesReadTimeoutsButNotInterruptedIo() {
+        assertTrue(WhiteSourceRetryPolicy.isRetryable(new SocketTimeoutException("Read timed out")));
+        assertTrue(WhiteSourceRetryPolicy.isRetryable(new IOException("Connection reset")));
+        assertFalse(WhiteSourceRetryPolicy.isRetryable(new InterruptedIOException("interrupted")));
+    }
+
+    @Test
+    public void doesNotRetryOnceTheThreadIsInterrupted() {
+        Thread.currentThread().interrupt();
+        try {
+            assertFalse(WhiteSourceRetryPolicy.isRetryable(new SocketTimeoutException("Read timed out")));
+            assertFalse(WhiteSourceRetryPolicy.isRetryable(status(503)));
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    public void backoffGrowsUpToTheMaximumAndJitterOnlyShortensIt() {
+        RetrySettings retrySettings = new RetrySettings();
+        retrySettings.setInitialBackoff(1000);
+        retrySettings.setMultiplier(2.0);
+        retrySettings.setMaxBackoff(5000);
+        retrySettings.setJitter(0.5);
+
+        for (int i = 0; i < 100; i++) {
+            assertBetween(500, 1000, WhiteSourceRetryPolicy.getBackoff(retrySettings, 1));
+            assertBetween(1000, 2000, WhiteSourceRetryPolicy.getBackoff(retrySettings, 2));
+            assertBetween(2000, 4000, WhiteSourceRetryPolicy.getBackoff(retrySettings, 3));
+            assertBetween(2500, 5000, WhiteSourceRetryPolicy.getBackoff(retrySettings, 4));
+            assertBetween(2500, 5000, WhiteSourceRetryPolicy.getBackoff(retrySettings, 30));
+        }
+    }
+
+    @Test
+    public void backoffWithoutJitterIsExactAndJitterIsClamped() {
+        RetrySettings retrySettings = new RetrySettings();
+        retrySettings.setInitialBackoff(1000);
+        retrySettings.setMultiplier(3.0);
+        retrySettings.setMaxBackoff(30000);
+        retrySettings.setJitter(0);
+        assertEquals(1000, WhiteSourceRetryPolicy.getBackoff(retrySettings, 1));
+        assertEquals(9000, WhiteSourceRetryPolicy.getBackoff(retrySettings, 3));
+        assertEquals(30000, WhiteSourceRetryPolicy.getBackoff(retrySettings, 10));
+
+        retrySettings.setJitter(-1);
+        assertEquals(1000, WhiteSourceRetryPolicy.getBackoff(retrySettings, 1));
+        retrySettings.setJitter(5);
+        for (int i = 0; i < 100; i++) {
+            assertBetween(0, 1000, WhiteSourceRetryPolicy.getBackoff(retrySettings, 1));
+        }
+    }
+
+    @Test
+    public void executeRetriesWithinTheAttemptBudget() throws IOException {
+        WhiteSourceRetryPolicy retryPolicy = new WhiteSourceRetryPolicy(settings(3));
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = retryPolicy.execute(REQUEST_TYPE, () -> {
+            if (calls.incrementAndGet() < 3) throw new SocketTimeoutException("Read timed out");
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, calls.get());
+        assertEquals(2, retryPolicy.getRetries(REQUEST_TYPE));
+
+        calls.set(0);
+        assertThrows(SocketTimeoutException.class, () -> retryPolicy.execute(REQUEST_TYPE, () -> {
+            calls.incrementAndGet();
+            throw new SocketTimeoutException("Read timed out");
+        }));
+        assertEquals(3, calls.get());
+        assertEquals(1, retryPolicy.getGiveUps(REQUEST_TYPE));
+    }
+
+    @Test
+    public void executeDoesNotRetryFinalFailures() {
+        WhiteSourceRetryPolicy retryPolicy = new WhiteSourceRetryPolicy(settings(3));
+        AtomicInteger calls = new AtomicInteger();
+        WhiteSourceApiException notFound = status(404);
+
+        WhiteSourceApiException thrown = assertThrows(WhiteSourceApiException.class, () -> retryPolicy.execute(REQUEST_TYPE, () -> {
+            calls.incrementAndGet();
+            throw notFound;
+        }));
+
+        assertSame(notFound, thrown);
+        assertEquals(1, calls.get());
+        assertEquals(0, retryPolicy.getRetries(REQUEST_TYPE));
+    }
+
+    @Test
+    public void executeAsyncRetriesUnwrappedFailures() throws Exception {
+        WhiteSourceRetryPolicy retryPolicy = new WhiteSourceRetryPolicy(settings(2));
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> result = retryPolicy.executeAsync(REQUEST_TYPE, () -> calls.incrementAndGet() == 1
+                ? CompletableFuture.<String>failedFuture(new CompletionException(status(503)))
+                : CompletableFuture.completedFuture("ok"));
+
+        assertEquals("ok", result.get());
+        assertEquals(2, calls.get());
+
+        ExecutionException failed = assertThrows(ExecutionException.class,
+                () -> retryPolicy.executeAsync(REQUEST_TYPE, () -> CompletableFuture.<String>failedFuture(status(503))).get());
+        assertTrue(failed.getCause() instanceof WhiteSourceApiException);
+        assertEquals(1, retryPolicy.getGiveUps(REQUEST_TYPE));
+    }
+
+    private static WhiteSourceSettings settings(int maxAttempts) {
+        RetrySettings retrySettings = new RetrySettings();
+        retrySettings.setMaxAttempts(maxAttempts);
+        retrySettings.setInitialBackoff(0);
+        WhiteSourceSettings settings = new WhiteSourceSettings();
+        settings.setRetrySettings(retrySettings);
+        return settings;
+    }
+
+    private static WhiteSourceApiException status(int statusCode) {
+        return new WhiteSourceApiException(REQUEST_TYPE, statusCode, "status " + statusCode);
+    }
+
+    private static void assertBetween(long min, long max, long actual) {
+        assertTrue(actual >= min && actual <= max, actual + " not in [" + min + ", " + max + "]");
+    }
+}
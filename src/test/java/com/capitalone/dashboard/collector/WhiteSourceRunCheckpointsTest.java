@@ -0,0 +1,121 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.WhiteSourceRunCheckpoint;
+import com.capitalone.dashboard.repository.WhiteSourceRunCheckpointRepository;
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class WhiteSourceRunCheckpointsTest {
+    private static final String ORG = "org";
+    private final ObjectId collectorId = ObjectId.get();
+    private WhiteSourceSettings settings;
+    private WhiteSourceRunCheckpointRepository repository;
+    private WhiteSourceRunCheckpoints runCheckpoints;
+
+    @BeforeEach
+    public void setUp() {
+        settings = new WhiteSourceSettings();
+        settings.setCheckpointMaxAge(60000);
+        repository = mock(WhiteSourceRunCheckpointRepository.class);
+        runCheckpoints = new WhiteSourceRunCheckpoints(settings, repository);
+    }
+
+    @Test
+    public void resumesRecentCheckpoint() {
+        WhiteSourceRunCheckpoint interrupted = checkpoint(System.currentTimeMillis() - 1000);
+        interrupted.setCompletedSteps(new ArrayList<>(Collections.singletonList(1)));
+        when(repository.find(collectorId, ORG)).thenReturn(interrupted);
+
+        WhiteSourceRunCheckpoint checkpoint = runCheckpoints.start(collectorId, ORG);
+
+        assertSame(interrupted, checkpoint);
+        assertTrue(checkpoint.isResumed());
+        assertTrue(checkpoint.isStepCompleted(1));
+        verify(repository, never()).upsert(any());
+    }
+
+    @Test
+    public void resumesOnlyTheFirstRefreshAfterARestart() {
+        when(repository.find(collectorId, ORG)).thenReturn(checkpoint(System.currentTimeMillis() - 1000));
+        runCheckpoints.start(collectorId, ORG);
+
+        // left behind by a refresh of this process
+        WhiteSourceRunCheckpoint checkpoint = runCheckpoints.start(collectorId, ORG);
+
+        assertFalse(checkpoint.isResumed());
+        verify(repository, times(1)).find(collectorId, ORG);
+        verify(repository).upsert(checkpoint);
+    }
+
+    @Test
+    public void startsOverWhenCheckpointIsTooOld() {
+        long runStart = System.currentTimeMillis() - 120000;
+        when(repository.find(collectorId, ORG)).thenReturn(checkpoint(runStart));
+
+        WhiteSourceRunCheckpoint checkpoint = runCheckpoints.start(collectorId, ORG);
+
+        assertFalse(checkpoint.isResumed());
+        assertTrue(checkpoint.getRunStart() > runStart);
+        verify(repository).upsert(checkpoint);
+    }
+
+    @Test
+    public void recordsEachStepOnceAndRemovesCheckpointWhenFinished() {
+        WhiteSourceRunCheckpoint checkpoint = runCheckpoints.start(collectorId, ORG);
+
+        runCheckpoints.completeStep(checkpoint, 4);
+        runCheckpoints.completeStep(checkpoint, 4);
+        runCheckpoints.finish(checkpoint);
+
+        assertEquals(Collections.singletonList(4), checkpoint.getCompletedSteps());
+        verify(repository, times(1)).addCompletedStep(eq(collectorId), eq(ORG), eq(4), anyLong());
+        verify(repository).delete(collectorId, ORG);
+    }
+
+    @Test
+    public void removesCheckpointOfFailedRefresh() {
+        WhiteSourceRunCheckpoint checkpoint = runCheckpoints.start(collectorId, ORG);
+        runCheckpoints.completeStep(checkpoint, 1);
+
+        runCheckpoints.abandon(checkpoint);
+
+        verify(repository).delete(collectorId, ORG);
+    }
+
+    @Test
+    public void storesNothingWhenDisabled() {
+        settings.setCheckpointMaxAge(0);
+
+        WhiteSourceRunCheckpoint checkpoint = runCheckpoints.start(collectorId, ORG);
+        runCheckpoints.completeStep(checkpoint, 1);
+        runCheckpoints.abandon(checkpoint);
+        runCheckpoints.finish(checkpoint);
+
+        assertFalse(checkpoint.isResumed());
+        assertTrue(checkpoint.isStepCompleted(1));
+        verifyNoInteractions(repository);
+    }
+
+    private WhiteSourceRunCheckpoint checkpoint(long runStart) {
+        return new WhiteSourceRunCheckpoint(collectorId, ORG, runStart);
+    }
+}
@@ -0,0 +1,157 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.LibraryPolicyResult;
+import com.capitalone.dashboard.model.LibraryPolicyThreatDisposition;
+import com.capitalone.dashboard.model.LibraryPolicyThreatLevel;
+import com.capitalone.dashboard.model.LibraryPolicyType;
+import com.capitalone.dashboard.model.WhiteSourceComponent;
+import com.capitalone.dashboard.repository.WhiteSourceCustomComponentRepository;
+import com.capitalone.dashboard.repository.WhiteSourceCustomLibraryPolicyRepository;
+import com.capitalone.dashboard.repository.WhiteSourceCustomLibraryReferenceRepository;
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+import com.capitalone.dashboard.utils.Constants;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WhiteSourceScanDataWriterTest {
+    private WhiteSourceCustomLibraryPolicyRepository libraryPolicyRepository;
+    private WhiteSourceCustomComponentRepository componentRepository;
+    private WhiteSourceCustomLibraryReferenceRepository libraryReferenceRepository;
+    private WhiteSourceLibraryIndex libraryIndex;
+    private WhiteSourceScanDataWriter writer;
+
+    @BeforeEach
+    public void setUp() {
+        WhiteSourceSettings settings = new WhiteSourceSettings();
+        settings.getPipelineSettings().setPersistBatchSize(2);
+        settings.getPipelineSettings().setPersistFlushInterval(60000);
+        libraryPolicyRepository = mock(WhiteSourceCustomLibraryPolicyRepository.class);
+        componentRepository = mock(WhiteSourceCustomComponentRepository.class);
+        libraryReferenceRepository = mock(WhiteSourceCustomLibraryReferenceRepository.class);
+        libraryIndex = mock(WhiteSourceLibraryIndex.class);
+        writer = new WhiteSourceScanDataWriter(settings, libraryPolicyRepository, componentRepository, libraryReferenceRepository, libraryIndex);
+    }
+
+    @Test
+    public void writesFullBatchesAndTheRestOnFlush() {
+        WhiteSourceComponent first = project();
+        WhiteSourceComponent second = project();
+        LibraryPolicyResult firstResult = new LibraryPolicyResult();
+        LibraryPolicyResult secondResult = new LibraryPolicyResult();
+
+        writer.write(first, firstResult);
+        verify(libraryPolicyRepository, never()).upsertAll(anyList());
+
+        writer.write(second, secondResult);
+        verify(libraryPolicyRepository).upsertAll(Arrays.asList(firstResult, secondResult));
+        verify(componentRepository).updateLastUpdated(eq(Arrays.asList(first.getId(), second.getId())), anyLong());
+        assertEquals(first.getId(), firstResult.getCollectorItemId());
+
+        WhiteSourceComponent third = project();
+        LibraryPolicyResult thirdResult = new LibraryPolicyResult();
+        writer.write(third, thirdResult);
+        writer.flush();
+        verify(libraryPolicyRepository).upsertAll(Arrays.asList(thirdResult));
+    }
+
+    @Test
+    public void flushWithoutResultsWritesNothing() {
+        writer.flush();
+
+        verify(libraryPolicyRepository, never()).upsertAll(anyList());
+        verify(componentRepository, never()).updateLastUpdated(anyCollection(), anyLong());
+        verify(libraryReferenceRepository, never()).addProjectReferences(anyString(), anyMap());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void writesLibrariesBeforeTheProjectsAreUpdated() {
+        WhiteSourceComponent first = project();
+        WhiteSourceComponent second = project();
+        LibraryPolicyResult firstResult = new LibraryPolicyResult();
+        firstResult.addThreat(LibraryPolicyType.Security, LibraryPolicyThreatLevel.High, LibraryPolicyThreatDisposition.Open,
+                Constants.OPEN, "guava-28.0.jar", "10", "7.5", "policy");
+        Set<String> libraryNames = WhiteSourceScanDataWriter.getLibraryNames(firstResult);
+        assertFalse(libraryNames.isEmpty());
+
+        writer.write(first, firstResult);
+        writer.write(second, new LibraryPolicyResult());
+
+        verify(libraryIndex).update("org", first.getProjectToken(), libraryNames);
+        verify(libraryIndex).update("org", second.getProjectToken(), Collections.emptySet());
+        ArgumentCaptor<Map<String, Set<WhiteSourceComponent>>> references = ArgumentCaptor.forClass(Map.class);
+        InOrder inOrder = inOrder(libraryPolicyRepository, libraryIndex, libraryReferenceRepository, componentRepository);
+        inOrder.verify(libraryPolicyRepository).upsertAll(anyList());
+        inOrder.verify(libraryIndex).save("org", Arrays.asList(first.getProjectToken(), second.getProjectToken()));
+        inOrder.verify(libraryReferenceRepository).addProjectReferences(eq("org"), references.capture());
+        inOrder.verify(componentRepository).updateLastUpdated(anyCollection(), anyLong());
+        assertEquals(libraryNames, references.getValue().keySet());
+        references.getValue().values().forEach(projects -> {
+            assertEquals(1, projects.size());
+            assertEquals(first.getProjectToken(), projects.iterator().next().getProjectToken());
+        });
+    }
+
+    @Test
+    public void removesStaleReferencesOfProjectsWhoseLibrariesChanged() {
+        WhiteSourceComponent changed = project();
+        WhiteSourceComponent unchanged = project();
+        LibraryPolicyResult changedResult = new LibraryPolicyResult();
+        changedResult.addThreat(LibraryPolicyType.Security, LibraryPolicyThreatLevel.High, LibraryPolicyThreatDisposition.Open,
+                Constants.OPEN, "guava-28.0.jar", "10", "7.5", "policy");
+        Set<String> libraryNames = WhiteSourceScanDataWriter.getLibraryNames(changedResult);
+        when(libraryIndex.update("org", changed.getProjectToken(), libraryNames)).thenReturn(true);
+
+        writer.write(changed, changedResult);
+        writer.write(unchanged, new LibraryPolicyResult());
+
+        InOrder inOrder = inOrder(libraryReferenceRepository);
+        inOrder.verify(libraryReferenceRepository).removeStaleProjectReferences("org", Collections.singletonMap(changed.getId(), libraryNames));
+        inOrder.verify(libraryReferenceRepository).addProjectReferences(eq("org"), anyMap());
+    }
+
+    @Test
+    public void writesOldBufferWhenTheNextResultArrives() {
+        WhiteSourceSettings settings = new WhiteSourceSettings();
+        settings.getPipelineSettings().setPersistBatchSize(100);
+        settings.getPipelineSettings().setPersistFlushInterval(0);
+        writer = new WhiteSourceScanDataWriter(settings, libraryPolicyRepository, componentRepository, libraryReferenceRepository, libraryIndex);
+
+        List<WhiteSourceComponent> projects = Arrays.asList(project(), project());
+        projects.forEach(project -> writer.write(project, new LibraryPolicyResult()));
+
+        verify(libraryPolicyRepository, times(2)).upsertAll(anyList());
+    }
+
+    private static WhiteSourceComponent project() {
+        WhiteSourceComponent project = new WhiteSourceComponent();
+        project.setId(ObjectId.get());
+        project.setOrgName("org");
+        project.setProjectToken(project.getId().toHexString());
+        return project;
+    }
+}
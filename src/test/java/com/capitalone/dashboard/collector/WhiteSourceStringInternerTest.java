@@ -0,0 +1,50 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.settings.WhiteSourceSettings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class WhiteSourceStringInternerTest {
+    private WhiteSourceStringInterner interner;
+
+    @BeforeEach
+    public void setUp() {
+        WhiteSourceSettings settings = new WhiteSourceSettings();
+        settings.setStringInternerMaxSize(2);
+        interner = new WhiteSourceStringInterner(settings);
+    }
+
+    @Test
+    public void returnsTheFirstCopy() {
+        String first = new String("commons-io-2.8.0.jar");
+        String second = new String("commons-io-2.8.0.jar");
+
+        assertSame(first, interner.intern(first));
+        assertSame(first, interner.intern(second));
+        assertNull(interner.intern(null));
+    }
+
+    @Test
+    public void stopsAdmittingWhenFull() {
+        interner.intern("a");
+        interner.intern("b");
+        String c = new String("c");
+
+        assertSame(c, interner.intern(c));
+        assertNotSame(c, interner.intern(new String("c")));
+        assertEquals(2, interner.size());
+    }
+
+    @Test
+    public void isClearedAtTheEndOfARun() {
+        interner.intern("a");
+        interner.logMetrics();
+
+        assertEquals(0, interner.size());
+    }
+}
@@ -2,11 +2,18 @@ package com.capitalone.dashboard.config;
 
 import com.capitalone.dashboard.client.RestClient;
 import com.capitalone.dashboard.client.RestOperationsSupplier;
+import com.capitalone.dashboard.repository.WhiteSourceCustomComponentRepository;
+import com.capitalone.dashboard.repository.WhiteSourceCustomLibraryPolicyRepository;
+import com.capitalone.dashboard.repository.WhiteSourceCustomLibraryReferenceRepository;
+import com.capitalone.dashboard.repository.WhiteSourceProductCostRepository;
+import com.capitalone.dashboard.repository.WhiteSourceProjectLibrariesRepository;
+import com.capitalone.dashboard.repository.WhiteSourceRunCheckpointRepository;
 import com.capitalone.dashboard.settings.WhiteSourceServerSettings;
 import com.capitalone.dashboard.settings.WhiteSourceSettings;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
 
 import java.util.Arrays;
 
@@ -15,6 +22,9 @@ public class CollectorTestConfig {
     @Autowired
     RestOperationsSupplier restOperationsSupplier;
 
+    @Autowired
+    MongoTemplate mongoTemplate;
+
     @Bean
     public RestClient restClient() {
         return new RestClient(restOperationsSupplier);
@@ -34,4 +44,34 @@ public class CollectorTestConfig {
         return whiteSourceSettings;
     }
 
+    @Bean
+    public WhiteSourceCustomLibraryPolicyRepository whiteSourceCustomLibraryPolicyRepository() {
+        return new WhiteSourceCustomLibraryPolicyRepository(mongoTemplate);
+    }
+
+    @Bean
+    public WhiteSourceCustomComponentRepository whiteSourceCustomComponentRepository() {
+        return new WhiteSourceCustomComponentRepository(mongoTemplate);
+    }
+
+    @Bean
+    public WhiteSourceCustomLibraryReferenceRepository whiteSourceCustomLibraryReferenceRepository() {
+        return new WhiteSourceCustomLibraryReferenceRepository(mongoTemplate);
+    }
+
+    @Bean
+    public WhiteSourceProductCostRepository whiteSourceProductCostRepository() {
+        return new WhiteSourceProductCostRepository(mongoTemplate);
+    }
+
+    @Bean
+    public WhiteSourceProjectLibrariesRepository whiteSourceProjectLibrariesRepository() {
+        return new WhiteSourceProjectLibrariesRepository(mongoTemplate);
+    }
+
+    @Bean
+    public WhiteSourceRunCheckpointRepository whiteSourceRunCheckpointRepository() {
+        return new WhiteSourceRunCheckpointRepository(mongoTemplate);
+    }
+
 }
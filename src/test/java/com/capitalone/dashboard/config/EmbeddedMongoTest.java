@@ -0,0 +1,34 @@
+package com.capitalone.dashboard.config;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Base class of tests running the custom repositories against an in memory mongo server, a new empty one per test
+ */
+public abstract class EmbeddedMongoTest {
+    private MongoServer mongoServer;
+    private MongoClient mongoClient;
+    protected MongoTemplate template;
+
+    @BeforeEach
+    public void startMongo() {
+        mongoServer = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = mongoServer.bind();
+        mongoClient = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        template = new MongoTemplate(mongoClient, "test-db");
+    }
+
+    @AfterEach
+    public void stopMongo() {
+        mongoClient.close();
+        mongoServer.shutdown();
+    }
+}
@@ -0,0 +1,127 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.config.EmbeddedMongoTest;
+import com.capitalone.dashboard.model.WhiteSourceComponent;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class WhiteSourceCustomComponentRepositoryTest extends EmbeddedMongoTest {
+    private final ObjectId collectorId = ObjectId.get();
+    private WhiteSourceCustomComponentRepository repository;
+
+    @BeforeEach
+    public void setUp() {
+        repository = new WhiteSourceCustomComponentRepository(template);
+    }
+
+    @Test
+    public void insertsNewProjectsAndSetsTheirIds() {
+        WhiteSourceComponent first = project("org", "p1");
+        WhiteSourceComponent second = project("org", "p2");
+
+        assertEquals(2, repository.insertNewProjects(collectorId, Arrays.asList(first, second)));
+
+        assertNotNull(first.getId());
+        assertNotNull(second.getId());
+        assertNotEquals(first.getId(), second.getId());
+        WhiteSourceComponent stored = template.findById(first.getId(), WhiteSourceComponent.class);
+        assertNotNull(stored);
+        assertEquals(collectorId, stored.getCollectorId());
+        assertEquals("p1", stored.getProjectToken());
+        assertEquals("org", stored.getOrgName());
+        assertEquals("project p1", stored.getProjectName());
+    }
+
+    @Test
+    public void insertingAnExistingProjectAgainChangesNothing() {
+        WhiteSourceComponent project = project("org", "p1");
+        repository.insertNewProjects(collectorId, Collections.singletonList(project));
+
+        WhiteSourceComponent again = project("org", "p1");
+        again.setProjectName("renamed");
+
+        assertEquals(0, repository.insertNewProjects(collectorId, Collections.singletonList(again)));
+        assertNull(again.getId());
+        assertEquals(1, template.count(new Query(), WhiteSourceComponent.class));
+        assertEquals("project p1", template.findById(project.getId(), WhiteSourceComponent.class).getProjectName());
+    }
+
+    @Test
+    public void returnsOnlyTheInsertedProjects() {
+        WhiteSourceComponent existing = project("org", "p1");
+        repository.insertNewProjects(collectorId, Collections.singletonList(existing));
+
+        WhiteSourceComponent sameToken = project("org", "p1");
+        WhiteSourceComponent otherOrg = project("other", "p1");
+        WhiteSourceComponent newProject = project("org", "p2");
+        List<WhiteSourceComponent> projects = Arrays.asList(sameToken, otherOrg, newProject);
+
+        assertEquals(2, repository.insertNewProjects(collectorId, projects));
+        assertNull(sameToken.getId());
+        assertNotNull(otherOrg.getId());
+        assertNotNull(newProject.getId());
+        assertEquals(3, template.count(new Query(), WhiteSourceComponent.class));
+    }
+
+    @Test
+    public void matchesProjectsWithoutTokenOrOrgName() {
+        WhiteSourceComponent noOrg = project(null, "p1");
+        WhiteSourceComponent noToken = project("org", null);
+        assertEquals(2, repository.insertNewProjects(collectorId, Arrays.asList(noOrg, noToken)));
+
+        // the missing option matches the stored project, not the ones that have it
+        assertEquals(0, repository.insertNewProjects(collectorId, Arrays.asList(project(null, "p1"), project("org", null))));
+        assertEquals(1, repository.insertNewProjects(collectorId, Collections.singletonList(project("org", "p1"))));
+        assertEquals(3, template.count(new Query(), WhiteSourceComponent.class));
+    }
+
+    @Test
+    public void sameProjectOfAnotherCollectorIsNew() {
+        repository.insertNewProjects(collectorId, Collections.singletonList(project("org", "p1")));
+
+        assertEquals(1, repository.insertNewProjects(ObjectId.get(), Collections.singletonList(project("org", "p1"))));
+    }
+
+    @Test
+    public void updatesProjectDetailsOnly() {
+        WhiteSourceComponent project = project("org", "p1");
+        project.setProductToken(null);
+        project.setProductName(null);
+        repository.insertNewProjects(collectorId, Collections.singletonList(project));
+
+        project.setProductToken("product token");
+        project.setProductName("product");
+        project.setProjectName("renamed");
+        project.setOrgName("changed org");
+        repository.updateProjectDetails(Collections.singletonList(project));
+
+        WhiteSourceComponent stored = template.findById(project.getId(), WhiteSourceComponent.class);
+        assertEquals("product token", stored.getProductToken());
+        assertEquals("product", stored.getProductName());
+        assertEquals("renamed", stored.getProjectName());
+        assertEquals("org", stored.getOrgName());
+        assertEquals("p1", stored.getProjectToken());
+    }
+
+    private static WhiteSourceComponent project(String orgName, String projectToken) {
+        WhiteSourceComponent project = new WhiteSourceComponent();
+        project.setOrgName(orgName);
+        project.setProjectToken(projectToken);
+        project.setProjectName("project " + projectToken);
+        project.setProductName("product");
+        project.setProductToken("productToken");
+        project.setEnabled(false);
+        return project;
+    }
+}
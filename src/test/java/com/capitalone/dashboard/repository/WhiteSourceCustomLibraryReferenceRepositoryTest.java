@@ -0,0 +1,168 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.collector.WhiteSourceScanDataWriter;
+import com.capitalone.dashboard.config.EmbeddedMongoTest;
+import com.capitalone.dashboard.model.LibraryPolicyReference;
+import com.capitalone.dashboard.model.WhiteSourceComponent;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class WhiteSourceCustomLibraryReferenceRepositoryTest extends EmbeddedMongoTest {
+    private static final String ORG = "org";
+    private final ObjectId collectorId = ObjectId.get();
+    private WhiteSourceCustomLibraryReferenceRepository repository;
+
+    @BeforeEach
+    public void setUp() {
+        repository = new WhiteSourceCustomLibraryReferenceRepository(template);
+    }
+
+    @Test
+    public void addingTheSameReferencesTwiceAddsNoDuplicates() {
+        WhiteSourceComponent p1 = project("p1");
+        WhiteSourceComponent p2 = project("p2");
+        Map<String, Set<WhiteSourceComponent>> references = new HashMap<>();
+        references.put("guava", references(p1, p2));
+        references.put("gson", references(p1));
+
+        assertEquals(2, repository.addProjectReferences(ORG, references));
+        repository.addProjectReferences(ORG, references);
+
+        assertEquals(2, template.count(new Query(), LibraryPolicyReference.class));
+        assertEquals(new HashSet<>(Arrays.asList("p1", "p2")), projectTokens("guava"));
+        assertEquals(Collections.singleton("p1"), projectTokens("gson"));
+        assertEquals(2, rawReferences("guava").size());
+    }
+
+    @Test
+    public void upsertsMissingLibrariesAndAddsToExistingOnes() {
+        WhiteSourceComponent p1 = project("p1");
+        WhiteSourceComponent p2 = project("p2");
+        repository.addProjectReferences(ORG, Collections.singletonMap("guava", references(p1)));
+
+        Map<String, Set<WhiteSourceComponent>> references = new HashMap<>();
+        references.put("guava", references(p2));
+        references.put("jackson", references(p1));
+        repository.addProjectReferences(ORG, references);
+
+        assertEquals(new HashSet<>(Arrays.asList("p1", "p2")), projectTokens("guava"));
+        assertEquals(Collections.singleton("p1"), projectTokens("jackson"));
+        Document jackson = rawLibrary("jackson");
+        assertEquals(ORG, jackson.getString("orgName"));
+        assertNotNull(jackson.get("lastUpdated"));
+    }
+
+    @Test
+    public void referencesOfTheSameProjectAreIdenticalAcrossRuns() {
+        WhiteSourceComponent project = project("p1");
+        project.setLastUpdated(1000);
+        repository.addProjectReferences(ORG, Collections.singletonMap("guava", references(project)));
+
+        // the next run sees the project with other collection state
+        WhiteSourceComponent collectedAgain = project("p1");
+        collectedAgain.setId(project.getId());
+        collectedAgain.setLastUpdated(2000);
+        collectedAgain.setEnabled(true);
+        collectedAgain.setDescription("collected again");
+        repository.addProjectReferences(ORG, Collections.singletonMap("guava", references(collectedAgain)));
+
+        assertEquals(1, rawReferences("guava").size());
+        WhiteSourceComponent reference = find("guava").getProjectReferences().iterator().next();
+        assertEquals(project.getId(), reference.getId());
+        assertEquals(0, reference.getLastUpdated());
+        assertNull(reference.getDescription());
+    }
+
+    @Test
+    public void keepsTheLibrariesOfOrgsApart() {
+        repository.addProjectReferences(ORG, Collections.singletonMap("guava", references(project("p1"))));
+        repository.addProjectReferences("other", Collections.singletonMap("guava", references(project("p2"))));
+
+        assertEquals(2, template.count(new Query(), LibraryPolicyReference.class));
+        assertEquals(Collections.singleton("p1"), projectTokens("guava"));
+    }
+
+    @Test
+    public void removesProjectsFromLibrariesTheyNoLongerUse() {
+        WhiteSourceComponent p1 = project("p1");
+        WhiteSourceComponent p2 = project("p2");
+        Map<String, Set<WhiteSourceComponent>> references = new HashMap<>();
+        references.put("guava", references(p1, p2));
+        references.put("gson", references(p1));
+        references.put("jackson", references(p1));
+        repository.addProjectReferences(ORG, references);
+        repository.addProjectReferences("other", Collections.singletonMap("guava", references(p1)));
+
+        // p1 stopped using guava and gson
+        repository.removeStaleProjectReferences(ORG, Collections.singletonMap(p1.getId(), Collections.singleton("jackson")));
+
+        assertEquals(Collections.singleton("p2"), projectTokens("guava"));
+        assertEquals(Collections.emptySet(), projectTokens("gson"));
+        assertEquals(Collections.singleton("p1"), projectTokens("jackson"));
+        assertEquals(1, rawReferences("guava").size());
+        assertEquals(1, repository.findByOrgNameAndLibraryNames("other", Collections.singletonList("guava")).get(0).getProjectReferences().size());
+    }
+
+    @Test
+    public void writesNothingWithoutReferences() {
+        assertEquals(0, repository.addProjectReferences(ORG, Collections.<String, Set<WhiteSourceComponent>>emptyMap()));
+        assertEquals(0, template.count(new Query(), LibraryPolicyReference.class));
+    }
+
+    private WhiteSourceComponent project(String projectToken) {
+        WhiteSourceComponent project = new WhiteSourceComponent();
+        project.setId(ObjectId.get());
+        project.setCollectorId(collectorId);
+        project.setOrgName(ORG);
+        project.setProjectToken(projectToken);
+        project.setProjectName("project " + projectToken);
+        project.setProductName("product");
+        project.setProductToken("productToken");
+        return project;
+    }
+
+    private static Set<WhiteSourceComponent> references(WhiteSourceComponent... projects) {
+        return Arrays.stream(projects).map(WhiteSourceScanDataWriter::toReference).collect(Collectors.toSet());
+    }
+
+    private LibraryPolicyReference find(String libraryName) {
+        List<LibraryPolicyReference> found = repository.findByOrgNameAndLibraryNames(ORG, Collections.singletonList(libraryName));
+        assertEquals(1, found.size());
+        return found.get(0);
+    }
+
+    private Set<String> projectTokens(String libraryName) {
+        Collection<WhiteSourceComponent> projectReferences = find(libraryName).getProjectReferences();
+        if (projectReferences == null) return Collections.emptySet();
+        return projectReferences.stream().map(WhiteSourceComponent::getProjectToken).collect(Collectors.toSet());
+    }
+
+    private Document rawLibrary(String libraryName) {
+        Document library = template.getCollection(template.getCollectionName(LibraryPolicyReference.class))
+                .find(new Document("orgName", ORG).append("libraryName", libraryName)).first();
+        assertNotNull(library);
+        return library;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Document> rawReferences(String libraryName) {
+        return (List<Document>) rawLibrary(libraryName).get("projectReferences");
+    }
+}
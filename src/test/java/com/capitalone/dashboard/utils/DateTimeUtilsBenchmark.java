@@ -0,0 +1,81 @@
+package com.capitalone.dashboard.utils;
+
+import com.capitalone.dashboard.misc.HygieiaException;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link DateTimeUtils} with the joda calls it used to make on every value.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.capitalone.dashboard.utils.DateTimeUtilsBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateTimeUtilsBenchmark {
+    private static final String ZONE = "America/New_York";
+
+    private String vitalDate;
+    private String changeLogDate;
+    private long timestamp;
+
+    @Setup
+    public void setUp() {
+        vitalDate = "2020-12-21 16:45:11 +0000";
+        changeLogDate = "2020-12-18 19:21:33";
+        timestamp = 1608569111000L;
+    }
+
+    @Benchmark
+    public long parseWithOffsetJoda() {
+        return DateTimeFormat.forPattern(Constants.yyyy_MM_dd_HH_mm_ss_z).withZone(DateTimeZone.forID(ZONE)).parseMillis(vitalDate);
+    }
+
+    @Benchmark
+    public long parseWithOffset() throws HygieiaException {
+        return DateTimeUtils.timeFromStringToMillis(vitalDate, ZONE, Constants.yyyy_MM_dd_HH_mm_ss_z);
+    }
+
+    @Benchmark
+    public long parseLocalJoda() {
+        return DateTimeFormat.forPattern(Constants.yyyy_MM_dd_HH_mm_ss).withZone(DateTimeZone.forID(ZONE)).parseMillis(changeLogDate);
+    }
+
+    @Benchmark
+    public long parseLocal() throws HygieiaException {
+        return DateTimeUtils.timeFromStringToMillis(changeLogDate, ZONE, Constants.yyyy_MM_dd_HH_mm_ss);
+    }
+
+    @Benchmark
+    public String formatJoda() {
+        return new DateTime(timestamp, DateTimeZone.forID(ZONE)).toString(DateTimeFormat.forPattern(Constants.yyyy_MM_dd_HH_mm_ss));
+    }
+
+    @Benchmark
+    public String format() {
+        return DateTimeUtils.timeFromLongToString(timestamp, ZONE, Constants.yyyy_MM_dd_HH_mm_ss);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DateTimeUtilsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,67 @@
+package com.capitalone.dashboard.utils;
+
+import com.capitalone.dashboard.misc.HygieiaException;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormat;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DateTimeUtilsTest {
+    private static final String[] ZONES = {"UTC", "America/New_York", "Asia/Kolkata", "Australia/Lord_Howe", "Europe/London"};
+
+    @Test
+    public void fastPathMatchesJoda() throws HygieiaException {
+        Random random = new Random(7);
+        for (String zone : ZONES) {
+            for (int i = 0; i < 2000; i++) {
+                // 1950 to 2100
+                long millis = -631152000000L + (long) (random.nextDouble() * 4733510400000L) / 1000 * 1000;
+                String local = jodaFormat(millis, zone, Constants.yyyy_MM_dd_HH_mm_ss);
+                String withOffset = jodaFormat(millis, zone, Constants.yyyy_MM_dd_HH_mm_ss_z);
+
+                assertEquals(local, DateTimeUtils.timeFromLongToString(millis, zone, Constants.yyyy_MM_dd_HH_mm_ss));
+                assertEquals(jodaParse(local, zone, Constants.yyyy_MM_dd_HH_mm_ss),
+                        DateTimeUtils.timeFromStringToMillis(local, zone, Constants.yyyy_MM_dd_HH_mm_ss));
+                assertEquals(millis, DateTimeUtils.timeFromStringToMillis(withOffset, zone, Constants.yyyy_MM_dd_HH_mm_ss_z));
+            }
+        }
+    }
+
+    @Test
+    public void parsesWhiteSourceValues() throws HygieiaException {
+        assertEquals(1608569111000L, DateTimeUtils.timeFromStringToMillis("2020-12-21 16:45:11 +0000", "America/New_York", Constants.yyyy_MM_dd_HH_mm_ss_z));
+        assertEquals(1608587111000L, DateTimeUtils.timeFromStringToMillis("2020-12-21 16:45:11 -0500", "UTC", Constants.yyyy_MM_dd_HH_mm_ss_z));
+        assertEquals(1608569111000L, DateTimeUtils.timeFromStringToMillis("2020-12-21 16:45:11", "UTC", Constants.yyyy_MM_dd_HH_mm_ss));
+        assertEquals(1582934400000L, DateTimeUtils.timeFromStringToMillis("2020-02-29 00:00:00", "UTC", Constants.yyyy_MM_dd_HH_mm_ss));
+        assertEquals("2020-12-21 11:45:11", DateTimeUtils.timeFromLongToString(1608569111000L, "America/New_York", Constants.yyyy_MM_dd_HH_mm_ss));
+    }
+
+    @Test
+    public void otherLayoutsAndInvalidValuesGoThroughJoda() throws HygieiaException {
+        // single digit fields are accepted by joda
+        assertEquals(jodaParse("2020-1-5 1:2:3", "UTC", Constants.yyyy_MM_dd_HH_mm_ss),
+                DateTimeUtils.timeFromStringToMillis("2020-1-5 1:2:3", "UTC", Constants.yyyy_MM_dd_HH_mm_ss));
+        assertEquals(jodaParse("2020-12-21", "UTC", Constants.yyyy_MM_dd),
+                DateTimeUtils.timeFromStringToMillis("2020-12-21", "UTC", Constants.yyyy_MM_dd));
+        assertThrows(IllegalArgumentException.class,
+                () -> DateTimeUtils.timeFromStringToMillis("2021-02-29 10:00:00", "UTC", Constants.yyyy_MM_dd_HH_mm_ss));
+        // daylight saving gap
+        assertThrows(IllegalArgumentException.class,
+                () -> DateTimeUtils.timeFromStringToMillis("2021-03-14 02:30:00", "America/New_York", Constants.yyyy_MM_dd_HH_mm_ss));
+        assertThrows(HygieiaException.class,
+                () -> DateTimeUtils.timeFromStringToMillis("", "UTC", Constants.yyyy_MM_dd_HH_mm_ss));
+    }
+
+    private static String jodaFormat(long millis, String zone, String pattern) {
+        return new DateTime(millis, DateTimeZone.forID(zone)).toString(DateTimeFormat.forPattern(pattern));
+    }
+
+    private static long jodaParse(String value, String zone, String pattern) {
+        return DateTimeFormat.forPattern(pattern).withZone(DateTimeZone.forID(zone)).parseMillis(value);
+    }
+}